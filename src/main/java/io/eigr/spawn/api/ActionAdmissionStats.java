@@ -0,0 +1,65 @@
+package io.eigr.spawn.api;
+
+import java.util.StringJoiner;
+
+/**
+ * Point-in-time counters of the admission control of the actions endpoint, see
+ * {@link TransportOpts.TransportOptsBuilder#admissionControl(int, java.time.Duration)}. Shed requests were answered
+ * with a 503 without running their action.
+ */
+public final class ActionAdmissionStats {
+
+    private final int inFlight;
+    private final long admitted;
+    private final long shedOverConcurrency;
+    private final long shedOverQueueTime;
+
+    public ActionAdmissionStats(int inFlight, long admitted, long shedOverConcurrency, long shedOverQueueTime) {
+        this.inFlight = inFlight;
+        this.admitted = admitted;
+        this.shedOverConcurrency = shedOverConcurrency;
+        this.shedOverQueueTime = shedOverQueueTime;
+    }
+
+    /**
+     * @return requests accepted and not answered yet, queued or running
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return requests whose action was run
+     */
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    /**
+     * @return requests shed on arrival because the maximum number of requests were in flight
+     */
+    public long getShedOverConcurrency() {
+        return shedOverConcurrency;
+    }
+
+    /**
+     * @return requests shed because they waited for a worker longer than the maximum queue time
+     */
+    public long getShedOverQueueTime() {
+        return shedOverQueueTime;
+    }
+
+    public long getShed() {
+        return shedOverConcurrency + shedOverQueueTime;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", ActionAdmissionStats.class.getSimpleName() + "[", "]")
+                .add("inFlight=" + inFlight)
+                .add("admitted=" + admitted)
+                .add("shedOverConcurrency=" + shedOverConcurrency)
+                .add("shedOverQueueTime=" + shedOverQueueTime)
+                .toString();
+    }
+}
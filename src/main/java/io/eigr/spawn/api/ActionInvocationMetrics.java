@@ -0,0 +1,105 @@
+package io.eigr.spawn.api;
+
+import io.eigr.functions.protocol.Protocol;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Point-in-time view of the invocations of one action of one actor, as recorded by
+ * {@link InvocationMetricsRecorder}. Latencies are in nanoseconds and payload sizes in bytes.
+ */
+public final class ActionInvocationMetrics {
+
+    private final String actorName;
+    private final String actionName;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot queueing;
+    private final HistogramSnapshot requestBytes;
+    private final HistogramSnapshot responseBytes;
+    private final Map<Protocol.Status, Long> statuses;
+    private final long failures;
+    private final long asyncInvocations;
+
+    public ActionInvocationMetrics(String actorName, String actionName, HistogramSnapshot latency,
+                                   HistogramSnapshot queueing, HistogramSnapshot requestBytes,
+                                   HistogramSnapshot responseBytes, Map<Protocol.Status, Long> statuses,
+                                   long failures, long asyncInvocations) {
+        this.actorName = actorName;
+        this.actionName = actionName;
+        this.latency = latency;
+        this.queueing = queueing;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.statuses = Collections.unmodifiableMap(statuses);
+        this.failures = failures;
+        this.asyncInvocations = asyncInvocations;
+    }
+
+    public String getActorName() {
+        return actorName;
+    }
+
+    public String getActionName() {
+        return actionName;
+    }
+
+    /**
+     * @return time until the proxy answered, or the invocation failed, of invocations waiting for a result
+     */
+    public HistogramSnapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return time calls to the proxy waited for a dispatcher slot and a connection, hedges and retries included
+     */
+    public HistogramSnapshot getQueueing() {
+        return queueing;
+    }
+
+    /**
+     * @return sizes of the invocation requests, fire-and-forget ones included
+     */
+    public HistogramSnapshot getRequestBytes() {
+        return requestBytes;
+    }
+
+    public HistogramSnapshot getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * @return number of answered invocations per status the proxy answered with
+     */
+    public Map<Protocol.Status, Long> getStatuses() {
+        return statuses;
+    }
+
+    /**
+     * @return invocations that got no answer from the proxy
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getAsyncInvocations() {
+        return asyncInvocations;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", ActionInvocationMetrics.class.getSimpleName() + "[", "]")
+                .add("actorName='" + actorName + "'")
+                .add("actionName='" + actionName + "'")
+                .add("latency=" + latency)
+                .add("queueing=" + queueing)
+                .add("requestBytes=" + requestBytes)
+                .add("responseBytes=" + responseBytes)
+                .add("statuses=" + statuses)
+                .add("failures=" + failures)
+                .add("asyncInvocations=" + asyncInvocations)
+                .toString();
+    }
+}
@@ -0,0 +1,118 @@
+package io.eigr.spawn.api;
+
+import io.eigr.spawn.api.actors.behaviors.ActorBehavior;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Settings of the cache of actor instances the SDK keeps to run actions on. An instance is built, and its behavior
+ * configured, the first time one of its actions is invoked and then reused until it is evicted, either because it
+ * was not invoked for {@code expireAfterAccess} or to keep the cache within its bounds.
+ * <p>
+ * The cache is bounded by entries with {@code maximumSize}, or by weight with {@code maximumWeight} when a
+ * {@link ActorWeigher} is set, for example when a few actors hold much larger behaviors than the rest.
+ *
+ * @see Spawn.SpawnSystem#withActorCacheOptions(ActorCacheOpts)
+ * @see Spawn#getActorCacheStats()
+ */
+public final class ActorCacheOpts {
+
+    private final long maximumSize;
+    private final Duration expireAfterAccess;
+    private final long maximumWeight;
+    private final Optional<ActorWeigher> weigher;
+
+    private ActorCacheOpts(ActorCacheOptsBuilder builder) {
+        this.maximumSize = builder.maximumSize;
+        this.expireAfterAccess = builder.expireAfterAccess;
+        this.maximumWeight = builder.maximumWeight;
+        this.weigher = Optional.ofNullable(builder.weigher);
+    }
+
+    public static ActorCacheOptsBuilder builder() {
+        return new ActorCacheOptsBuilder();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Duration getExpireAfterAccess() {
+        return expireAfterAccess;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public Optional<ActorWeigher> getWeigher() {
+        return weigher;
+    }
+
+    /**
+     * Weight of a cached actor instance, computed once when it is cached.
+     */
+    @FunctionalInterface
+    public interface ActorWeigher {
+
+        /**
+         * @param actorName name of the actor instance
+         * @param behavior  configured behavior of the instance
+         * @return weight of the instance, zero or more
+         */
+        int weigh(String actorName, ActorBehavior behavior);
+    }
+
+    public static final class ActorCacheOptsBuilder {
+
+        private long maximumSize = 10_000;
+        private Duration expireAfterAccess = Duration.ofSeconds(60);
+        private long maximumWeight;
+        private ActorWeigher weigher;
+
+        public ActorCacheOpts build() {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("maximumSize must be greater than zero");
+            }
+            if (expireAfterAccess.isNegative() || expireAfterAccess.isZero()) {
+                throw new IllegalArgumentException("expireAfterAccess must be greater than zero");
+            }
+            if (weigher != null && maximumWeight < 1) {
+                throw new IllegalArgumentException("maximumWeight must be greater than zero");
+            }
+            return new ActorCacheOpts(this);
+        }
+
+        /**
+         * @param maximumSize actor instances kept at most, ignored when a weigher is set
+         * @return the builder instance
+         */
+        public ActorCacheOptsBuilder maximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * @param expireAfterAccess how long an actor instance is kept after its last invocation
+         * @return the builder instance
+         */
+        public ActorCacheOptsBuilder expireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+            return this;
+        }
+
+        /**
+         * Bounds the cache by the total weight of its actor instances instead of by their number.
+         *
+         * @param maximumWeight total weight of the actor instances kept at most
+         * @param weigher       weight of an actor instance
+         * @return the builder instance
+         */
+        public ActorCacheOptsBuilder maximumWeight(long maximumWeight, ActorWeigher weigher) {
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.eigr.spawn.api;
+
+import java.util.StringJoiner;
+
+/**
+ * Point-in-time counters of the cache of actor instances, see {@link ActorCacheOpts}. A miss builds a new actor
+ * instance.
+ */
+public final class ActorCacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+
+    public ActorCacheStats(long hitCount, long missCount, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return actor instances evicted, by size, weight or expiry
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return approximate number of cached actor instances
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return ratio of invocations that found their actor instance cached, 1 when there was none yet
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", ActorCacheStats.class.getSimpleName() + "[", "]")
+                .add("hitCount=" + hitCount)
+                .add("missCount=" + missCount)
+                .add("evictionCount=" + evictionCount)
+                .add("size=" + size)
+                .toString();
+    }
+}
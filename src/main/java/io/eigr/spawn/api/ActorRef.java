@@ -9,9 +9,12 @@ import io.eigr.functions.protocol.actors.ActorOuterClass;
 import io.eigr.spawn.api.exceptions.ActorCreationException;
 import io.eigr.spawn.api.exceptions.ActorInvocationException;
 import io.eigr.spawn.api.exceptions.ActorNotFoundException;
+import io.eigr.spawn.internal.InvocationDeadline;
+import io.eigr.spawn.internal.transport.client.HedgingSpawnClient;
 import io.eigr.spawn.internal.transport.client.SpawnClient;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ActorRef is responsible for representing an instance of an Actor
@@ -19,6 +22,7 @@ import java.util.*;
  * @author Adriano Santos
  */
 public final class ActorRef {
+    private static final String REQUEST_TIMEOUT_METADATA = "request-timeout";
 
     private final ActorOuterClass.ActorId actorId;
 
@@ -26,10 +30,21 @@ public final class ActorRef {
 
     private final Class type;
 
-    private ActorRef(ActorOuterClass.ActorId actorId, SpawnClient client, Class type) {
+    private final Set<String> idempotentActions;
+
+    // Parts of every invocation that never change for this actor, built once so each call
+    // only has to set the action name and its payload.
+    private final ActorOuterClass.ActorSystem actorSystem;
+
+    private final ActorOuterClass.Actor actor;
+
+    private ActorRef(ActorOuterClass.ActorId actorId, SpawnClient client, Class type, Set<String> idempotentActions) {
         this.client = client;
-        this.actorId = actorId;
+        this.actorId = Objects.requireNonNull(actorId, "ActorId cannot be null");
         this.type = type;
+        this.idempotentActions = idempotentActions;
+        this.actorSystem = ActorOuterClass.ActorSystem.newBuilder().setName(actorId.getSystem()).build();
+        this.actor = ActorOuterClass.Actor.newBuilder().setId(actorId).build();
     }
 
     /**
@@ -43,6 +58,23 @@ public final class ActorRef {
      * @since 0.0.1
      */
     protected static ActorRef of(SpawnClient client, Cache<ActorOuterClass.ActorId, ActorRef> cache, ActorIdentity identity, Class actorType) throws ActorCreationException {
+        return of(client, cache, identity, actorType, Collections.emptySet());
+    }
+
+    /**
+     * <p>This method is responsible for creating instances of the ActorRef class
+     * </p>
+     *
+     * @param client is the client part of the Spawn protocol and is responsible for communicating with the Proxy.
+     * @param cache is actor ids cache
+     * @param identity ActorIdentity name of the actor that this ActorRef instance should represent
+     * @param idempotentActions actions registered as idempotent, whose invocations may be hedged or retried
+     * @return the ActorRef instance
+     * @since 1.3.0
+     */
+    protected static ActorRef of(
+            SpawnClient client, Cache<ActorOuterClass.ActorId, ActorRef> cache, ActorIdentity identity, Class actorType,
+            Set<String> idempotentActions) throws ActorCreationException {
         ActorOuterClass.ActorId actorId;
 
         if (identity.isParent()) {
@@ -62,7 +94,7 @@ public final class ActorRef {
             spawnActor(actorId, client);
         }
 
-        ref = new ActorRef(actorId, client, actorType);
+        ref = new ActorRef(actorId, client, actorType, idempotentActions);
         cache.put(actorId, ref);
         return ref;
     }
@@ -171,6 +203,72 @@ public final class ActorRef {
 
     }
 
+    /**
+     * <p>This method invokes an action on the actor that this ActorRef instance represents through the Spawn Proxy
+     * without blocking the caller thread. Used when it is not necessary to send parameters to the Action.
+     * </p>
+     *
+     * @param action     name of the action to be called.
+     * @param outputType the class that corresponds to the expected return type
+     * @return a CompletableFuture completed with an Optional containing, or not, the response object to the Action call
+     * @since 1.3.0
+     */
+    public <T extends GeneratedMessage> CompletableFuture<Optional<T>> invokeFuture(String action, Class<T> outputType) {
+        return invokeActorFuture(action, Empty.getDefaultInstance(), outputType, Optional.empty());
+    }
+
+    /**
+     * <p>This method invokes an action on the actor that this ActorRef instance represents through the Spawn Proxy
+     * without blocking the caller thread. Used when it is not necessary to send parameters to the Action.
+     * </p>
+     *
+     * @param action     name of the action to be called.
+     * @param outputType the class that corresponds to the expected return type
+     * @param opts       options that can be passed during the invocation of the Action.
+     *                   Please see the {@link io.eigr.spawn.api.InvocationOpts} class for more information
+     * @return a CompletableFuture completed with an Optional containing, or not, the response object to the Action call
+     * @since 1.3.0
+     */
+    public <T extends GeneratedMessage> CompletableFuture<Optional<T>> invokeFuture(String action, Class<T> outputType, InvocationOpts opts) {
+        return invokeActorFuture(action, Empty.getDefaultInstance(), outputType, Optional.ofNullable(opts));
+    }
+
+    /**
+     * <p>This method invokes an action on the actor that this ActorRef instance represents through the Spawn Proxy
+     * without blocking the caller thread.
+     * </p>
+     *
+     * @param action     name of the action to be called.
+     * @param value      the action argument object.
+     * @param outputType the class that corresponds to the expected return type
+     * @return a CompletableFuture completed with an Optional containing, or not, the response object to the Action call.
+     * Failures are reported by completing the future exceptionally with an {@link ActorInvocationException}
+     * @since 1.3.0
+     */
+    public <T extends GeneratedMessage, S extends GeneratedMessage> CompletableFuture<Optional<T>> invokeFuture(String action, S value, Class<T> outputType) {
+        return invokeActorFuture(action, value, outputType, Optional.empty());
+    }
+
+    /**
+     * <p>This method invokes an action on the actor that this ActorRef instance represents through the Spawn Proxy
+     * without blocking the caller thread.
+     * </p>
+     *
+     * @param action     name of the action to be called.
+     * @param value      the action argument object.
+     * @param outputType the class that corresponds to the expected return type
+     * @param opts       options that can be passed during the invocation of the Action.
+     *                   Please see the {@link io.eigr.spawn.api.InvocationOpts} class for more information
+     * @return a CompletableFuture completed with an Optional containing, or not, the response object to the Action call.
+     * Failures are reported by completing the future exceptionally with an {@link ActorInvocationException}, or an
+     * {@link io.eigr.spawn.api.exceptions.ActorInvocationTimeoutException} once the invocation timeout has elapsed.
+     * Cancelling the future aborts the request to the proxy.
+     * @since 1.3.0
+     */
+    public <T extends GeneratedMessage, S extends GeneratedMessage> CompletableFuture<Optional<T>> invokeFuture(String action, S value, Class<T> outputType, InvocationOpts opts) {
+        return invokeActorFuture(action, value, outputType, Optional.ofNullable(opts));
+    }
+
     /**
      * <p>This method asynchronously invokes an action on the actor that this ActorRef instance represents via the Spawn Proxy.
      * Used when it is not necessary to send parameters to the Action.
@@ -267,40 +365,84 @@ public final class ActorRef {
 
     private <T extends GeneratedMessage, S extends GeneratedMessage> Optional<T> invokeActor(
             String cmd, S argument, Class<T> outputType, Optional<InvocationOpts> options) throws ActorInvocationException {
-        Objects.requireNonNull(this.actorId, "ActorId cannot be null");
-
-        Protocol.InvocationRequest.Builder invocationRequestBuilder = Protocol.InvocationRequest.newBuilder();
+        Protocol.InvocationResponse resp = this.client.invoke(buildInvocationRequest(cmd, argument, options));
+        return handleInvocationResponse(resp, outputType);
+    }
 
-        if (Objects.nonNull(this.actorId.getParent()) && !this.actorId.getParent().isEmpty()) {
-            invocationRequestBuilder.setRegisterRef(this.actorId.getParent());
-        }
+    private <T extends GeneratedMessage, S extends GeneratedMessage> CompletableFuture<Optional<T>> invokeActorFuture(
+            String cmd, S argument, Class<T> outputType, Optional<InvocationOpts> options) {
+        CompletableFuture<Protocol.InvocationResponse> call =
+                this.client.invokeAsyncWithResult(buildInvocationRequest(cmd, argument, options));
+        CompletableFuture<Optional<T>> result = call.thenCompose(resp -> {
+            try {
+                return CompletableFuture.completedFuture(handleInvocationResponse(resp, outputType));
+            } catch (ActorInvocationException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
 
-        Map<String, String> metadata = new HashMap<>();
-        options.ifPresent(opts -> {
-            invocationRequestBuilder.setAsync(opts.isAsync());
-            metadata.put("request-timeout", String.valueOf(opts.getTimeout()));
-            opts.getDelaySeconds().ifPresent(invocationRequestBuilder::setScheduledTo);
-            // 'scheduledTo' override 'delay' if both is set.
-            opts.getScheduledTo()
-                    .ifPresent(scheduleTo -> invocationRequestBuilder.setScheduledTo(opts.getScheduleTimeInLong()));
+        // Cancelling a dependent future does not reach its source, so forward it to abort the underlying call.
+        result.whenComplete((resp, err) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
         });
+        return result;
+    }
 
-        final ActorOuterClass.Actor actorRef = ActorOuterClass.Actor.newBuilder()
-                .setId(this.actorId)
-                .build();
+    private <S extends GeneratedMessage> Protocol.InvocationRequest buildInvocationRequest(
+            String cmd, S argument, Optional<InvocationOpts> options) {
+        Protocol.InvocationRequest.Builder invocationRequestBuilder = newInvocation(cmd, argument);
 
-        Any commandArg = Any.pack(argument);
+        boolean async = options.isPresent() && options.get().isAsync();
+        boolean idempotent = this.idempotentActions.contains(cmd)
+                || (options.isPresent() && options.get().isIdempotent());
+        if (idempotent && !async) {
+            invocationRequestBuilder.putMetadata(HedgingSpawnClient.IDEMPOTENT_METADATA, "true");
+        }
+
+        if (options.isPresent()) {
+            InvocationOpts opts = options.get();
+            invocationRequestBuilder
+                    .setAsync(opts.isAsync())
+                    .putMetadata(REQUEST_TIMEOUT_METADATA, opts.getTimeoutMetadata());
+            if (!opts.isAsync()) {
+                // Only a caller waiting for the result bounds the invocation; async ones may be delayed on purpose.
+                invocationRequestBuilder.putMetadata(
+                        InvocationDeadline.REQUEST_DEADLINE_METADATA, InvocationDeadline.after(opts.getTimeout()));
+            }
+            setSchedule(invocationRequestBuilder, opts);
+        }
+
+        return invocationRequestBuilder.build();
+    }
 
-        invocationRequestBuilder
-                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(this.actorId.getSystem()).build())
-                .setActor(actorRef)
+    private <S extends GeneratedMessage> Protocol.InvocationRequest.Builder newInvocation(String cmd, S argument) {
+        Protocol.InvocationRequest.Builder invocationRequestBuilder = Protocol.InvocationRequest.newBuilder()
+                .setSystem(this.actorSystem)
+                .setActor(this.actor)
                 .setActionName(cmd)
-                .setValue(commandArg)
+                .setValue(Any.pack(argument));
 
-                .putAllMetadata(metadata)
-                .build();
+        if (!this.actorId.getParent().isEmpty()) {
+            invocationRequestBuilder.setRegisterRef(this.actorId.getParent());
+        }
 
-        Protocol.InvocationResponse resp = this.client.invoke(invocationRequestBuilder.build());
+        return invocationRequestBuilder;
+    }
+
+    private static void setSchedule(Protocol.InvocationRequest.Builder invocationRequestBuilder, InvocationOpts opts) {
+        if (opts.getDelaySeconds().isPresent()) {
+            invocationRequestBuilder.setScheduledTo(opts.getDelaySeconds().get());
+        }
+        // 'scheduledTo' override 'delay' if both is set.
+        if (opts.getScheduledTo().isPresent()) {
+            invocationRequestBuilder.setScheduledTo(opts.getScheduleTimeInLong());
+        }
+    }
+
+    private <T extends GeneratedMessage> Optional<T> handleInvocationResponse(
+            Protocol.InvocationResponse resp, Class<T> outputType) throws ActorInvocationException {
         final Protocol.RequestStatus status = resp.getStatus();
         switch (status.getStatus()) {
             case UNKNOWN:
@@ -326,38 +468,12 @@ public final class ActorRef {
     }
 
     private <T extends GeneratedMessage, S extends GeneratedMessage> void invokeActorAsync(
-            String cmd, S argument, Optional<InvocationOpts> options) {
-        Objects.requireNonNull(this.actorId, "ActorId cannot be null");
-
-        Protocol.InvocationRequest.Builder invocationRequestBuilder = Protocol.InvocationRequest.newBuilder();
-
-        if (Objects.nonNull(this.actorId.getParent()) && !this.actorId.getParent().isEmpty()) {
-            invocationRequestBuilder.setRegisterRef(this.actorId.getParent());
+            String cmd, S argument, Optional<InvocationOpts> options) throws ActorInvocationException {
+        Protocol.InvocationRequest.Builder invocationRequestBuilder = newInvocation(cmd, argument).setAsync(true);
+        if (options.isPresent()) {
+            setSchedule(invocationRequestBuilder, options.get());
         }
 
-        Map<String, String> metadata = new HashMap<>();
-        options.ifPresent(opts -> {
-            opts.getDelaySeconds().ifPresent(invocationRequestBuilder::setScheduledTo);
-            // 'scheduledTo' override 'delay' if both is set.
-            opts.getScheduledTo()
-                    .ifPresent(scheduleTo -> invocationRequestBuilder.setScheduledTo(opts.getScheduleTimeInLong()));
-        });
-
-        final ActorOuterClass.Actor actorRef = ActorOuterClass.Actor.newBuilder()
-                .setId(this.actorId)
-                .build();
-
-        Any commandArg = Any.pack(argument);
-
-        invocationRequestBuilder
-                .setAsync(true)
-                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(this.actorId.getSystem()).build())
-                .setActor(actorRef)
-                .setActionName(cmd)
-                .setValue(commandArg)
-                .putAllMetadata(metadata)
-                .build();
-
         this.client.invokeAsync(invocationRequestBuilder.build());
     }
 }
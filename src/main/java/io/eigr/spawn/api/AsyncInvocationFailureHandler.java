@@ -0,0 +1,15 @@
+package io.eigr.spawn.api;
+
+/**
+ * Notified when a fire-and-forget invocation does not reach its actor: the proxy could not be reached or answered
+ * with an error, or the invocation was dropped because too many async invocations were pending.
+ * <p>
+ * Called from transport threads, so implementations must be fast and must not block.
+ *
+ * @see TransportOpts.TransportOptsBuilder#asyncFailureHandler(AsyncInvocationFailureHandler)
+ */
+@FunctionalInterface
+public interface AsyncInvocationFailureHandler {
+
+    void onFailure(String actorName, String actionName, Throwable cause);
+}
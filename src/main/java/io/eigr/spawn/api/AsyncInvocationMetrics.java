@@ -0,0 +1,75 @@
+package io.eigr.spawn.api;
+
+import java.util.StringJoiner;
+
+/**
+ * Point-in-time view of the fire-and-forget invocations pending in the SDK.
+ *
+ * @see TransportOpts.TransportOptsBuilder#asyncInvocationLimits(int, int, TransportOpts.AsyncOverflowPolicy)
+ */
+public final class AsyncInvocationMetrics {
+
+    private final int inFlight;
+    private final int queued;
+    private final long rejected;
+    private final long dropped;
+    private final long callerRuns;
+    private final long failed;
+
+    public AsyncInvocationMetrics(int inFlight, int queued, long rejected, long dropped, long callerRuns, long failed) {
+        this.inFlight = inFlight;
+        this.queued = queued;
+        this.rejected = rejected;
+        this.dropped = dropped;
+        this.callerRuns = callerRuns;
+        this.failed = failed;
+    }
+
+    /**
+     * @return invocations sent to the proxy and not answered yet
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return invocations waiting for an in-flight one to complete before being sent
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return invocations sent synchronously by the calling thread because the queue was full
+     */
+    public long getCallerRuns() {
+        return callerRuns;
+    }
+
+    /**
+     * @return invocations that failed or were answered with an error after being sent
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", AsyncInvocationMetrics.class.getSimpleName() + "[", "]")
+                .add("inFlight=" + inFlight)
+                .add("queued=" + queued)
+                .add("rejected=" + rejected)
+                .add("dropped=" + dropped)
+                .add("callerRuns=" + callerRuns)
+                .add("failed=" + failed)
+                .toString();
+    }
+}
@@ -0,0 +1,83 @@
+package io.eigr.spawn.api;
+
+import java.util.StringJoiner;
+
+/**
+ * Point-in-time view of the circuit breaker and bulkhead guarding one actor, or one actor type.
+ *
+ * @see ResilienceOpts
+ */
+public final class CircuitBreakerMetrics {
+
+    private final State state;
+    private final float failureRate;
+    private final float slowCallRate;
+    private final int bufferedCalls;
+    private final long notPermittedCalls;
+    private final int concurrentCalls;
+    private final long bulkheadRejectedCalls;
+
+    public CircuitBreakerMetrics(State state, float failureRate, float slowCallRate, int bufferedCalls,
+                                 long notPermittedCalls, int concurrentCalls, long bulkheadRejectedCalls) {
+        this.state = state;
+        this.failureRate = failureRate;
+        this.slowCallRate = slowCallRate;
+        this.bufferedCalls = bufferedCalls;
+        this.notPermittedCalls = notPermittedCalls;
+        this.concurrentCalls = concurrentCalls;
+        this.bulkheadRejectedCalls = bulkheadRejectedCalls;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return percentage of failed calls in the sliding window, or -1 while fewer than the minimum were recorded
+     */
+    public float getFailureRate() {
+        return failureRate;
+    }
+
+    /**
+     * @return percentage of slow calls in the sliding window, or -1 while fewer than the minimum were recorded
+     */
+    public float getSlowCallRate() {
+        return slowCallRate;
+    }
+
+    public int getBufferedCalls() {
+        return bufferedCalls;
+    }
+
+    public long getNotPermittedCalls() {
+        return notPermittedCalls;
+    }
+
+    public int getConcurrentCalls() {
+        return concurrentCalls;
+    }
+
+    public long getBulkheadRejectedCalls() {
+        return bulkheadRejectedCalls;
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", CircuitBreakerMetrics.class.getSimpleName() + "[", "]")
+                .add("state=" + state)
+                .add("failureRate=" + failureRate)
+                .add("slowCallRate=" + slowCallRate)
+                .add("bufferedCalls=" + bufferedCalls)
+                .add("notPermittedCalls=" + notPermittedCalls)
+                .add("concurrentCalls=" + concurrentCalls)
+                .add("bulkheadRejectedCalls=" + bulkheadRejectedCalls)
+                .toString();
+    }
+}
@@ -0,0 +1,41 @@
+package io.eigr.spawn.api;
+
+import io.eigr.spawn.internal.transport.GzipCompressionCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compression applied to invocation payloads exchanged with the proxy, negotiated through the HTTP
+ * {@code Content-Encoding} and {@code Accept-Encoding} headers.
+ * <p>
+ * {@link #gzip()} is built in. Faster codecs such as LZ4 or zstd can be plugged in by implementing this
+ * interface on top of their library, as long as the proxy understands the same encoding token.
+ *
+ * @see TransportOpts.TransportOptsBuilder#compression(CompressionCodec, int)
+ */
+public interface CompressionCodec {
+
+    static CompressionCodec gzip() {
+        return GzipCompressionCodec.INSTANCE;
+    }
+
+    /**
+     * @return the HTTP content coding token of this codec, such as {@code gzip} or {@code zstd}
+     */
+    String encoding();
+
+    /**
+     * @param out stream receiving the compressed bytes
+     * @return a stream compressing everything written to it into {@code out}, finishing the compressed
+     * data when closed
+     */
+    OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * @param in stream of compressed bytes
+     * @return a stream reading the decompressed bytes
+     */
+    InputStream decompress(InputStream in) throws IOException;
+}
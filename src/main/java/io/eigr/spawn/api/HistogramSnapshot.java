@@ -0,0 +1,83 @@
+package io.eigr.spawn.api;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Point-in-time view of a histogram with one bucket per power of two: bucket 0 counts zeros and bucket {@code i}
+ * counts values from {@code 2^(i-1)} to {@code 2^i - 1}. Percentiles are therefore accurate within a factor of two.
+ *
+ * @see InvocationMetricsRecorder
+ */
+public final class HistogramSnapshot {
+
+    private final long[] bucketCounts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    public HistogramSnapshot(long[] bucketCounts, long sum, long max) {
+        this.bucketCounts = bucketCounts.clone();
+        this.count = Arrays.stream(bucketCounts).sum();
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100, such as 99.9
+     * @return upper bound of the bucket holding the value at this percentile, never above {@link #getMax()}
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return number of recorded values per bucket
+     */
+    public long[] getBucketCounts() {
+        return bucketCounts.clone();
+    }
+
+    private static long upperBoundOf(int bucket) {
+        return bucket >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", HistogramSnapshot.class.getSimpleName() + "[", "]")
+                .add("count=" + count)
+                .add("mean=" + getMean())
+                .add("p50=" + getValueAtPercentile(50))
+                .add("p99=" + getValueAtPercentile(99))
+                .add("max=" + max)
+                .toString();
+    }
+}
@@ -0,0 +1,76 @@
+package io.eigr.spawn.api;
+
+import io.eigr.functions.protocol.Protocol;
+
+/**
+ * Receives timings, statuses and payload sizes of the invocations the SDK sends to the proxy. Every method does
+ * nothing by default, so implementations only override what they record. {@link InvocationMetricsRecorder} is a
+ * ready to use implementation.
+ * <p>
+ * Called from the invoking thread or from transport threads, on every invocation, so implementations must be
+ * fast, must not block, and should not allocate.
+ *
+ * @see TransportOpts.TransportOptsBuilder#instrumentation(InvocationInstrumentation)
+ */
+public interface InvocationInstrumentation {
+
+    InvocationInstrumentation NOOP = new InvocationInstrumentation() {
+    };
+
+    /**
+     * An invocation waiting for a result is about to be handed to the transport.
+     *
+     * @param requestBytes size of the protobuf encoded invocation request
+     */
+    default void invocationStarted(String actorName, String actionName, int requestBytes) {
+    }
+
+    /**
+     * The proxy answered an invocation started with {@link #invocationStarted}.
+     *
+     * @param status        status the proxy answered with
+     * @param latencyNanos  time since the invocation started, retries and hedges included
+     * @param responseBytes size of the protobuf encoded invocation response
+     */
+    default void invocationCompleted(String actorName, String actionName, Protocol.Status status,
+                                     long latencyNanos, int responseBytes) {
+    }
+
+    /**
+     * An invocation started with {@link #invocationStarted} got no answer from the proxy: it could not be sent,
+     * timed out, was rejected by the SDK or was cancelled.
+     *
+     * @param latencyNanos time since the invocation started
+     */
+    default void invocationFailed(String actorName, String actionName, Throwable cause, long latencyNanos) {
+    }
+
+    /**
+     * A call to the proxy got a connection after waiting for a dispatcher slot and for a connection to be free or
+     * established. Reported for every call, hedges and retries included, by the HTTP proxy protocols only.
+     *
+     * @param queuedNanos time from the call being made to the connection being acquired
+     */
+    default void invocationQueued(String actorName, String actionName, long queuedNanos) {
+    }
+
+    /**
+     * A fire-and-forget invocation was handed to the transport, either on its own or as part of a batch.
+     *
+     * @param requestBytes size of the protobuf encoded invocation request
+     */
+    default void asyncInvocationSent(String actorName, String actionName, int requestBytes) {
+    }
+
+    /**
+     * A call to the proxy acquired a pooled connection, or an HTTP/2 stream on one.
+     */
+    default void connectionAcquired() {
+    }
+
+    /**
+     * A call to the proxy released the connection, or stream, it acquired.
+     */
+    default void connectionReleased() {
+    }
+}
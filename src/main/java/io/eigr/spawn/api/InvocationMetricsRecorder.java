@@ -0,0 +1,158 @@
+package io.eigr.spawn.api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.spawn.internal.PowerOfTwoHistogram;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * {@link InvocationInstrumentation} that keeps latency and payload size histograms, and status counters, per actor
+ * and action, along with the invocations in flight and the proxy connections in use.
+ * <p>
+ * Histograms and counters are allocated the first time an action is seen. From then on, recording only bumps
+ * {@link LongAdder}s, so it neither locks nor allocates and can stay enabled in production. Actors are tracked
+ * by name, up to 10 000 of them, the least recently invoked ones being forgotten first.
+ *
+ * @see TransportOpts.TransportOptsBuilder#instrumentation(InvocationInstrumentation)
+ */
+public final class InvocationMetricsRecorder implements InvocationInstrumentation {
+    private static final int ACTORS_MAXIMUM_SIZE = 10_000;
+    private static final Protocol.Status[] STATUSES = Protocol.Status.values();
+
+    private static final Function<String, Map<String, ActionRecorder>> ACTIONS_FACTORY =
+            actorName -> new ConcurrentHashMap<>();
+
+    private final Cache<String, Map<String, ActionRecorder>> actors;
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder connectionsInUse = new LongAdder();
+
+    public InvocationMetricsRecorder() {
+        this.actors = Caffeine.newBuilder()
+                .maximumSize(ACTORS_MAXIMUM_SIZE)
+                .build();
+    }
+
+    @Override
+    public void invocationStarted(String actorName, String actionName, int requestBytes) {
+        inFlight.increment();
+        recorderOf(actorName, actionName).requestBytes.record(requestBytes);
+    }
+
+    @Override
+    public void invocationCompleted(String actorName, String actionName, Protocol.Status status,
+                                    long latencyNanos, int responseBytes) {
+        inFlight.decrement();
+        ActionRecorder recorder = recorderOf(actorName, actionName);
+        recorder.latency.record(latencyNanos);
+        recorder.responseBytes.record(responseBytes);
+        recorder.statuses[status.ordinal()].increment();
+    }
+
+    @Override
+    public void invocationFailed(String actorName, String actionName, Throwable cause, long latencyNanos) {
+        inFlight.decrement();
+        ActionRecorder recorder = recorderOf(actorName, actionName);
+        recorder.latency.record(latencyNanos);
+        recorder.failures.increment();
+    }
+
+    @Override
+    public void invocationQueued(String actorName, String actionName, long queuedNanos) {
+        recorderOf(actorName, actionName).queueing.record(queuedNanos);
+    }
+
+    @Override
+    public void asyncInvocationSent(String actorName, String actionName, int requestBytes) {
+        ActionRecorder recorder = recorderOf(actorName, actionName);
+        recorder.requestBytes.record(requestBytes);
+        recorder.asyncInvocations.increment();
+    }
+
+    @Override
+    public void connectionAcquired() {
+        connectionsInUse.increment();
+    }
+
+    @Override
+    public void connectionReleased() {
+        connectionsInUse.decrement();
+    }
+
+    /**
+     * @return invocations handed to the transport and not answered yet, fire-and-forget ones excluded
+     */
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    /**
+     * @return calls to the proxy currently holding a connection, or an HTTP/2 stream on one
+     */
+    public long getConnectionsInUse() {
+        return connectionsInUse.sum();
+    }
+
+    /**
+     * @return metrics of every action invoked so far, of the actors still tracked
+     */
+    public List<ActionInvocationMetrics> snapshot() {
+        List<ActionInvocationMetrics> snapshot = new ArrayList<>();
+        actors.asMap().forEach((actorName, actions) -> actions.forEach(
+                (actionName, recorder) -> snapshot.add(recorder.snapshot(actorName, actionName))));
+        return snapshot;
+    }
+
+    public Optional<ActionInvocationMetrics> snapshot(String actorName, String actionName) {
+        return Optional.ofNullable(actors.getIfPresent(actorName))
+                .map(actions -> actions.get(actionName))
+                .map(recorder -> recorder.snapshot(actorName, actionName));
+    }
+
+    private ActionRecorder recorderOf(String actorName, String actionName) {
+        Map<String, ActionRecorder> actions = actors.get(actorName, ACTIONS_FACTORY);
+        ActionRecorder recorder = actions.get(actionName);
+        if (Objects.isNull(recorder)) {
+            recorder = actions.computeIfAbsent(actionName, name -> new ActionRecorder());
+        }
+        return recorder;
+    }
+
+    private static final class ActionRecorder {
+        private final PowerOfTwoHistogram latency = new PowerOfTwoHistogram();
+        private final PowerOfTwoHistogram queueing = new PowerOfTwoHistogram();
+        private final PowerOfTwoHistogram requestBytes = new PowerOfTwoHistogram();
+        private final PowerOfTwoHistogram responseBytes = new PowerOfTwoHistogram();
+        private final LongAdder[] statuses = new LongAdder[STATUSES.length];
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder asyncInvocations = new LongAdder();
+
+        private ActionRecorder() {
+            for (int i = 0; i < statuses.length; i++) {
+                statuses[i] = new LongAdder();
+            }
+        }
+
+        private ActionInvocationMetrics snapshot(String actorName, String actionName) {
+            Map<Protocol.Status, Long> counts = new EnumMap<>(Protocol.Status.class);
+            for (int i = 0; i < statuses.length; i++) {
+                long count = statuses[i].sum();
+                if (count > 0) {
+                    counts.put(STATUSES[i], count);
+                }
+            }
+
+            return new ActionInvocationMetrics(actorName, actionName, latency.snapshot(), queueing.snapshot(),
+                    requestBytes.snapshot(), responseBytes.snapshot(), counts, failures.sum(), asyncInvocations.sum());
+        }
+    }
+}
@@ -11,12 +11,16 @@ public class InvocationOpts {
     private final Duration timeoutSeconds;
     private final Optional<Long> delaySeconds;
     private final Optional<LocalDateTime> scheduledTo;
+    private final boolean idempotent;
+    private final String timeoutMetadata;
 
     private InvocationOpts(InvocationOptsBuilder invocationOptsBuilder) {
         this.async = invocationOptsBuilder.async;
         this.timeoutSeconds = invocationOptsBuilder.timeoutSeconds;
         this.delaySeconds = invocationOptsBuilder.delaySeconds;
         this.scheduledTo = invocationOptsBuilder.scheduledTo;
+        this.idempotent = invocationOptsBuilder.idempotent;
+        this.timeoutMetadata = String.valueOf(this.timeoutSeconds.toMillis());
     }
 
     public static InvocationOptsBuilder builder() {
@@ -39,6 +43,10 @@ public class InvocationOpts {
         return scheduledTo;
     }
 
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
     public long getScheduleTimeInLong() {
         if (scheduledTo.isPresent()) {
             LocalDateTime ldt = scheduledTo.get();
@@ -52,12 +60,17 @@ public class InvocationOpts {
         return this.timeoutSeconds.toMillis();
     }
 
+    String getTimeoutMetadata() {
+        return this.timeoutMetadata;
+    }
+
     public static final class InvocationOptsBuilder {
 
         private boolean async = false;
         private Duration timeoutSeconds = Duration.ofSeconds(10);
         private Optional<Long> delaySeconds = Optional.empty();
         private Optional<LocalDateTime> scheduledTo = Optional.empty();
+        private boolean idempotent = false;
 
         public InvocationOpts build() {
             return new InvocationOpts(this);
@@ -82,5 +95,18 @@ public class InvocationOpts {
             this.scheduledTo = scheduledTo;
             return this;
         }
+
+        /**
+         * Declares that the action can safely run more than once for this invocation, letting the client
+         * hedge or retry it when {@link TransportOpts.TransportOptsBuilder#retries(RetryOpts)} is enabled.
+         * Actions registered with {@code ActorBehavior.idempotentAction} are always treated as idempotent.
+         *
+         * @param idempotent whether the invocation may be sent more than once
+         * @return the builder instance
+         */
+        public InvocationOptsBuilder idempotent(boolean idempotent) {
+            this.idempotent = idempotent;
+            return this;
+        }
     }
 }
@@ -0,0 +1,194 @@
+package io.eigr.spawn.api;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead settings applied to invocations that wait for a result.
+ * Every actor, or every actor type, gets its own breaker and bulkhead, so a degraded actor on the proxy
+ * fails fast instead of holding threads and connections needed by healthy ones.
+ * <p>
+ * The breaker looks at the outcome of the last {@code slidingWindowSize} calls. Once at least
+ * {@code minimumNumberOfCalls} were recorded and either the failure rate or the rate of calls slower than
+ * {@code slowCallDuration} reaches its threshold, the breaker opens and rejects calls for
+ * {@code waitDurationInOpenState}. It then lets {@code permittedCallsInHalfOpenState} trial calls through and
+ * closes again only if they stay under both thresholds.
+ */
+public final class ResilienceOpts {
+
+    private final KeyedBy keyedBy;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final Duration slowCallDuration;
+    private final int slidingWindowSize;
+    private final int minimumNumberOfCalls;
+    private final Duration waitDurationInOpenState;
+    private final int permittedCallsInHalfOpenState;
+    private final int maxConcurrentCalls;
+
+    private ResilienceOpts(ResilienceOptsBuilder builder) {
+        this.keyedBy = builder.keyedBy;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDuration = builder.slowCallDuration;
+        this.slidingWindowSize = builder.slidingWindowSize;
+        this.minimumNumberOfCalls = builder.minimumNumberOfCalls;
+        this.waitDurationInOpenState = builder.waitDurationInOpenState;
+        this.permittedCallsInHalfOpenState = builder.permittedCallsInHalfOpenState;
+        this.maxConcurrentCalls = builder.maxConcurrentCalls;
+    }
+
+    public static ResilienceOptsBuilder builder() {
+        return new ResilienceOptsBuilder();
+    }
+
+    public KeyedBy getKeyedBy() {
+        return keyedBy;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public Duration getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public Duration getWaitDurationInOpenState() {
+        return waitDurationInOpenState;
+    }
+
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * What a breaker and a bulkhead are shared by.
+     */
+    public enum KeyedBy {
+        /**
+         * One per actor name. This is the default.
+         */
+        ACTOR_NAME,
+
+        /**
+         * One per registered actor, shared by every unnamed actor spawned from it.
+         */
+        ACTOR_TYPE
+    }
+
+    public static final class ResilienceOptsBuilder {
+
+        private KeyedBy keyedBy = KeyedBy.ACTOR_NAME;
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 100;
+        private Duration slowCallDuration = Duration.ofSeconds(60);
+        private int slidingWindowSize = 100;
+        private int minimumNumberOfCalls = 20;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpenState = 10;
+        private int maxConcurrentCalls = 256;
+
+        public ResilienceOpts build() {
+            if (minimumNumberOfCalls > slidingWindowSize) {
+                throw new IllegalArgumentException("minimumNumberOfCalls cannot be greater than slidingWindowSize");
+            }
+            if (permittedCallsInHalfOpenState > slidingWindowSize) {
+                throw new IllegalArgumentException("permittedCallsInHalfOpenState cannot be greater than slidingWindowSize");
+            }
+            return new ResilienceOpts(this);
+        }
+
+        public ResilienceOptsBuilder keyedBy(KeyedBy keyedBy) {
+            this.keyedBy = keyedBy;
+            return this;
+        }
+
+        /**
+         * @param failureRateThreshold percentage of failed calls, from 1 to 100, that opens the breaker
+         * @return the builder instance
+         */
+        public ResilienceOptsBuilder failureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallRateThreshold percentage of slow calls, from 1 to 100, that opens the breaker
+         * @return the builder instance
+         */
+        public ResilienceOptsBuilder slowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallDuration calls taking at least this long count as slow
+         * @return the builder instance
+         */
+        public ResilienceOptsBuilder slowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+            return this;
+        }
+
+        /**
+         * @param slidingWindowSize number of most recent calls the rates are computed from
+         * @return the builder instance
+         */
+        public ResilienceOptsBuilder slidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+            return this;
+        }
+
+        /**
+         * @param minimumNumberOfCalls calls to record before the breaker may open
+         * @return the builder instance
+         */
+        public ResilienceOptsBuilder minimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+            return this;
+        }
+
+        /**
+         * @param waitDurationInOpenState how long an open breaker rejects calls before trying again
+         * @return the builder instance
+         */
+        public ResilienceOptsBuilder waitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+            return this;
+        }
+
+        /**
+         * @param permittedCallsInHalfOpenState trial calls let through once the open wait is over
+         * @return the builder instance
+         */
+        public ResilienceOptsBuilder permittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentCalls in-flight calls allowed per actor, or actor type, before new ones are rejected
+         * @return the builder instance
+         */
+        public ResilienceOptsBuilder maxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.eigr.spawn.api;
+
+import java.time.Duration;
+
+/**
+ * Hedging and retry settings applied to idempotent invocations that wait for a result, that is invocations of
+ * actions registered with {@code ActorBehavior.idempotentAction} or made with
+ * {@link InvocationOpts.InvocationOptsBuilder#idempotent(boolean)}. Other invocations are sent exactly once.
+ * <p>
+ * When an invocation has not completed after the {@code hedgeDelayPercentile} of the recent latencies of its
+ * actor, a duplicate request is sent and the first response wins, cancelling the others. Invocations failing
+ * with a transport error are retried after an exponential backoff with jitter, never past the invocation
+ * deadline. An invocation sends at most {@code maxAttempts} requests in total, hedges and retries included.
+ */
+public final class RetryOpts {
+
+    private final int maxAttempts;
+    private final boolean hedging;
+    private final double hedgeDelayPercentile;
+    private final Duration minHedgeDelay;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double backoffMultiplier;
+
+    private RetryOpts(RetryOptsBuilder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.hedging = builder.hedging;
+        this.hedgeDelayPercentile = builder.hedgeDelayPercentile;
+        this.minHedgeDelay = builder.minHedgeDelay;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.backoffMultiplier = builder.backoffMultiplier;
+    }
+
+    public static RetryOptsBuilder builder() {
+        return new RetryOptsBuilder();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isHedging() {
+        return hedging;
+    }
+
+    public double getHedgeDelayPercentile() {
+        return hedgeDelayPercentile;
+    }
+
+    public Duration getMinHedgeDelay() {
+        return minHedgeDelay;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    public static final class RetryOptsBuilder {
+
+        private int maxAttempts = 3;
+        private boolean hedging = true;
+        private double hedgeDelayPercentile = 95;
+        private Duration minHedgeDelay = Duration.ofMillis(5);
+        private Duration initialBackoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofSeconds(2);
+        private double backoffMultiplier = 2;
+
+        public RetryOpts build() {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be greater than zero");
+            }
+            if (hedgeDelayPercentile <= 0 || hedgeDelayPercentile > 100) {
+                throw new IllegalArgumentException("hedgeDelayPercentile must be greater than 0 and at most 100");
+            }
+            if (backoffMultiplier < 1) {
+                throw new IllegalArgumentException("backoffMultiplier cannot be less than 1");
+            }
+            return new RetryOpts(this);
+        }
+
+        /**
+         * @param maxAttempts requests sent per invocation at most, the first one, hedges and retries included
+         * @return the builder instance
+         */
+        public RetryOptsBuilder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param hedging whether to send duplicate requests for slow invocations, or only retry failed ones
+         * @return the builder instance
+         */
+        public RetryOptsBuilder hedging(boolean hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        /**
+         * @param hedgeDelayPercentile percentile of the recent latencies of an actor after which a still pending
+         *                             invocation is hedged
+         * @return the builder instance
+         */
+        public RetryOptsBuilder hedgeDelayPercentile(double hedgeDelayPercentile) {
+            this.hedgeDelayPercentile = hedgeDelayPercentile;
+            return this;
+        }
+
+        /**
+         * @param minHedgeDelay shortest wait before hedging, whatever the observed latencies
+         * @return the builder instance
+         */
+        public RetryOptsBuilder minHedgeDelay(Duration minHedgeDelay) {
+            this.minHedgeDelay = minHedgeDelay;
+            return this;
+        }
+
+        /**
+         * @param initialBackoff wait before the first retry, before jitter
+         * @return the builder instance
+         */
+        public RetryOptsBuilder initialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * @param maxBackoff longest wait between retries, before jitter
+         * @return the builder instance
+         */
+        public RetryOptsBuilder maxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * @param backoffMultiplier factor the backoff grows by after every retry
+         * @return the builder instance
+         */
+        public RetryOptsBuilder backoffMultiplier(double backoffMultiplier) {
+            this.backoffMultiplier = backoffMultiplier;
+            return this;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package io.eigr.spawn.api;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.sun.net.httpserver.HttpServer;
 import io.eigr.functions.protocol.Protocol;
 import io.eigr.functions.protocol.actors.ActorOuterClass;
 import io.eigr.spawn.api.actors.BaseActor;
@@ -15,9 +14,22 @@ import io.eigr.spawn.api.exceptions.SpawnException;
 import io.eigr.spawn.api.exceptions.SpawnFailureException;
 import io.eigr.spawn.api.extensions.DependencyInjector;
 import io.eigr.spawn.internal.Entity;
+import io.eigr.spawn.internal.VirtualThreads;
+import io.eigr.spawn.internal.transport.PayloadCompression;
+import io.eigr.spawn.internal.transport.client.BatchingSpawnClient;
+import io.eigr.spawn.internal.transport.client.GrpcSpawnClient;
+import io.eigr.spawn.internal.transport.client.HedgingSpawnClient;
+import io.eigr.spawn.internal.transport.client.InstrumentedSpawnClient;
 import io.eigr.spawn.internal.transport.client.OkHttpSpawnClient;
+import io.eigr.spawn.internal.transport.client.ReplyAwaitingSpawnClient;
+import io.eigr.spawn.internal.transport.client.ResilientSpawnClient;
 import io.eigr.spawn.internal.transport.client.SpawnClient;
+import io.eigr.spawn.internal.transport.server.ActionAdmission;
+import io.eigr.spawn.internal.transport.server.ActorAffinityExecutor;
+import io.eigr.spawn.internal.transport.server.ActorServer;
 import io.eigr.spawn.internal.transport.server.ActorServiceHandler;
+import io.eigr.spawn.internal.transport.server.JdkHttpActorServer;
+import io.eigr.spawn.internal.transport.server.NettyActorServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +38,7 @@ import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -38,6 +51,7 @@ public final class Spawn {
     private static final String HTTP_ACTORS_ACTIONS_URI = "/api/v1/actors/actions";
     private static final int CACHE_MAXIMUM_SIZE = 1_000;
     private static final int CACHE_EXPIRE_AFTER_WRITE_SECONDS = 60;
+    private static final Duration VIRTUAL_THREAD_PINNING_THRESHOLD = Duration.ofMillis(20);
 
     private final Cache<ActorOuterClass.ActorId, ActorRef> actorIdCache;
     private final SpawnClient client;
@@ -50,8 +64,15 @@ public final class Spawn {
     private BehaviorCtx ctx;
     private final List<Entity> entities;
     private final String host;
+    private final Optional<String> socketPath;
     private final Executor executor;
     private final int terminationGracePeriodSeconds;
+    private final PayloadCompression compression;
+    private final TransportOpts.ServerTransport serverTransport;
+    private final ActorServiceHandler<?> handler;
+    private final Optional<ActorAffinityExecutor> affinityExecutor;
+    private final AutoCloseable pinningReport;
+    private final AtomicReference<ActorServer> server = new AtomicReference<>();
 
     private Spawn(SpawnSystem builder) {
         this.system = builder.system;
@@ -59,16 +80,40 @@ public final class Spawn {
         this.entities = builder.entities;
         this.port = builder.transportOpts.getPort();
         this.host = builder.transportOpts.getHost();
+        this.socketPath = builder.transportOpts.getSocketPath();
         this.proxyHost = builder.transportOpts.getProxyHost();
         this.proxyPort = builder.transportOpts.getProxyPort();
         this.actorIdCache = builder.actorIdCache;
-        this.client = builder.client;
         this.terminationGracePeriodSeconds = builder.terminationGracePeriodSeconds;
         this.executor = builder.transportOpts.getExecutor();
+        this.compression = PayloadCompression.of(builder.transportOpts);
+        this.serverTransport = builder.transportOpts.getServerTransport();
+        this.handler = new ActorServiceHandler<>(this, this.entities, this.compression, builder.actorCacheOpts,
+                ActionAdmission.of(builder.transportOpts));
+        this.affinityExecutor = builder.transportOpts.isActorAffinityEnabled()
+                ? Optional.of(new ActorAffinityExecutor(builder.transportOpts.getActorAffinityStripes(), this.executor))
+                : Optional.empty();
+        this.client = this.affinityExecutor
+                .<SpawnClient>map(affinity -> new ReplyAwaitingSpawnClient(builder.client, affinity))
+                .orElse(builder.client);
+
+        if (builder.transportOpts.isVirtualThreads() && VirtualThreads.isSupported()) {
+            this.pinningReport = VirtualThreads.reportPinning(VIRTUAL_THREAD_PINNING_THRESHOLD);
+        } else {
+            if (builder.transportOpts.isVirtualThreads()) {
+                log.warn("Virtual threads require Java 21 or later, actions run on platform threads instead");
+            }
+            this.pinningReport = () -> {
+            };
+        }
     }
 
+    /**
+     * @return port of the actions endpoint, the one picked by the OS once started on port 0
+     */
     public int getPort() {
-        return port;
+        ActorServer started = server.get();
+        return Objects.nonNull(started) && started.port() > 0 ? started.port() : port;
     }
 
     public String getProxyHost() {
@@ -91,6 +136,52 @@ public final class Spawn {
         return terminationGracePeriodSeconds;
     }
 
+    /**
+     * <p>Number of in-flight invocations per open connection to the Spawn proxy.
+     * With {@link TransportOpts.ProxyProtocol#H2C} this is the number of multiplexed streams per connection.
+     * </p>
+     *
+     * @return in-flight calls keyed by a connection description
+     * @since 1.3.0
+     */
+    public Map<String, Integer> getProxyConnectionStreams() {
+        return client.activeStreamsPerConnection();
+    }
+
+    /**
+     * @return number of open connections, idle or not, to the Spawn proxy
+     * @since 1.3.0
+     */
+    public int getProxyConnectionCount() {
+        return client.connectionCount();
+    }
+
+    /**
+     * <p>State of the circuit breakers guarding invocations, when enabled with
+     * {@link TransportOpts.TransportOptsBuilder#resilience(ResilienceOpts)}.
+     * </p>
+     *
+     * @return circuit breaker metrics keyed by actor name or actor type
+     * @since 1.3.0
+     */
+    public Map<String, CircuitBreakerMetrics> getCircuitBreakers() {
+        return client.circuitBreakers();
+    }
+
+    /**
+     * <p>Fire-and-forget invocations pending in the SDK, bounded with
+     * {@link TransportOpts.TransportOptsBuilder#asyncInvocationLimits(int, int, TransportOpts.AsyncOverflowPolicy)},
+     * and their rejection and failure counters. Empty with transports that do not bound them. With
+     * {@link TransportOpts.TransportOptsBuilder#asyncBatching(int, Duration)}, they count the batched invocations.
+     * </p>
+     *
+     * @return the async invocation metrics, if available
+     * @since 1.3.0
+     */
+    public Optional<AsyncInvocationMetrics> getAsyncInvocationMetrics() {
+        return client.asyncInvocationMetrics();
+    }
+
     /**
      * <p>This method is responsible for creating instances of the ActorRef class when Actor is a UnNamed actor.
      * See more about ActorRef in {@link io.eigr.spawn.api.InvocationOpts} class
@@ -101,18 +192,8 @@ public final class Spawn {
      * @since 0.0.1
      */
     public ActorRef createActorRef(ActorIdentity identity) throws ActorCreationException {
-        Class actorType;
-        if (identity.isParent()) {
-            actorType = this.entities.stream().filter(e -> e.getActorName().equalsIgnoreCase(identity.getParent()))
-                    .map(e -> e.getActorType())
-                    .findFirst().get();
-        } else {
-            actorType = this.entities.stream().filter(e -> e.getActorName().equalsIgnoreCase(identity.getName()))
-                    .map(e -> e.getActorType())
-                    .findFirst().get();
-        }
-
-        return ActorRef.of(this.client, this.actorIdCache, identity, actorType);
+        Entity entity = entityOf(identity);
+        return ActorRef.of(this.client, this.actorIdCache, identity, entity.getActorType(), entity.getIdempotentActions());
     }
 
     /**
@@ -138,31 +219,33 @@ public final class Spawn {
 
         return identities.stream().map(identity -> {
             try {
-                Class actorType;
-                if (identity.isParent()) {
-                    actorType = this.entities.stream().filter(e -> e.getActorName().equalsIgnoreCase(identity.getParent()))
-                            .map(e -> e.getActorType())
-                            .findFirst().get();
-                } else {
-                    actorType = this.entities.stream().filter(e -> e.getActorName().equalsIgnoreCase(identity.getName()))
-                            .map(e -> e.getActorType())
-                            .findFirst().get();
-                }
+                Entity entity = entityOf(identity);
 
                 if (identity.isParent()) {
                     return ActorRef.of(
                             this.client,
                             this.actorIdCache,
-                            ActorIdentity.of(identity.getSystem(), identity.getName(), identity.getParent(), false), actorType);
+                            ActorIdentity.of(identity.getSystem(), identity.getName(), identity.getParent(), false),
+                            entity.getActorType(),
+                            entity.getIdempotentActions());
                 }
 
-                return ActorRef.of(this.client, this.actorIdCache, identity, actorType);
+                return ActorRef.of(
+                        this.client, this.actorIdCache, identity, entity.getActorType(), entity.getIdempotentActions());
             } catch (ActorCreationException e) {
                 throw new SpawnFailureException(e);
             }
         });
     }
 
+    // Unnamed actors are spawned from the registered actor named by their parent.
+    private Entity entityOf(ActorIdentity identity) {
+        String actorName = identity.isParent() ? identity.getParent() : identity.getName();
+        return this.entities.stream()
+                .filter(e -> e.getActorName().equalsIgnoreCase(actorName))
+                .findFirst().get();
+    }
+
     /**
      * <p>This method Starts communication with the Spawn proxy.
      * </p>
@@ -174,22 +257,84 @@ public final class Spawn {
         registerActorSystem();
     }
 
+    /**
+     * Stops the actions endpoint, waiting up to the termination grace period for in-flight actions, then closes the
+     * connections to the proxy, as the shutdown hook registered by {@link #start()} does when the JVM exits. Does
+     * nothing if the endpoint is not running.
+     */
+    public void stop() {
+        ActorServer started = server.getAndSet(null);
+        if (Objects.isNull(started)) {
+            return;
+        }
+
+        log.info("Stopping Spawn actions endpoint with termination grace period {}s ...", this.terminationGracePeriodSeconds);
+        started.stop(this.terminationGracePeriodSeconds);
+        this.affinityExecutor.ifPresent(ActorAffinityExecutor::shutdown);
+        this.client.close();
+        try {
+            this.pinningReport.close();
+        } catch (Exception e) {
+            log.warn("Error while stopping the virtual thread pinning report", e);
+        }
+    }
+
+    /**
+     * @return hit, miss and eviction counts of the actor instances the SDK keeps to run actions on
+     * @see SpawnSystem#withActorCacheOptions(ActorCacheOpts)
+     */
+    public ActorCacheStats getActorCacheStats() {
+        return handler.cacheStats();
+    }
+
+    /**
+     * @return counts of the requests of the proxy the actions endpoint ran and shed
+     * @see TransportOpts.TransportOptsBuilder#admissionControl(int, Duration)
+     */
+    public ActionAdmissionStats getActionAdmissionStats() {
+        return handler.admissionStats();
+    }
+
+    /**
+     * @return number of actions waiting to run on each actor affinity stripe, empty without actor affinity
+     * @see TransportOpts.TransportOptsBuilder#actorAffinity(int)
+     */
+    public List<Integer> getActorAffinityQueueDepths() {
+        return affinityExecutor.map(ActorAffinityExecutor::queueDepths).orElse(Collections.emptyList());
+    }
+
     private void startServer() throws SpawnException {
+        handler.start();
         try {
-            final HttpServer httpServer = HttpServer.create(new InetSocketAddress(this.host, this.port), 0);
-            httpServer.createContext(HTTP_ACTORS_ACTIONS_URI, new ActorServiceHandler(this, this.entities));
-            httpServer.setExecutor(this.executor);
-            httpServer.start();
-
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                log.info("Stopping Spawn HTTP Server with termination grace period {}s ...", this.terminationGracePeriodSeconds);
-                httpServer.stop(this.terminationGracePeriodSeconds);
-            }));
+            if (this.socketPath.isPresent()) {
+                NettyActorServer server = new NettyActorServer(
+                        HTTP_ACTORS_ACTIONS_URI, handler, this.executor, this.affinityExecutor.orElse(null));
+                server.bindDomainSocket(this.socketPath.get());
+                stopOnShutdown(server);
+                return;
+            }
+
+            ActorServer server;
+            switch (this.serverTransport) {
+                case JDK_HTTP:
+                    server = new JdkHttpActorServer(HTTP_ACTORS_ACTIONS_URI, handler, this.executor);
+                    break;
+                default:
+                    server = new NettyActorServer(
+                            HTTP_ACTORS_ACTIONS_URI, handler, this.executor, this.affinityExecutor.orElse(null));
+            }
+            server.bind(new InetSocketAddress(this.host, this.port));
+            stopOnShutdown(server);
         } catch (IOException ex) {
             throw new SpawnException(ex);
         }
     }
 
+    private void stopOnShutdown(ActorServer server) {
+        this.server.set(server);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
+    }
+
     private void registerActorSystem() throws ActorRegistrationException {
         ActorOuterClass.Registry registry = ActorOuterClass.Registry.newBuilder()
                 .putAllActors(getActors(this.entities))
@@ -321,6 +466,8 @@ public final class Spawn {
 
         private TransportOpts transportOpts = TransportOpts.builder().build();
 
+        private ActorCacheOpts actorCacheOpts = ActorCacheOpts.builder().build();
+
         /**
          * <p>Builder method that establishes the ActorSystem to which the application will be part.
          * </p>
@@ -395,17 +542,56 @@ public final class Spawn {
             return this;
         }
 
+        /**
+         * @param opts bounds and expiry of the actor instances kept to run actions on
+         * @return the SpawnSystem instance
+         */
+        public SpawnSystem withActorCacheOptions(ActorCacheOpts opts) {
+            this.actorCacheOpts = opts;
+            return this;
+        }
+
         public Spawn build() {
             this.actorIdCache = Caffeine.newBuilder()
                     .maximumSize(CACHE_MAXIMUM_SIZE)
                     .expireAfterWrite(Duration.ofSeconds(CACHE_EXPIRE_AFTER_WRITE_SECONDS))
                     .build();
 
-            this.client = new OkHttpSpawnClient(this.system, this.transportOpts);
+            this.client = createClient();
 
             return new Spawn(this);
         }
 
+        private SpawnClient createClient() {
+            SpawnClient transportClient;
+            switch (this.transportOpts.getProxyProtocol()) {
+                case GRPC:
+                    transportClient = new GrpcSpawnClient(this.system, this.transportOpts);
+                    break;
+                default:
+                    transportClient = new OkHttpSpawnClient(this.system, this.transportOpts);
+            }
+
+            if (this.transportOpts.getResilience().isPresent()) {
+                transportClient = new ResilientSpawnClient(transportClient, this.transportOpts.getResilience().get());
+            }
+
+            if (this.transportOpts.getRetries().isPresent()) {
+                transportClient = new HedgingSpawnClient(transportClient, this.transportOpts.getRetries().get());
+            }
+
+            if (this.transportOpts.getInstrumentation().isPresent()) {
+                transportClient = new InstrumentedSpawnClient(transportClient, this.transportOpts.getInstrumentation().get());
+            }
+
+            if (this.transportOpts.isAsyncBatchingEnabled()) {
+                return new BatchingSpawnClient(transportClient, this.transportOpts,
+                        Duration.ofSeconds(this.terminationGracePeriodSeconds));
+            }
+
+            return transportClient;
+        }
+
         private Optional<Entity> getEntity(Class<?> actorKlass) throws ActorCreationException {
             Optional<Entity> maybeEntity = mapEntity(actorKlass);
 
@@ -1,5 +1,10 @@
 package io.eigr.spawn.api;
 
+import io.eigr.spawn.internal.VirtualThreads;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -10,19 +15,79 @@ public class TransportOpts {
     private String proxyHost;
     private int proxyPort;
     private Executor executor;
+    private boolean virtualThreads;
+    private ProxyProtocol proxyProtocol;
+    private ServerTransport serverTransport;
+    private int maxIdleConnections;
+    private int maxConcurrentRequests;
+    private Optional<String> socketPath;
+    private Optional<String> proxySocketPath;
+    private int asyncBatchSize;
+    private Optional<Duration> asyncBatchWindow;
+    private Duration connectTimeout;
+    private Duration readTimeout;
+    private Duration writeTimeout;
+    private Duration callTimeout;
+    private Optional<ResilienceOpts> resilience;
+    private Optional<RetryOpts> retries;
+    private int maxAsyncInFlight;
+    private int maxAsyncQueued;
+    private AsyncOverflowPolicy asyncOverflowPolicy;
+    private Optional<AsyncInvocationFailureHandler> asyncFailureHandler;
+    private Optional<CompressionCodec> compression;
+    private int compressionThreshold;
+    private Optional<InvocationInstrumentation> instrumentation;
+    private int actorAffinityStripes;
+    private int maxConcurrentActions;
+    private Optional<Duration> maxActionQueueTime;
 
     private TransportOpts(TransportOptsBuilder builder) {
         this.host = builder.host;
         this.port = builder.port;
         this.proxyHost = builder.proxyHost;
         this.proxyPort = builder.proxyPort;
-        this.executor = builder.executor;
+        this.virtualThreads = builder.virtualThreads;
+        this.executor = newExecutor(builder);
+        this.proxyProtocol = builder.proxyProtocol;
+        this.serverTransport = builder.serverTransport;
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.maxConcurrentRequests = builder.maxConcurrentRequests;
+        this.socketPath = builder.socketPath;
+        this.proxySocketPath = builder.proxySocketPath;
+        this.asyncBatchSize = builder.asyncBatchSize;
+        this.asyncBatchWindow = builder.asyncBatchWindow;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.writeTimeout = builder.writeTimeout;
+        this.callTimeout = builder.callTimeout;
+        this.resilience = builder.resilience;
+        this.retries = builder.retries;
+        this.maxAsyncInFlight = builder.maxAsyncInFlight;
+        this.maxAsyncQueued = builder.maxAsyncQueued;
+        this.asyncOverflowPolicy = builder.asyncOverflowPolicy;
+        this.asyncFailureHandler = builder.asyncFailureHandler;
+        this.compression = builder.compression;
+        this.compressionThreshold = builder.compressionThreshold;
+        this.instrumentation = builder.instrumentation;
+        this.actorAffinityStripes = builder.actorAffinityStripes;
+        this.maxConcurrentActions = builder.maxConcurrentActions;
+        this.maxActionQueueTime = builder.maxActionQueueTime;
     }
 
     public static TransportOptsBuilder builder() {
         return new TransportOptsBuilder();
     }
 
+    private static Executor newExecutor(TransportOptsBuilder builder) {
+        if (Objects.nonNull(builder.executor)) {
+            return builder.executor;
+        }
+        if (builder.virtualThreads && VirtualThreads.isSupported()) {
+            return VirtualThreads.newThreadPerTaskExecutor("spawn-action");
+        }
+        return Executors.newCachedThreadPool();
+    }
+
     public String getHost() {
         return host;
     }
@@ -43,15 +108,239 @@ public class TransportOpts {
         return executor;
     }
 
+    /**
+     * @return true if virtual threads were asked for, whether or not the running JVM supports them
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public ProxyProtocol getProxyProtocol() {
+        return proxyProtocol;
+    }
+
+    public ServerTransport getServerTransport() {
+        return serverTransport;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public Optional<String> getSocketPath() {
+        return socketPath;
+    }
+
+    public Optional<String> getProxySocketPath() {
+        return proxySocketPath;
+    }
+
+    public int getAsyncBatchSize() {
+        return asyncBatchSize;
+    }
+
+    public Optional<Duration> getAsyncBatchWindow() {
+        return asyncBatchWindow;
+    }
+
+    public boolean isAsyncBatchingEnabled() {
+        return asyncBatchWindow.isPresent();
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public Duration getWriteTimeout() {
+        return writeTimeout;
+    }
+
+    public Duration getCallTimeout() {
+        return callTimeout;
+    }
+
+    public Optional<ResilienceOpts> getResilience() {
+        return resilience;
+    }
+
+    public Optional<RetryOpts> getRetries() {
+        return retries;
+    }
+
+    public int getMaxAsyncInFlight() {
+        return maxAsyncInFlight;
+    }
+
+    public int getMaxAsyncQueued() {
+        return maxAsyncQueued;
+    }
+
+    public AsyncOverflowPolicy getAsyncOverflowPolicy() {
+        return asyncOverflowPolicy;
+    }
+
+    public Optional<AsyncInvocationFailureHandler> getAsyncFailureHandler() {
+        return asyncFailureHandler;
+    }
+
+    public Optional<CompressionCodec> getCompression() {
+        return compression;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public Optional<InvocationInstrumentation> getInstrumentation() {
+        return instrumentation;
+    }
+
+    public int getActorAffinityStripes() {
+        return actorAffinityStripes;
+    }
+
+    public boolean isActorAffinityEnabled() {
+        return actorAffinityStripes > 0;
+    }
+
+    public int getMaxConcurrentActions() {
+        return maxConcurrentActions;
+    }
+
+    public Optional<Duration> getMaxActionQueueTime() {
+        return maxActionQueueTime;
+    }
+
+    /**
+     * Server the SDK uses to expose the actions endpoint invoked by the Spawn proxy on {@code host:port}.
+     */
+    public enum ServerTransport {
+        /**
+         * Netty server with event loops for accepting and IO, pooled buffers, and HTTP/1.1 and cleartext HTTP/2
+         * (h2c) support. Actions run on the transport executor. Required for {@link
+         * TransportOptsBuilder#actorAffinity(int)}.
+         */
+        NETTY,
+
+        /**
+         * JDK {@code com.sun.net.httpserver} server, HTTP/1.1 only, with a single dispatcher thread. This is the
+         * default.
+         */
+        JDK_HTTP
+    }
+
+    /**
+     * What happens to a fire-and-forget invocation made while the maximum number of async invocations are in
+     * flight and the queue of those waiting to be sent is full.
+     */
+    public enum AsyncOverflowPolicy {
+        /**
+         * The calling thread waits for room in the queue. This is the default.
+         */
+        BLOCK,
+
+        /**
+         * The oldest queued invocation is dropped, and handed to the async failure handler, to make room.
+         */
+        DROP_OLDEST,
+
+        /**
+         * The invocation is refused with an {@link io.eigr.spawn.api.exceptions.AsyncInvocationRejectedException}.
+         */
+        REJECT,
+
+        /**
+         * The calling thread sends the invocation itself and waits for the proxy to acknowledge it.
+         */
+        CALLER_RUNS
+    }
+
+    /**
+     * Wire protocol used by the SDK to talk to the Spawn proxy.
+     */
+    public enum ProxyProtocol {
+        /**
+         * Spawn HTTP API over HTTP/1.1. This is the default.
+         */
+        HTTP_1_1,
+
+        /**
+         * Spawn HTTP API over cleartext HTTP/2 with prior knowledge (h2c). Concurrent invocations are
+         * multiplexed as streams over a few shared connections.
+         */
+        H2C,
+
+        /**
+         * Spawn gRPC API, multiplexing every call over a single HTTP/2 channel.
+         */
+        GRPC
+    }
+
     public static final class TransportOptsBuilder {
 
         private String host = "127.0.0.1";
         private int port = 8091;
         private String proxyHost = "127.0.0.1";
         private int proxyPort = 9001;
-        private Executor executor = Executors.newCachedThreadPool();
+        private Executor executor;
+        private boolean virtualThreads;
+        private ProxyProtocol proxyProtocol = ProxyProtocol.HTTP_1_1;
+        private ServerTransport serverTransport = ServerTransport.JDK_HTTP;
+        private int maxIdleConnections = 4;
+        private int maxConcurrentRequests = 4096;
+        private Optional<String> socketPath = Optional.empty();
+        private Optional<String> proxySocketPath = Optional.empty();
+        private int asyncBatchSize = 0;
+        private Optional<Duration> asyncBatchWindow = Optional.empty();
+        private Duration connectTimeout = Duration.ofSeconds(120);
+        private Duration readTimeout = Duration.ofSeconds(120);
+        private Duration writeTimeout = Duration.ofSeconds(120);
+        private Duration callTimeout = Duration.ofSeconds(400);
+        private Optional<ResilienceOpts> resilience = Optional.empty();
+        private Optional<RetryOpts> retries = Optional.empty();
+        private int maxAsyncInFlight = 256;
+        private int maxAsyncQueued = 10_000;
+        private AsyncOverflowPolicy asyncOverflowPolicy = AsyncOverflowPolicy.BLOCK;
+        private Optional<AsyncInvocationFailureHandler> asyncFailureHandler = Optional.empty();
+        private Optional<CompressionCodec> compression = Optional.empty();
+        private int compressionThreshold = 16 * 1024;
+        private Optional<InvocationInstrumentation> instrumentation = Optional.empty();
+        private int actorAffinityStripes = 0;
+        private int maxConcurrentActions = 0;
+        private Optional<Duration> maxActionQueueTime = Optional.empty();
 
         public TransportOpts build() {
+            if (maxAsyncInFlight < 1) {
+                throw new IllegalArgumentException("maxAsyncInFlight must be greater than zero");
+            }
+            if (maxAsyncQueued < 0) {
+                throw new IllegalArgumentException("maxAsyncQueued cannot be negative");
+            }
+            if (asyncBatchWindow.isPresent()) {
+                if (asyncBatchSize < 1) {
+                    throw new IllegalArgumentException("asyncBatching maxBatchSize must be greater than zero");
+                }
+                if (asyncBatchWindow.get().isNegative() || asyncBatchWindow.get().isZero()) {
+                    throw new IllegalArgumentException("asyncBatching window must be positive");
+                }
+            }
+            if (actorAffinityStripes < 0) {
+                throw new IllegalArgumentException("actorAffinityStripes cannot be negative");
+            }
+            if (actorAffinityStripes > 0 && serverTransport == ServerTransport.JDK_HTTP && socketPath.isEmpty()) {
+                throw new IllegalArgumentException("actorAffinity requires the NETTY server transport or a socketPath");
+            }
+            if (maxConcurrentActions < 0) {
+                throw new IllegalArgumentException("maxConcurrentActions cannot be negative");
+            }
             return new TransportOpts(this);
         }
 
@@ -79,5 +368,262 @@ public class TransportOpts {
             this.executor = executor;
             return this;
         }
+
+        /**
+         * On Java 21 and later, runs every action, unless an {@link #executor(Executor)} is given, and every
+         * fire-and-forget invocation sent over HTTP, on a virtual thread of its own. Synchronous invocations of other
+         * actors made from actions then no longer tie up a platform thread while waiting. The SDK also logs a
+         * warning whenever one of these threads stays pinned to its carrier thread while running SDK code.
+         * <p>
+         * Ignored, with a warning, on older runtimes.
+         *
+         * @param virtualThreads true to use virtual threads
+         * @return the builder instance
+         */
+        public TransportOptsBuilder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        public TransportOptsBuilder proxyProtocol(ProxyProtocol proxyProtocol) {
+            this.proxyProtocol = proxyProtocol;
+            return this;
+        }
+
+        /**
+         * Selects the server exposing the actions endpoint on {@code host:port}. The UNIX domain socket set with
+         * {@link #socketPath(String)} is always served by Netty.
+         *
+         * @param serverTransport server implementation to use, {@link ServerTransport#JDK_HTTP} by default
+         * @return the builder instance
+         */
+        public TransportOptsBuilder serverTransport(ServerTransport serverTransport) {
+            this.serverTransport = serverTransport;
+            return this;
+        }
+
+        /**
+         * @param maxIdleConnections idle connections kept open to the proxy when using {@link ProxyProtocol#H2C}
+         * @return the builder instance
+         */
+        public TransportOptsBuilder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentRequests maximum in-flight requests to the proxy, whatever the protocol
+         * @return the builder instance
+         */
+        public TransportOptsBuilder maxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * Serves the actions endpoint on a UNIX domain socket instead of {@code host:port}.
+         * Requires Linux, as it relies on the epoll transport.
+         *
+         * @param socketPath path of the socket file the proxy sends actor invocations to
+         * @return the builder instance
+         */
+        public TransportOptsBuilder socketPath(String socketPath) {
+            this.socketPath = Optional.ofNullable(socketPath);
+            return this;
+        }
+
+        /**
+         * Reaches the proxy through a UNIX domain socket instead of {@code proxyHost:proxyPort}.
+         * Requires Java 16 or newer.
+         *
+         * @param proxySocketPath path of the socket file the proxy listens on
+         * @return the builder instance
+         */
+        public TransportOptsBuilder proxySocketPath(String proxySocketPath) {
+            this.proxySocketPath = Optional.ofNullable(proxySocketPath);
+            return this;
+        }
+
+        /**
+         * Enables micro-batching of fire-and-forget invocations. Invocations are collected and sent to the proxy
+         * in a single request once {@code maxBatchSize} of them are pending or {@code window} has elapsed since the
+         * first one, whichever comes first. Requires a proxy that serves the batch invocation endpoint.
+         *
+         * @param maxBatchSize maximum number of invocations per batch
+         * @param window       maximum time an invocation waits before being sent
+         * @return the builder instance
+         */
+        public TransportOptsBuilder asyncBatching(int maxBatchSize, Duration window) {
+            this.asyncBatchSize = maxBatchSize;
+            this.asyncBatchWindow = Optional.of(Objects.requireNonNull(window, "window"));
+            return this;
+        }
+
+        /**
+         * @param connectTimeout maximum time to establish a connection to the proxy
+         * @return the builder instance
+         */
+        public TransportOptsBuilder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * Only applies to the HTTP transports, the gRPC transport is bounded by {@link #callTimeout(Duration)}.
+         *
+         * @param readTimeout maximum time without reading anything from a connection to the proxy
+         * @return the builder instance
+         */
+        public TransportOptsBuilder readTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * Only applies to the HTTP transports, the gRPC transport is bounded by {@link #callTimeout(Duration)}.
+         *
+         * @param writeTimeout maximum time without writing anything to a connection to the proxy
+         * @return the builder instance
+         */
+        public TransportOptsBuilder writeTimeout(Duration writeTimeout) {
+            this.writeTimeout = writeTimeout;
+            return this;
+        }
+
+        /**
+         * Upper bound for calls to the proxy that carry no deadline of their own. Invocations made with
+         * {@link InvocationOpts} are bounded by {@link InvocationOpts#getTimeoutSeconds()} instead.
+         *
+         * @param callTimeout maximum time for a whole call, from connection to reading the response
+         * @return the builder instance
+         */
+        public TransportOptsBuilder callTimeout(Duration callTimeout) {
+            this.callTimeout = callTimeout;
+            return this;
+        }
+
+        /**
+         * Guards invocations with a circuit breaker and a bulkhead per actor, or per actor type.
+         *
+         * @param resilience circuit breaker and bulkhead settings
+         * @return the builder instance
+         */
+        public TransportOptsBuilder resilience(ResilienceOpts resilience) {
+            this.resilience = Optional.ofNullable(resilience);
+            return this;
+        }
+
+        /**
+         * Hedges and retries idempotent invocations. Combined with {@link #resilience(ResilienceOpts)}, every
+         * hedge and retry goes through the circuit breaker and bulkhead of its actor.
+         *
+         * @param retries hedging and retry settings
+         * @return the builder instance
+         */
+        public TransportOptsBuilder retries(RetryOpts retries) {
+            this.retries = Optional.ofNullable(retries);
+            return this;
+        }
+
+        /**
+         * Bounds the fire-and-forget invocations pending in the SDK. Up to {@code maxInFlight} of them are sent to
+         * the proxy at once, up to {@code maxQueued} more wait for one of those to complete, and any further one is
+         * handled according to {@code policy}. With the gRPC protocol, in-flight invocations are the ones waiting for
+         * the shared invocation stream to be ready to take them.
+         *
+         * @param maxInFlight maximum async invocations sent and not answered yet
+         * @param maxQueued   maximum async invocations waiting to be sent
+         * @param policy      what to do with an invocation once both limits are reached
+         * @return the builder instance
+         */
+        public TransportOptsBuilder asyncInvocationLimits(int maxInFlight, int maxQueued, AsyncOverflowPolicy policy) {
+            this.maxAsyncInFlight = maxInFlight;
+            this.maxAsyncQueued = maxQueued;
+            this.asyncOverflowPolicy = policy;
+            return this;
+        }
+
+        /**
+         * Replaces the default handler, which logs a warning, for fire-and-forget invocations that fail or are
+         * dropped.
+         *
+         * @param asyncFailureHandler handler notified of every lost async invocation
+         * @return the builder instance
+         */
+        public TransportOptsBuilder asyncFailureHandler(AsyncInvocationFailureHandler asyncFailureHandler) {
+            this.asyncFailureHandler = Optional.ofNullable(asyncFailureHandler);
+            return this;
+        }
+
+        /**
+         * Compresses invocation requests sent to the proxy, and action responses sent back to it, once their
+         * protobuf encoding reaches {@code thresholdBytes}, as long as the proxy lists the codec in the
+         * {@code Accept-Encoding} header: of its latest response for requests, of the request for responses. A
+         * proxy that never announces the codec gets every payload uncompressed. Only applies to the HTTP proxy
+         * protocols.
+         *
+         * @param codec          codec to compress with, such as {@link CompressionCodec#gzip()}
+         * @param thresholdBytes smallest payload worth compressing
+         * @return the builder instance
+         */
+        public TransportOptsBuilder compression(CompressionCodec codec, int thresholdBytes) {
+            this.compression = Optional.ofNullable(codec);
+            this.compressionThreshold = thresholdBytes;
+            return this;
+        }
+
+        /**
+         * Reports the latency, status and payload sizes of every invocation, and the use of proxy connections, to
+         * the given instrumentation, such as an {@link InvocationMetricsRecorder}.
+         *
+         * @param instrumentation instrumentation notified of every invocation
+         * @return the builder instance
+         */
+        public TransportOptsBuilder instrumentation(InvocationInstrumentation instrumentation) {
+            this.instrumentation = Optional.ofNullable(instrumentation);
+            return this;
+        }
+
+        /**
+         * Runs actions on {@code stripes} dedicated threads instead of the {@link #executor(Executor)}, always picking
+         * the same thread for the same actor, identified by its system, name and parent. Invocations of an actor
+         * then run one at a time, in the order they were decoded, on a thread whose caches already hold that actor,
+         * while different actors are spread across all stripes. The number of available processors is a good start.
+         * <p>
+         * An action that blocks holds up every actor of its stripe. While an action waits for the reply of an
+         * invocation, through {@link ActorRef#invoke} or the future of {@link ActorRef#invokeFuture}, the actions
+         * queued behind it, one of which may be the invoked one, run on the executor instead, still one at a time
+         * and in order for each actor. Only the {@link ServerTransport#NETTY} server supports affinity, so it must
+         * be selected with {@link #serverTransport(ServerTransport)} unless a {@link #socketPath(String)} is set,
+         * building options with affinity for the default {@link ServerTransport#JDK_HTTP} server fails.
+         *
+         * @param stripes threads actions run on, 0 to disable affinity, which is the default
+         * @return the builder instance
+         * @see Spawn#getActorAffinityQueueDepths()
+         */
+        public TransportOptsBuilder actorAffinity(int stripes) {
+            this.actorAffinityStripes = stripes;
+            return this;
+        }
+
+        /**
+         * Sheds requests of the proxy on the actions endpoint, answering them at once with a 503 without running
+         * their action, when {@code maxConcurrentActions} requests are already in flight or when a request waited
+         * longer than {@code maxQueueTime} for a worker. Under overload, the proxy can then retry elsewhere instead
+         * of every actor timing out.
+         * <p>
+         * The JDK server only counts requests once a worker picks them up, so its queue is bounded by the queue
+         * time alone.
+         *
+         * @param maxConcurrentActions requests queued or running at most, 0 for no limit
+         * @param maxQueueTime         longest wait for a worker, null for no limit
+         * @return the builder instance
+         * @see Spawn#getActionAdmissionStats()
+         */
+        public TransportOptsBuilder admissionControl(int maxConcurrentActions, Duration maxQueueTime) {
+            this.maxConcurrentActions = maxConcurrentActions;
+            this.maxActionQueueTime = Optional.ofNullable(maxQueueTime);
+            return this;
+        }
     }
 }
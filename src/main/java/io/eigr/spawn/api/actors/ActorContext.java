@@ -3,12 +3,15 @@ package io.eigr.spawn.api.actors;
 import io.eigr.spawn.api.Spawn;
 import io.eigr.spawn.api.extensions.DependencyInjector;
 
+import java.util.Objects;
 import java.util.Optional;
 import java.util.StringJoiner;
+import java.util.function.Supplier;
 
 public final class ActorContext<S extends Object> {
     private Spawn spawn;
     private Optional<S> state;
+    private Supplier<S> stateDecoder;
 
     private DependencyInjector injector;
 
@@ -22,20 +25,51 @@ public final class ActorContext<S extends Object> {
         this.state = Optional.of(state);
     }
 
+    private ActorContext(Spawn spawn, Supplier<S> stateDecoder) {
+        this.spawn = spawn;
+        this.stateDecoder = stateDecoder;
+    }
+
+    /**
+     * Creates a context whose state is decoded the first time {@link #getState()} is called, so that actions
+     * that never read the state do not pay for decoding it.
+     *
+     * @param spawn        the actor system
+     * @param stateDecoder decodes the state, called at most once
+     * @param <S>          the state type
+     * @return the context
+     */
+    public static <S> ActorContext<S> withLazyState(Spawn spawn, Supplier<S> stateDecoder) {
+        return new ActorContext<>(spawn, stateDecoder);
+    }
+
     public Spawn getSpawnSystem()  {
         return spawn;
     }
 
     public Optional<S> getState()  {
+        if (Objects.isNull(state)) {
+            state = Optional.ofNullable(stateDecoder.get());
+            stateDecoder = null;
+        }
         return state;
     }
 
+    /**
+     * Tells whether an object is the state of this context, without decoding the state if it was not yet read.
+     *
+     * @param candidate a state returned by an action
+     * @return true if the state was read and is this very object
+     */
+    public boolean isCurrentState(Object candidate) {
+        return Objects.nonNull(state) && state.isPresent() && state.get() == candidate;
+    }
 
     @Override
     public String toString() {
         return new StringJoiner(", ", ActorContext.class.getSimpleName() + "[", "]")
                 .add("spawn=" + spawn)
-                .add("state=" + state)
+                .add("state=" + (Objects.isNull(state) ? "<not decoded>" : state))
                 .toString();
     }
 }
@@ -17,20 +17,17 @@ public final class Value {
     private Object state;
     private Object response;
     private boolean checkpoint;
-    private Optional<Broadcast<?>> broadcast;
-    private Optional<Forward> forward;
-    private Optional<Pipe> pipe;
-    private Optional<List<SideEffect<?>>> effects;
+    // Workflow steps are nullable rather than Optional, so that a plain reply allocates no wrapper per step.
+    private Broadcast<?> broadcast;
+    private Forward forward;
+    private Pipe pipe;
+    private List<SideEffect<?>> effects;
     private final ResponseType type;
 
     private Value() {
         this.state = null;
         this.response = null;
         this.checkpoint = false;
-        this.broadcast = Optional.empty();
-        this.forward = Optional.empty();
-        this.pipe = Optional.empty();
-        this.effects = Optional.empty();
         this.type = ResponseType.EMPTY_REPLY;
     }
 
@@ -38,10 +35,10 @@ public final class Value {
             Object response,
             Object state,
             boolean checkpoint,
-            Optional<Broadcast<?>> broadcast,
-            Optional<Forward> forward,
-            Optional<Pipe> pipe,
-            Optional<List<SideEffect<?>>> effects,
+            Broadcast<?> broadcast,
+            Forward forward,
+            Pipe pipe,
+            List<SideEffect<?>> effects,
             ResponseType type) {
         this.response = response;
         this.state = state;
@@ -70,19 +67,26 @@ public final class Value {
     }
 
     public Optional<Broadcast<?>> getBroadcast() {
-        return broadcast;
+        return Optional.ofNullable(broadcast);
     }
 
     public Optional<Forward> getForward() {
-        return forward;
+        return Optional.ofNullable(forward);
     }
 
     public Optional<Pipe> getPipe() {
-        return pipe;
+        return Optional.ofNullable(pipe);
     }
 
     public Optional<List<SideEffect<?>>> getEffects() {
-        return effects;
+        return Optional.ofNullable(effects);
+    }
+
+    /**
+     * @return true if the value carries no broadcast, forward, pipe or side effect
+     */
+    public boolean hasNoWorkflow() {
+        return broadcast == null && forward == null && pipe == null && effects == null;
     }
 
     public ResponseType getType() {
@@ -106,42 +110,36 @@ public final class Value {
     }
 
     public Value flow(Broadcast<?> broadcast) {
-        this.broadcast = Optional.ofNullable(broadcast);
+        this.broadcast = broadcast;
         return this;
     }
 
     public Value flow(Forward forward) {
-        if (this.pipe.isPresent()) {
+        if (this.pipe != null) {
             throw new SpawnFailureException("You can only use Forward or Pipe. Never both together.");
         }
-        this.forward = Optional.ofNullable(forward);
+        this.forward = forward;
         return this;
     }
 
     public Value flow(Pipe pipe) {
-        if (this.forward.isPresent()) {
+        if (this.forward != null) {
             throw new IllegalArgumentException("You can only use Pipe or Forward. Never both together.");
         }
-        this.pipe = Optional.ofNullable(pipe);
+        this.pipe = pipe;
         return this;
     }
 
     public Value flow(SideEffect<?> effect) {
-        List<SideEffect<?>> ef;
-        if (this.effects.isPresent()) {
-            ef = this.effects.get();
-            ef.add(effect);
-        } else {
-            ef = new ArrayList<>();
-            ef.add(effect);
+        if (this.effects == null) {
+            this.effects = new ArrayList<>();
         }
-
-        this.effects = Optional.ofNullable(ef);
+        this.effects.add(effect);
         return this;
     }
 
     public Value flow(List<SideEffect<?>> effects) {
-        this.effects = Optional.of(effects);
+        this.effects = Objects.requireNonNull(effects);
         return this;
     }
 
@@ -74,6 +74,64 @@ public abstract class ActorBehavior {
                         new ActionConfiguration(ActionKind.NORMAL_DISPATCH, 1, inputType, outputType)));
     }
 
+    /**
+     * Registers an action that can safely run more than once for the same invocation. Callers in this
+     * application may then hedge or retry it, see {@link io.eigr.spawn.api.RetryOpts}.
+     */
+    public static ActorOption idempotentAction(String name, ActionNoBindings action) {
+        final Class<?> outputType = Value.class;
+        return instance -> instance.actions.put(
+                name,
+                new ActionEnvelope(
+                        action,
+                        new ActionConfiguration(ActionKind.NORMAL_DISPATCH, 0, null, outputType, true)));
+    }
+
+    /**
+     * Registers an action that can safely run more than once for the same invocation. Callers in this
+     * application may then hedge or retry it, see {@link io.eigr.spawn.api.RetryOpts}.
+     */
+    public static <T extends Message> ActorOption idempotentAction(String name, ActionBindings<T> action) {
+        final Class<?> inputType = action.getArgumentType();
+        final Class<?> outputType = Value.class;
+
+        return instance -> instance.actions.put(
+                name,
+                new ActionEnvelope(
+                        action,
+                        new ActionConfiguration(ActionKind.NORMAL_DISPATCH, 1, inputType, outputType, true)));
+    }
+
+    /**
+     * Registers an action that reads the actor state without changing it. The state the proxy sent is answered
+     * back as it was received, without encoding it again, whether or not the action returns it. Any other state the
+     * action returns is ignored, with a warning.
+     */
+    public static ActorOption readOnlyAction(String name, ActionNoBindings action) {
+        final Class<?> outputType = Value.class;
+        return instance -> instance.actions.put(
+                name,
+                new ActionEnvelope(
+                        action,
+                        new ActionConfiguration(ActionKind.NORMAL_DISPATCH, 0, null, outputType, false, true)));
+    }
+
+    /**
+     * Registers an action that reads the actor state without changing it. The state the proxy sent is answered
+     * back as it was received, without encoding it again, whether or not the action returns it. Any other state the
+     * action returns is ignored, with a warning.
+     */
+    public static <T extends Message> ActorOption readOnlyAction(String name, ActionBindings<T> action) {
+        final Class<?> inputType = action.getArgumentType();
+        final Class<?> outputType = Value.class;
+
+        return instance -> instance.actions.put(
+                name,
+                new ActionEnvelope(
+                        action,
+                        new ActionConfiguration(ActionKind.NORMAL_DISPATCH, 1, inputType, outputType, false, true)));
+    }
+
     public static ActorOption timerAction(String name, int timer, ActionNoBindings action) {
         final Class<?> outputType = Value.class;
 
@@ -0,0 +1,24 @@
+package io.eigr.spawn.api.exceptions;
+
+/**
+ * Raised when an invocation does not complete before its deadline.
+ * The action may or may not have been executed by the actor.
+ */
+public class ActorInvocationTimeoutException extends ActorInvocationException {
+
+    public ActorInvocationTimeoutException() {
+        super();
+    }
+
+    public ActorInvocationTimeoutException(String message) {
+        super(message);
+    }
+
+    public ActorInvocationTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ActorInvocationTimeoutException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,26 @@
+package io.eigr.spawn.api.exceptions;
+
+/**
+ * Raised when a fire-and-forget invocation cannot be accepted because the configured limit of pending async
+ * invocations is reached, or handed to the async failure handler when it was dropped to make room for a newer one.
+ *
+ * @see io.eigr.spawn.api.TransportOpts.AsyncOverflowPolicy
+ */
+public class AsyncInvocationRejectedException extends ActorInvocationException {
+
+    public AsyncInvocationRejectedException() {
+        super();
+    }
+
+    public AsyncInvocationRejectedException(String message) {
+        super(message);
+    }
+
+    public AsyncInvocationRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public AsyncInvocationRejectedException(Throwable cause) {
+        super(cause);
+    }
+}
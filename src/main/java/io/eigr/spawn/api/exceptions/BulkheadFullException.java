@@ -0,0 +1,25 @@
+package io.eigr.spawn.api.exceptions;
+
+/**
+ * Raised without calling the proxy when the target actor already has as many in-flight invocations as allowed.
+ *
+ * @see io.eigr.spawn.api.ResilienceOpts
+ */
+public class BulkheadFullException extends ActorInvocationException {
+
+    public BulkheadFullException() {
+        super();
+    }
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+
+    public BulkheadFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public BulkheadFullException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,25 @@
+package io.eigr.spawn.api.exceptions;
+
+/**
+ * Raised without calling the proxy while the circuit breaker of the target actor is open.
+ *
+ * @see io.eigr.spawn.api.ResilienceOpts
+ */
+public class CircuitBreakerOpenException extends ActorInvocationException {
+
+    public CircuitBreakerOpenException() {
+        super();
+    }
+
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+
+    public CircuitBreakerOpenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CircuitBreakerOpenException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -12,6 +12,10 @@ public final class ActionConfiguration {
 
     private Class<?> outputType;
 
+    private boolean idempotent;
+
+    private boolean readOnly;
+
     public ActionConfiguration(ActionKind kind, int arity, Class<?> inputType, Class<?> outputType) {
         this.kind = kind;
         this.arity = arity;
@@ -19,6 +23,17 @@ public final class ActionConfiguration {
         this.outputType = outputType;
     }
 
+    public ActionConfiguration(ActionKind kind, int arity, Class<?> inputType, Class<?> outputType, boolean idempotent) {
+        this(kind, arity, inputType, outputType);
+        this.idempotent = idempotent;
+    }
+
+    public ActionConfiguration(ActionKind kind, int arity, Class<?> inputType, Class<?> outputType, boolean idempotent,
+                               boolean readOnly) {
+        this(kind, arity, inputType, outputType, idempotent);
+        this.readOnly = readOnly;
+    }
+
     public ActionConfiguration(ActionKind kind, int timer, int arity, Class<?> inputType, Class<?> outputType) {
         this.kind = kind;
         this.timer = timer;
@@ -43,11 +58,21 @@ public final class ActionConfiguration {
         return outputType;
     }
 
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
     @Override
     public String toString() {
         return new StringJoiner(", ", ActionConfiguration.class.getSimpleName() + "[", "]")
                 .add("kind=" + kind)
                 .add("timer=" + timer)
+                .add("idempotent=" + idempotent)
+                .add("readOnly=" + readOnly)
                 .toString();
     }
 
@@ -14,9 +14,12 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.AbstractMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public final class Entity<A extends BaseActor, B extends ActorBehavior> {
@@ -110,7 +113,7 @@ public final class Entity<A extends BaseActor, B extends ActorBehavior> {
         try {
             Constructor<?> constructor = actor.getConstructor();
             StatefulActor stActor = (StatefulActor) constructor.newInstance();
-            Class<?> stateType = stActor.getStateType(stActor.getClass().getGenericSuperclass().getClass());
+            Class<?> stateType = stateTypeOf(actor);
             ActorBehavior behavior = stActor.configure(ctx);
 
             if (behavior.getClass().isAssignableFrom(NamedActorBehavior.class)) {
@@ -130,6 +133,25 @@ public final class Entity<A extends BaseActor, B extends ActorBehavior> {
         throw new ActorCreationException();
     }
 
+    /**
+     * Finds the state type an actor class declares through {@code StatefulActor<S>}.
+     *
+     * @param actor the actor class
+     * @return the state type, or null if it is not a concrete class
+     */
+    private static Class<?> stateTypeOf(Class<?> actor) {
+        for (Class<?> type = actor; Objects.nonNull(type); type = type.getSuperclass()) {
+            for (Type iface : type.getGenericInterfaces()) {
+                if (iface instanceof ParameterizedType
+                        && ((ParameterizedType) iface).getRawType() == StatefulActor.class) {
+                    Type stateType = ((ParameterizedType) iface).getActualTypeArguments()[0];
+                    return stateType instanceof Class ? (Class<?>) stateType : null;
+                }
+            }
+        }
+        return null;
+    }
+
     private static Map<String, Entity.EntityMethod> getActions(Map<String, ActionEnvelope> actions) {
         return actions
                 .entrySet()
@@ -147,7 +169,9 @@ public final class Entity<A extends BaseActor, B extends ActorBehavior> {
                                     config.getArity(),
                                     0,
                                     config.getInputType(),
-                                    config.getOutputType()));
+                                    config.getOutputType(),
+                                    config.isIdempotent(),
+                                    config.isReadOnly()));
                 }).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
@@ -380,6 +404,13 @@ public final class Entity<A extends BaseActor, B extends ActorBehavior> {
         return timerActions;
     }
 
+    public Set<String> getIdempotentActions() {
+        return actions.values().stream()
+                .filter(EntityMethod::isIdempotent)
+                .map(EntityMethod::getName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
     public int getMinPoolSize() {
         return minPoolSize;
     }
@@ -428,6 +459,10 @@ public final class Entity<A extends BaseActor, B extends ActorBehavior> {
         private Class<?> inputType;
         private Class<?> outputType;
 
+        private boolean idempotent;
+
+        private boolean readOnly;
+
         public EntityMethod(
                 String name, EntityMethodType type, int arity, int fixedPeriod, Class<?> inputType, Class<?> outputType) {
             this.name = name;
@@ -438,6 +473,20 @@ public final class Entity<A extends BaseActor, B extends ActorBehavior> {
             this.outputType = outputType;
         }
 
+        public EntityMethod(
+                String name, EntityMethodType type, int arity, int fixedPeriod, Class<?> inputType, Class<?> outputType,
+                boolean idempotent) {
+            this(name, type, arity, fixedPeriod, inputType, outputType);
+            this.idempotent = idempotent;
+        }
+
+        public EntityMethod(
+                String name, EntityMethodType type, int arity, int fixedPeriod, Class<?> inputType, Class<?> outputType,
+                boolean idempotent, boolean readOnly) {
+            this(name, type, arity, fixedPeriod, inputType, outputType, idempotent);
+            this.readOnly = readOnly;
+        }
+
         public String getName() {
             return name;
         }
@@ -462,6 +511,14 @@ public final class Entity<A extends BaseActor, B extends ActorBehavior> {
             return outputType;
         }
 
+        public boolean isIdempotent() {
+            return idempotent;
+        }
+
+        public boolean isReadOnly() {
+            return readOnly;
+        }
+
         @Override
         public String toString() {
             final StringBuilder sb = new StringBuilder("EntityMethod{");
@@ -471,6 +528,8 @@ public final class Entity<A extends BaseActor, B extends ActorBehavior> {
             sb.append(", fixedPeriod=").append(fixedPeriod);
             sb.append(", inputType=").append(inputType);
             sb.append(", outputType=").append(outputType);
+            sb.append(", idempotent=").append(idempotent);
+            sb.append(", readOnly=").append(readOnly);
             sb.append('}');
             return sb.toString();
         }
@@ -0,0 +1,59 @@
+package io.eigr.spawn.internal;
+
+import java.util.Map;
+
+/**
+ * Absolute invocation deadline carried in the request metadata, so that both the transport that sends an
+ * invocation and the SDK that eventually executes it agree on when the caller stops waiting.
+ * <p>
+ * The deadline is a wall-clock epoch in milliseconds. Hosts are expected to keep their clocks in sync;
+ * any skew between them shifts the deadline by the same amount.
+ */
+public final class InvocationDeadline {
+    public static final String REQUEST_DEADLINE_METADATA = "request-deadline";
+
+    /**
+     * Returned by {@link #of(Map)} when the invocation has no deadline.
+     */
+    public static final long NONE = Long.MAX_VALUE;
+
+    private InvocationDeadline() {
+    }
+
+    /**
+     * @param timeoutMillis how long the caller is willing to wait from now
+     * @return metadata value for a deadline {@code timeoutMillis} from now
+     */
+    public static String after(long timeoutMillis) {
+        return String.valueOf(System.currentTimeMillis() + timeoutMillis);
+    }
+
+    /**
+     * @param metadata invocation or context metadata
+     * @return the deadline in epoch milliseconds, or {@link #NONE} when absent or malformed
+     */
+    public static long of(Map<String, String> metadata) {
+        String deadline = metadata.get(REQUEST_DEADLINE_METADATA);
+        if (deadline == null) {
+            return NONE;
+        }
+
+        try {
+            return Long.parseLong(deadline);
+        } catch (NumberFormatException e) {
+            return NONE;
+        }
+    }
+
+    /**
+     * @param deadline deadline in epoch milliseconds, as returned by {@link #of(Map)}
+     * @return milliseconds left before the deadline, zero or negative once it has passed
+     */
+    public static long remainingMillis(long deadline) {
+        return deadline - System.currentTimeMillis();
+    }
+
+    public static boolean isExpired(long deadline) {
+        return deadline != NONE && remainingMillis(deadline) <= 0;
+    }
+}
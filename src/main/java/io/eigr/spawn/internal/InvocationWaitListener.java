@@ -0,0 +1,15 @@
+package io.eigr.spawn.internal;
+
+/**
+ * Told when a thread sends an invocation whose reply it may wait for, so that the executor running that thread can
+ * keep its other work moving meanwhile.
+ */
+public interface InvocationWaitListener {
+
+    /**
+     * Called from the thread sending the invocation, before it is sent.
+     *
+     * @return to run once the reply arrived or the invocation failed, from any thread
+     */
+    Runnable awaitingReply();
+}
@@ -0,0 +1,50 @@
+package io.eigr.spawn.internal;
+
+import io.eigr.spawn.api.HistogramSnapshot;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of non-negative values with one bucket per power of two, which records every value within a
+ * factor of two. The buckets are allocated up front and counted with {@link LongAdder}s, so recording takes no lock
+ * and does not allocate.
+ */
+public final class PowerOfTwoHistogram {
+    static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public PowerOfTwoHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param value value to record, negative values are recorded as zero
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        buckets[bucketOf(recorded)].increment();
+        sum.add(recorded);
+        max.accumulate(recorded);
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new HistogramSnapshot(counts, sum.sum(), max.get());
+    }
+
+    /**
+     * Bucket 0 holds zero and bucket {@code i} holds values from {@code 2^(i-1)} to {@code 2^i - 1}.
+     */
+    static int bucketOf(long value) {
+        return 64 - Long.numberOfLeadingZeros(value);
+    }
+}
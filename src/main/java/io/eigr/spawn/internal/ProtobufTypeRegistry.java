@@ -0,0 +1,140 @@
+package io.eigr.spawn.internal;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.Internal;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Protobuf message types of the actor states and action arguments of the registered actors, with their parsers
+ * resolved once at registration. Decoding an {@link Any} is then a map lookup on its type URL and a direct
+ * {@link Parser#parseFrom} call, without the reflection and class loading of {@link Any#unpack(Class)}.
+ */
+public final class ProtobufTypeRegistry {
+
+    private final Map<String, MessageType> byTypeName;
+    private final Map<String, MessageType> byTypeUrl = new ConcurrentHashMap<>();
+
+    private ProtobufTypeRegistry(Map<String, MessageType> byTypeName) {
+        this.byTypeName = Map.copyOf(byTypeName);
+    }
+
+    /**
+     * @param entities the registered actors
+     * @return a registry of the state and action argument types of these actors
+     */
+    public static ProtobufTypeRegistry of(List<Entity> entities) {
+        Map<String, MessageType> types = new HashMap<>();
+        for (Entity entity : entities) {
+            register(types, entity.getStateType());
+            Map<String, Entity.EntityMethod> actions = entity.getActions();
+            actions.values().forEach(action -> register(types, action.getInputType()));
+            Map<String, Entity.EntityMethod> timerActions = entity.getTimerActions();
+            timerActions.values().forEach(action -> register(types, action.getInputType()));
+        }
+        return new ProtobufTypeRegistry(types);
+    }
+
+    private static void register(Map<String, MessageType> types, Class<?> type) {
+        if (Objects.nonNull(type) && Message.class.isAssignableFrom(type)) {
+            MessageType messageType = MessageType.of(type.asSubclass(Message.class));
+            types.putIfAbsent(messageType.typeName(), messageType);
+        }
+    }
+
+    /**
+     * @param type a protobuf message class
+     * @return the registered type of this class, or a newly resolved one if it was not registered
+     */
+    public MessageType typeOf(Class<? extends Message> type) {
+        MessageType messageType = byTypeName.get(Internal.getDefaultInstance(type).getDescriptorForType().getFullName());
+        return Objects.nonNull(messageType) ? messageType : MessageType.of(type);
+    }
+
+    /**
+     * Decodes a message of any type. Types that were not registered are resolved from the class of the same name
+     * the first time they are seen.
+     *
+     * @param value the packed message
+     * @return the decoded message
+     * @throws InvalidProtocolBufferException if the type is unknown or the message cannot be decoded
+     */
+    public Message unpack(Any value) throws InvalidProtocolBufferException {
+        String typeUrl = value.getTypeUrl();
+        MessageType messageType = byTypeUrl.get(typeUrl);
+        if (Objects.isNull(messageType)) {
+            messageType = resolve(typeUrl);
+            byTypeUrl.putIfAbsent(typeUrl, messageType);
+        }
+        return messageType.parser.parseFrom(value.getValue());
+    }
+
+    private MessageType resolve(String typeUrl) throws InvalidProtocolBufferException {
+        String typeName = typeUrl.substring(typeUrl.lastIndexOf('/') + 1);
+        MessageType messageType = byTypeName.get(typeName);
+        if (Objects.nonNull(messageType)) {
+            return messageType;
+        }
+        try {
+            return MessageType.of(Class.forName(typeName).asSubclass(Message.class));
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new InvalidProtocolBufferException(String.format("Unknown message type %s", typeUrl));
+        }
+    }
+
+    /**
+     * A protobuf message type with its parser.
+     */
+    public static final class MessageType {
+        private final String typeName;
+        private final Parser<? extends Message> parser;
+
+        private MessageType(String typeName, Parser<? extends Message> parser) {
+            this.typeName = typeName;
+            this.parser = parser;
+        }
+
+        private static MessageType of(Class<? extends Message> type) {
+            Message defaultInstance = Internal.getDefaultInstance(type);
+            return new MessageType(defaultInstance.getDescriptorForType().getFullName(), defaultInstance.getParserForType());
+        }
+
+        /**
+         * @return the full name of the type, as found at the end of its type URLs
+         */
+        public String typeName() {
+            return typeName;
+        }
+
+        /**
+         * Decodes a message that must be of this type.
+         *
+         * @param value the packed message
+         * @return the decoded message
+         * @throws InvalidProtocolBufferException if the message is of another type or cannot be decoded
+         */
+        public Message parse(Any value) throws InvalidProtocolBufferException {
+            if (!isTypeOf(value.getTypeUrl())) {
+                throw new InvalidProtocolBufferException(String.format(
+                        "Expected a %s message, got %s", typeName, value.getTypeUrl()));
+            }
+            return parser.parseFrom(value.getValue());
+        }
+
+        /**
+         * Same check as {@link Any#is(Class)}, comparing the type name after the last slash of the URL, without
+         * extracting it.
+         */
+        private boolean isTypeOf(String typeUrl) {
+            int start = typeUrl.length() - typeName.length();
+            return start > 0 && typeUrl.endsWith(typeName) && typeUrl.charAt(start - 1) == '/';
+        }
+    }
+}
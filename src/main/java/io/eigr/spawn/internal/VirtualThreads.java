@@ -0,0 +1,46 @@
+package io.eigr.spawn.internal;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virtual thread support, which needs Java 21. This is the version used by older runtimes, where virtual threads
+ * are reported as unsupported. The multi-release JAR carries the Java 21 version under
+ * {@code META-INF/versions/21}, built from {@code src/main/java21} by the {@code java21} Maven profile.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * @param name prefix of the names given to the threads
+     * @return an executor starting a new virtual thread for every task, or reusing platform threads when virtual
+     * threads are not supported
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> new Thread(task, name + "-" + count.getAndIncrement()));
+    }
+
+    /**
+     * Starts logging a warning every time a virtual thread is pinned to its carrier thread for longer than the
+     * threshold while running SDK code. Does nothing when virtual threads are not supported.
+     *
+     * @param threshold shortest pinning worth reporting
+     * @return stops reporting when closed
+     */
+    public static AutoCloseable reportPinning(Duration threshold) {
+        return () -> {
+        };
+    }
+}
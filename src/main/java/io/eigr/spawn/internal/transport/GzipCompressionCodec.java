@@ -0,0 +1,36 @@
+package io.eigr.spawn.internal.transport;
+
+import io.eigr.spawn.api.CompressionCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link CompressionCodec} backed by the JDK gzip streams, needing no extra dependency.
+ */
+public final class GzipCompressionCodec implements CompressionCodec {
+    public static final GzipCompressionCodec INSTANCE = new GzipCompressionCodec();
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private GzipCompressionCodec() {
+    }
+
+    @Override
+    public String encoding() {
+        return "gzip";
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, BUFFER_SIZE);
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+        return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+}
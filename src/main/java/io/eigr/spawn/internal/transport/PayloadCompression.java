@@ -0,0 +1,143 @@
+package io.eigr.spawn.internal.transport;
+
+import com.google.protobuf.MessageLite;
+import io.eigr.spawn.api.CompressionCodec;
+import io.eigr.spawn.api.TransportOpts;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Compression settings of a transport, shared by the proxy client and the actions endpoint.
+ * <p>
+ * A payload is compressed only when it is at least as large as the configured threshold, since small protobuf
+ * messages rarely shrink enough to pay for the CPU. Payloads are compressed only for peers that announced the
+ * codec in their {@code Accept-Encoding} header.
+ */
+public final class PayloadCompression {
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    public static final PayloadCompression NONE = new PayloadCompression(null, Integer.MAX_VALUE);
+
+    private final CompressionCodec codec;
+    private final int threshold;
+
+    private PayloadCompression(CompressionCodec codec, int threshold) {
+        this.codec = codec;
+        this.threshold = threshold;
+    }
+
+    public static PayloadCompression of(TransportOpts opts) {
+        return opts.getCompression()
+                .map(codec -> new PayloadCompression(codec, opts.getCompressionThreshold()))
+                .orElse(NONE);
+    }
+
+    public boolean isEnabled() {
+        return Objects.nonNull(codec);
+    }
+
+    /**
+     * @return the content coding token of the codec, only meaningful when {@link #isEnabled()}
+     */
+    public String encoding() {
+        return codec.encoding();
+    }
+
+    public boolean shouldCompress(int size) {
+        return isEnabled() && size >= threshold;
+    }
+
+    /**
+     * The codec is accepted when listed with a weight above zero, or when it is not listed and {@code *} is, with
+     * a weight above zero. A coding whose weight cannot be parsed is not accepted.
+     *
+     * @param acceptEncoding value of the peer {@code Accept-Encoding} header, may be null
+     * @return true if the peer can read payloads compressed with the codec
+     */
+    public boolean isAcceptedBy(String acceptEncoding) {
+        if (!isEnabled() || Objects.isNull(acceptEncoding)) {
+            return false;
+        }
+
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] params = coding.split(";");
+            String token = params[0].trim();
+            if (token.equalsIgnoreCase(codec.encoding())) {
+                return weightOf(params) > 0;
+            }
+            if (token.equals("*")) {
+                wildcard = weightOf(params) > 0;
+            }
+        }
+        return wildcard;
+    }
+
+    /**
+     * @return the {@code q} parameter of a coding, 1 when absent and 0 when malformed
+     */
+    private static double weightOf(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            int equals = param.indexOf('=');
+            if (equals > 0 && param.substring(0, equals).trim().equalsIgnoreCase("q")) {
+                try {
+                    double weight = Double.parseDouble(param.substring(equals + 1).trim());
+                    return weight >= 0 && weight <= 1 ? weight : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * @param in              payload as received
+     * @param contentEncoding value of the {@code Content-Encoding} header, may be null
+     * @return a stream reading the decoded payload
+     * @throws IOException if the payload is encoded with anything but the configured codec
+     */
+    public InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        if (isIdentity(contentEncoding)) {
+            return in;
+        }
+        if (isEnabled() && codec.encoding().equalsIgnoreCase(contentEncoding.trim())) {
+            return codec.decompress(in);
+        }
+        throw new IOException("Unsupported Content-Encoding " + contentEncoding);
+    }
+
+    /**
+     * @param contentEncoding the {@code Content-Encoding} header of a payload, may be null
+     * @return true if the payload is not encoded
+     */
+    public static boolean isIdentity(String contentEncoding) {
+        return Objects.isNull(contentEncoding) || contentEncoding.isEmpty() || "identity".equalsIgnoreCase(contentEncoding);
+    }
+
+    /**
+     * Writes the message compressed with the codec. {@code out} is flushed but left open.
+     */
+    public void writeCompressed(MessageLite message, OutputStream out) throws IOException {
+        try (OutputStream compressed = codec.compress(new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Finishing the compressed data must not close the transport stream underneath.
+                flush();
+            }
+        })) {
+            message.writeTo(compressed);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.eigr.spawn.internal.transport.client;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.spawn.api.AsyncInvocationFailureHandler;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.AsyncInvocationRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-flight permits and bounded queue for fire-and-forget invocations.
+ * <p>
+ * The transport asks {@link #admit(Protocol.InvocationRequest)} what to do with every invocation, gives the
+ * permit back through {@link #release()} once the proxy answered, and sends the queued invocation it returns,
+ * if any. Invocations that fail or are dropped are reported through {@link #reportFailure}.
+ */
+final class AsyncInvocationLimiter {
+    private static final Logger log = LoggerFactory.getLogger(AsyncInvocationLimiter.class);
+
+    private static final AsyncInvocationFailureHandler LOG_FAILURE = (actorName, actionName, cause) ->
+            log.warn("Error while Actor invoke async. Actor {} action {} was not delivered.", actorName, actionName, cause);
+
+    enum Admission {
+        /**
+         * A permit was taken, the transport must send the invocation and call {@link #release()} once done.
+         */
+        SEND,
+
+        /**
+         * The invocation was queued and will be returned by a later {@link #release()}.
+         */
+        QUEUED,
+
+        /**
+         * No permit was taken, the calling thread must send the invocation synchronously.
+         */
+        CALLER_RUNS
+    }
+
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final TransportOpts.AsyncOverflowPolicy policy;
+    private final AsyncInvocationFailureHandler failureHandler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition queueNotFull = lock.newCondition();
+    private final ArrayDeque<Protocol.InvocationRequest> queue = new ArrayDeque<>();
+    private int inFlight;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    AsyncInvocationLimiter(TransportOpts opts) {
+        this.maxInFlight = opts.getMaxAsyncInFlight();
+        this.maxQueued = opts.getMaxAsyncQueued();
+        this.policy = opts.getAsyncOverflowPolicy();
+        this.failureHandler = opts.getAsyncFailureHandler().orElse(LOG_FAILURE);
+    }
+
+    Admission admit(Protocol.InvocationRequest request) throws ActorInvocationException {
+        Protocol.InvocationRequest oldest = null;
+
+        lock.lock();
+        try {
+            if (inFlight < maxInFlight) {
+                inFlight++;
+                return Admission.SEND;
+            }
+
+            if (queue.size() >= maxQueued) {
+                switch (policy) {
+                    case REJECT:
+                        rejected.increment();
+                        throw new AsyncInvocationRejectedException(String.format(
+                                "Actor %s invocation rejected, %d async invocations are already pending",
+                                request.getActor().getId().getName(), maxInFlight + maxQueued));
+                    case CALLER_RUNS:
+                        callerRuns.increment();
+                        return Admission.CALLER_RUNS;
+                    case DROP_OLDEST:
+                        oldest = queue.pollFirst();
+                        if (Objects.isNull(oldest)) {
+                            // Nothing may ever be queued, so the newest invocation is the only one to drop.
+                            oldest = request;
+                        }
+                        break;
+                    default:
+                        awaitQueueNotFull();
+                        // A permit may have been released while waiting, with nothing queued to take it.
+                        if (inFlight < maxInFlight) {
+                            inFlight++;
+                            return Admission.SEND;
+                        }
+                }
+            }
+
+            if (oldest != request) {
+                queue.addLast(request);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (Objects.nonNull(oldest)) {
+            dropped.increment();
+            failureHandler.onFailure(oldest.getActor().getId().getName(), oldest.getActionName(),
+                    new AsyncInvocationRejectedException("Dropped to make room for a newer async invocation"));
+        }
+        return Admission.QUEUED;
+    }
+
+    /**
+     * Gives back the permit of an invocation the proxy answered, or hands it over to the next queued one.
+     *
+     * @return the queued invocation to send now with the permit, or null
+     */
+    Protocol.InvocationRequest release() {
+        lock.lock();
+        try {
+            Protocol.InvocationRequest next = queue.pollFirst();
+            if (Objects.isNull(next)) {
+                inFlight--;
+            }
+            queueNotFull.signal();
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void reportFailure(Protocol.InvocationRequest request, Throwable cause) {
+        failed.increment();
+        failureHandler.onFailure(request.getActor().getId().getName(), request.getActionName(), cause);
+    }
+
+    AsyncInvocationMetrics metrics() {
+        lock.lock();
+        try {
+            return new AsyncInvocationMetrics(
+                    inFlight, queue.size(), rejected.sum(), dropped.sum(), callerRuns.sum(), failed.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitQueueNotFull() throws ActorInvocationException {
+        try {
+            while (queue.size() >= maxQueued && inFlight >= maxInFlight) {
+                queueNotFull.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ActorInvocationException("Interrupted while waiting to send an async invocation", e);
+        }
+    }
+}
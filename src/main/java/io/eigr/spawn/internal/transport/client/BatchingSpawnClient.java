@@ -0,0 +1,314 @@
+package io.eigr.spawn.internal.transport.client;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.CircuitBreakerMetrics;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.api.exceptions.ActorCreationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.ActorRegistrationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link SpawnClient} decorator that micro-batches fire-and-forget invocations.
+ * <p>
+ * Requests given to {@link #invokeAsync(Protocol.InvocationRequest)} are buffered and sent to the proxy as a single
+ * {@link ProxyTransport.InvocationBatchRequest} once the buffer reaches the maximum batch size or the batching
+ * window elapses, whichever comes first. Every other operation goes straight to the delegate.
+ * <p>
+ * Every batched invocation holds a permit of an {@link AsyncInvocationLimiter} until its batch is answered, so the
+ * limits and overflow policy set with {@code TransportOpts.asyncInvocationLimits} bound batched invocations as they
+ * bound unbatched ones, and every batch in flight holds at least one of those permits.
+ * <p>
+ * Invocations lost with their batch, answered with an error status or left without a status, are reported to the
+ * async failure handler when one is given, and logged otherwise.
+ */
+public final class BatchingSpawnClient implements SpawnClient {
+    private static final Logger log = LoggerFactory.getLogger(BatchingSpawnClient.class);
+    private static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final SpawnClient delegate;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final AsyncInvocationLimiter limiter;
+    private final Duration closeTimeout;
+    private final ScheduledExecutorService scheduler;
+    private final Set<CompletableFuture<?>> sentBatches = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Protocol.InvocationRequest> buffer;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public BatchingSpawnClient(SpawnClient delegate, int maxBatchSize, Duration window) {
+        this(delegate, TransportOpts.builder().asyncBatching(maxBatchSize, window).build(), DEFAULT_CLOSE_TIMEOUT);
+    }
+
+    /**
+     * @param opts         batch size and window, async invocation limits and failure handler
+     * @param closeTimeout maximum time {@link #close()} waits for the proxy to answer the batches sent
+     */
+    public BatchingSpawnClient(SpawnClient delegate, TransportOpts opts, Duration closeTimeout) {
+        this.delegate = delegate;
+        this.maxBatchSize = opts.getAsyncBatchSize();
+        this.windowNanos = opts.getAsyncBatchWindow()
+                .orElseThrow(() -> new IllegalArgumentException("Async batching is not enabled"))
+                .toNanos();
+        this.limiter = new AsyncInvocationLimiter(opts);
+        this.closeTimeout = closeTimeout;
+        this.buffer = new ArrayList<>(maxBatchSize);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spawn-invocation-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) throws ActorRegistrationException {
+        return delegate.register(registration);
+    }
+
+    @Override
+    public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) throws ActorCreationException {
+        return delegate.spawn(registration);
+    }
+
+    @Override
+    public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException {
+        return delegate.invoke(request);
+    }
+
+    @Override
+    public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+        return delegate.invokeAsyncWithResult(request);
+    }
+
+    @Override
+    public void invokeAsync(Protocol.InvocationRequest request) throws ActorInvocationException {
+        switch (limiter.admit(request)) {
+            case SEND:
+                buffer(List.of(request));
+                break;
+            case CALLER_RUNS:
+                sendNow(request);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void buffer(List<Protocol.InvocationRequest> requests) {
+        List<List<Protocol.InvocationRequest>> full = new ArrayList<>();
+
+        lock.lock();
+        try {
+            for (Protocol.InvocationRequest request : requests) {
+                buffer.add(request);
+                if (buffer.size() >= maxBatchSize) {
+                    full.add(drain());
+                } else if (buffer.size() == 1 && !scheduler.isShutdown()) {
+                    scheduledFlush = scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+            // Past shutdown there is no window to wait for.
+            if (scheduler.isShutdown() && !buffer.isEmpty()) {
+                full.add(drain());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        full.forEach(this::send);
+    }
+
+    @Override
+    public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+        return delegate.invokeBatch(batch);
+    }
+
+    @Override
+    public Map<String, Integer> activeStreamsPerConnection() {
+        return delegate.activeStreamsPerConnection();
+    }
+
+    @Override
+    public int connectionCount() {
+        return delegate.connectionCount();
+    }
+
+    /**
+     * @return the counts of batched invocations, the delegate only sees their batches
+     */
+    @Override
+    public Optional<AsyncInvocationMetrics> asyncInvocationMetrics() {
+        return Optional.of(limiter.metrics());
+    }
+
+    @Override
+    public Map<String, CircuitBreakerMetrics> circuitBreakers() {
+        return delegate.circuitBreakers();
+    }
+
+    /**
+     * {@link #shutdown(Duration) Shuts down} batching, then closes the delegate.
+     */
+    @Override
+    public void close() {
+        shutdown(closeTimeout);
+        delegate.close();
+    }
+
+    /**
+     * Sends every buffered invocation right away.
+     */
+    public void flush() {
+        List<Protocol.InvocationRequest> pending;
+
+        lock.lock();
+        try {
+            pending = drain();
+        } finally {
+            lock.unlock();
+        }
+
+        if (!pending.isEmpty()) {
+            send(pending);
+        }
+    }
+
+    /**
+     * Sends every buffered invocation, then waits for the proxy to answer every batch sent so far, and stops the
+     * batching window. Invocations made afterwards are sent right away, one per batch.
+     *
+     * @param timeout maximum time to wait for the batches to be answered
+     */
+    public void shutdown(Duration timeout) {
+        scheduler.shutdownNow();
+        flush();
+
+        // Queued invocations are sent as the permits of answered batches are released.
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!sentBatches.isEmpty()) {
+            CompletableFuture<?>[] pending = sentBatches.stream()
+                    .map(sent -> sent.handle((response, err) -> null))
+                    .toArray(CompletableFuture<?>[]::new);
+            try {
+                CompletableFuture.allOf(pending).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                // Failed batches were reported already.
+            } catch (TimeoutException e) {
+                log.warn("{} batches of async invocations were still unanswered after {} ms", sentBatches.size(),
+                        timeout.toMillis());
+                return;
+            }
+        }
+    }
+
+    private List<Protocol.InvocationRequest> drain() {
+        if (Objects.nonNull(scheduledFlush)) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+
+        List<Protocol.InvocationRequest> pending = buffer;
+        buffer = new ArrayList<>(maxBatchSize);
+        return pending;
+    }
+
+    private void send(List<Protocol.InvocationRequest> pending) {
+        // The batch endpoint is scoped to one actor system.
+        Map<String, ProxyTransport.InvocationBatchRequest.Builder> batches = new LinkedHashMap<>();
+        for (Protocol.InvocationRequest request : pending) {
+            batches.computeIfAbsent(request.getSystem().getName(), system -> ProxyTransport.InvocationBatchRequest.newBuilder())
+                    .addRequests(request);
+        }
+
+        batches.values().forEach(builder -> {
+            ProxyTransport.InvocationBatchRequest batch = builder.build();
+            CompletableFuture<ProxyTransport.InvocationBatchResponse> sent = delegate.invokeBatch(batch);
+            sentBatches.add(sent);
+            sent.whenComplete((response, err) -> {
+                reportFailures(batch, response, err);
+                // Only once the queued invocations taking over the permits are sent, for shutdown to wait for them.
+                releasePermits(batch.getRequestsCount());
+                sentBatches.remove(sent);
+            });
+        });
+    }
+
+    /**
+     * Sends an invocation admitted without a permit as a batch of its own, from the calling thread.
+     */
+    private void sendNow(Protocol.InvocationRequest request) {
+        ProxyTransport.InvocationBatchRequest batch = ProxyTransport.InvocationBatchRequest.newBuilder()
+                .addRequests(request)
+                .build();
+        try {
+            reportFailures(batch, delegate.invokeBatch(batch).get(), null);
+        } catch (ExecutionException e) {
+            reportFailures(batch, null, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reportFailures(batch, null, e);
+        }
+    }
+
+    /**
+     * Gives back the permits of an answered batch, buffering the queued invocations they are handed over to.
+     */
+    private void releasePermits(int count) {
+        List<Protocol.InvocationRequest> next = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Protocol.InvocationRequest queued = limiter.release();
+            if (Objects.nonNull(queued)) {
+                next.add(queued);
+            }
+        }
+        buffer(next);
+    }
+
+    private void reportFailures(ProxyTransport.InvocationBatchRequest batch, ProxyTransport.InvocationBatchResponse response,
+                                Throwable err) {
+        for (int i = 0; i < batch.getRequestsCount(); i++) {
+            Protocol.InvocationRequest request = batch.getRequests(i);
+            if (Objects.nonNull(err)) {
+                limiter.reportFailure(request, err);
+                continue;
+            }
+            if (i >= response.getStatusesCount()) {
+                limiter.reportFailure(request, new ActorInvocationException(String.format(
+                        "The proxy answered %d statuses for a batch of %d invocations",
+                        response.getStatusesCount(), batch.getRequestsCount())));
+                continue;
+            }
+            Protocol.RequestStatus status = response.getStatuses(i);
+            if (status.getStatus() != Protocol.Status.OK) {
+                limiter.reportFailure(request,
+                        new ActorInvocationException(String.format("%s: %s", status.getStatus(), status.getMessage())));
+            }
+        }
+    }
+}
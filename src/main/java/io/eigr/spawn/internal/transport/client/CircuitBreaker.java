@@ -0,0 +1,188 @@
+package io.eigr.spawn.internal.transport.client;
+
+import io.eigr.spawn.api.CircuitBreakerMetrics;
+import io.eigr.spawn.api.ResilienceOpts;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Count-based circuit breaker and semaphore bulkhead guarding the invocations of one actor or actor type.
+ * <p>
+ * Outcomes are recorded in a ring buffer holding the last {@link ResilienceOpts#getSlidingWindowSize()} calls,
+ * with running counters of failed and slow calls so rates are computed in constant time.
+ */
+final class CircuitBreaker {
+    private static final byte SUCCESS = 0;
+    private static final byte FAILURE = 1;
+    private static final byte SLOW = 2;
+
+    private final ResilienceOpts opts;
+    private final long slowCallNanos;
+    private final long waitInOpenNanos;
+    private final Semaphore bulkhead;
+    private final LongAdder notPermittedCalls = new LongAdder();
+    private final LongAdder bulkheadRejectedCalls = new LongAdder();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final byte[] outcomes;
+    private int next;
+    private int buffered;
+    private int failures;
+    private int slowCalls;
+    private CircuitBreakerMetrics.State state = CircuitBreakerMetrics.State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+
+    CircuitBreaker(ResilienceOpts opts) {
+        this.opts = opts;
+        this.slowCallNanos = opts.getSlowCallDuration().toNanos();
+        this.waitInOpenNanos = opts.getWaitDurationInOpenState().toNanos();
+        this.bulkhead = new Semaphore(opts.getMaxConcurrentCalls());
+        this.outcomes = new byte[opts.getSlidingWindowSize()];
+    }
+
+    /**
+     * Takes a bulkhead slot, to be given back with {@link #releaseBulkhead()}.
+     *
+     * @return false if the actor already has the maximum number of calls in flight
+     */
+    boolean tryAcquireBulkhead() {
+        if (bulkhead.tryAcquire()) {
+            return true;
+        }
+        bulkheadRejectedCalls.increment();
+        return false;
+    }
+
+    void releaseBulkhead() {
+        bulkhead.release();
+    }
+
+    /**
+     * @return false if the breaker is open, or half-open with every trial call already handed out
+     */
+    boolean tryAcquirePermission(long nowNanos) {
+        lock.lock();
+        try {
+            if (state == CircuitBreakerMetrics.State.OPEN && nowNanos - openedAt >= waitInOpenNanos) {
+                transitionTo(CircuitBreakerMetrics.State.HALF_OPEN, nowNanos);
+            }
+
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    if (halfOpenPermits > 0) {
+                        halfOpenPermits--;
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        notPermittedCalls.increment();
+        return false;
+    }
+
+    void onResult(long durationNanos, boolean failed, long nowNanos) {
+        byte outcome = failed ? FAILURE : durationNanos >= slowCallNanos ? SLOW : SUCCESS;
+
+        lock.lock();
+        try {
+            if (state == CircuitBreakerMetrics.State.OPEN) {
+                // Late result of a call started before the breaker opened.
+                return;
+            }
+
+            record(outcome);
+
+            if (state == CircuitBreakerMetrics.State.CLOSED) {
+                if (buffered >= opts.getMinimumNumberOfCalls() && isAboveThresholds()) {
+                    transitionTo(CircuitBreakerMetrics.State.OPEN, nowNanos);
+                }
+            } else if (buffered >= opts.getPermittedCallsInHalfOpenState()) {
+                transitionTo(isAboveThresholds() ? CircuitBreakerMetrics.State.OPEN : CircuitBreakerMetrics.State.CLOSED,
+                        nowNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the permission of a call whose outcome is not recorded, so a half-open breaker can still
+     * collect its trial calls.
+     */
+    void onIgnored() {
+        lock.lock();
+        try {
+            if (state == CircuitBreakerMetrics.State.HALF_OPEN) {
+                halfOpenPermits++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    CircuitBreakerMetrics metrics() {
+        lock.lock();
+        try {
+            boolean enoughCalls = buffered > 0 && buffered >= opts.getMinimumNumberOfCalls();
+            return new CircuitBreakerMetrics(
+                    state,
+                    enoughCalls ? failures * 100f / buffered : -1,
+                    enoughCalls ? slowCalls * 100f / buffered : -1,
+                    buffered,
+                    notPermittedCalls.sum(),
+                    opts.getMaxConcurrentCalls() - bulkhead.availablePermits(),
+                    bulkheadRejectedCalls.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(byte outcome) {
+        if (buffered == outcomes.length) {
+            forget(outcomes[next]);
+        } else {
+            buffered++;
+        }
+
+        outcomes[next] = outcome;
+        if (outcome == FAILURE) {
+            failures++;
+        } else if (outcome == SLOW) {
+            slowCalls++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void forget(byte outcome) {
+        if (outcome == FAILURE) {
+            failures--;
+        } else if (outcome == SLOW) {
+            slowCalls--;
+        }
+    }
+
+    private boolean isAboveThresholds() {
+        return failures * 100f / buffered >= opts.getFailureRateThreshold()
+                || slowCalls * 100f / buffered >= opts.getSlowCallRateThreshold();
+    }
+
+    private void transitionTo(CircuitBreakerMetrics.State newState, long nowNanos) {
+        state = newState;
+        next = 0;
+        buffered = 0;
+        failures = 0;
+        slowCalls = 0;
+        openedAt = nowNanos;
+        halfOpenPermits = newState == CircuitBreakerMetrics.State.HALF_OPEN ? opts.getPermittedCallsInHalfOpenState() : 0;
+    }
+}
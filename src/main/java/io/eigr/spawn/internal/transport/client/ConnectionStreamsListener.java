@@ -0,0 +1,50 @@
+package io.eigr.spawn.internal.transport.client;
+
+import io.eigr.spawn.api.InvocationInstrumentation;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks how many calls (HTTP/2 streams, or the single in-flight exchange for HTTP/1.1) are currently
+ * using each proxy connection. Useful to size the connection pool when calls are multiplexed. Acquired and
+ * released connections are also reported to the instrumentation.
+ */
+final class ConnectionStreamsListener extends EventListener {
+
+    private final ConcurrentHashMap<Connection, Integer> activeStreams = new ConcurrentHashMap<>();
+    private final InvocationInstrumentation instrumentation;
+
+    ConnectionStreamsListener(InvocationInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+        activeStreams.merge(connection, 1, Integer::sum);
+        instrumentation.connectionAcquired();
+    }
+
+    @Override
+    public void connectionReleased(@NotNull Call call, @NotNull Connection connection) {
+        activeStreams.computeIfPresent(connection, (conn, streams) -> streams > 1 ? streams - 1 : null);
+        instrumentation.connectionReleased();
+    }
+
+    /**
+     * @return a snapshot of active streams keyed by connection description. Connections without in-flight
+     * calls are not included.
+     */
+    Map<String, Integer> snapshot() {
+        Map<String, Integer> snapshot = new HashMap<>(activeStreams.size());
+        activeStreams.forEach((connection, streams) -> snapshot.put(
+                String.format("%s@%x", connection, System.identityHashCode(connection)), streams));
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
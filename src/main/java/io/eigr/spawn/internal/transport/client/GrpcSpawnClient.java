@@ -0,0 +1,395 @@
+package io.eigr.spawn.internal.transport.client;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.functions.protocol.transport.SpawnProxyGrpc;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.api.exceptions.ActorCreationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationTimeoutException;
+import io.eigr.spawn.api.exceptions.ActorRegistrationException;
+import io.eigr.spawn.internal.InvocationDeadline;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import io.grpc.stub.AbstractStub;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link SpawnClient} that talks to the proxy through the Spawn gRPC API.
+ * <p>
+ * Every operation is multiplexed over a single HTTP/2 channel. Fire-and-forget invocations are written
+ * to one long-lived client stream that is lazily (re)opened when needed. They are only written while the stream
+ * is ready to take them without buffering; until then they hold a permit of the {@link AsyncInvocationLimiter},
+ * so the limits set with {@code TransportOpts.asyncInvocationLimits} bound them as on the HTTP transports.
+ * <p>
+ * Every other call is bounded by the deadline of its {@code InvocationOpts}, or else by
+ * {@code TransportOpts.callTimeout}.
+ */
+public final class GrpcSpawnClient implements SpawnClient {
+    private static final Logger log = LoggerFactory.getLogger(GrpcSpawnClient.class);
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final String system;
+    private final ManagedChannel channel;
+    private final Optional<EpollEventLoopGroup> eventLoopGroup;
+    private final long callTimeoutMillis;
+    private final SpawnProxyGrpc.SpawnProxyBlockingStub blockingStub;
+    private final SpawnProxyGrpc.SpawnProxyStub asyncStub;
+
+    private final AsyncInvocationLimiter asyncLimiter;
+
+    private final ReentrantLock streamLock = new ReentrantLock();
+    private ClientCallStreamObserver<Protocol.InvocationRequest> invocationStream;
+    // Async invocations holding a permit, waiting for the stream to be ready.
+    private final ArrayDeque<Protocol.InvocationRequest> unsent = new ArrayDeque<>();
+
+    public GrpcSpawnClient(String system, TransportOpts opts) {
+        this(system, opts, opts.getProxySocketPath().map(socketPath -> new EpollEventLoopGroup()));
+    }
+
+    public GrpcSpawnClient(String system, ManagedChannel channel) {
+        this(system, channel, TransportOpts.builder().build());
+    }
+
+    public GrpcSpawnClient(String system, ManagedChannel channel, TransportOpts opts) {
+        this(system, channel, opts, Optional.empty());
+    }
+
+    private GrpcSpawnClient(String system, TransportOpts opts, Optional<EpollEventLoopGroup> eventLoopGroup) {
+        this(system, newChannelBuilder(opts, eventLoopGroup)
+                .usePlaintext()
+                .executor(opts.getExecutor())
+                .keepAliveTime(30, TimeUnit.SECONDS)
+                .build(), opts, eventLoopGroup);
+    }
+
+    private GrpcSpawnClient(String system, ManagedChannel channel, TransportOpts opts,
+                            Optional<EpollEventLoopGroup> eventLoopGroup) {
+        this.system = system;
+        this.channel = channel;
+        this.eventLoopGroup = eventLoopGroup;
+        this.callTimeoutMillis = opts.getCallTimeout().toMillis();
+        this.blockingStub = SpawnProxyGrpc.newBlockingStub(channel);
+        this.asyncStub = SpawnProxyGrpc.newStub(channel);
+        this.asyncLimiter = new AsyncInvocationLimiter(opts);
+    }
+
+    private static NettyChannelBuilder newChannelBuilder(TransportOpts opts,
+                                                         Optional<EpollEventLoopGroup> eventLoopGroup) {
+        if (eventLoopGroup.isPresent()) {
+            return NettyChannelBuilder.forAddress(new DomainSocketAddress(opts.getProxySocketPath().get()))
+                    .eventLoopGroup(eventLoopGroup.get())
+                    .channelType(EpollDomainSocketChannel.class);
+        }
+
+        return NettyChannelBuilder.forAddress(opts.getProxyHost(), opts.getProxyPort());
+    }
+
+    @Override
+    public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) throws ActorRegistrationException {
+        try {
+            return withCallTimeout(blockingStub).register(registration);
+        } catch (StatusRuntimeException e) {
+            throw new ActorRegistrationException("Error registering Actors", e);
+        }
+    }
+
+    @Override
+    public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) throws ActorCreationException {
+        try {
+            return withCallTimeout(blockingStub).spawn(registration);
+        } catch (StatusRuntimeException e) {
+            throw new ActorCreationException("Error registering Actors", e);
+        }
+    }
+
+    @Override
+    public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException {
+        try {
+            return withDeadline(blockingStub, request).invoke(request);
+        } catch (StatusRuntimeException e) {
+            throw invocationFailure(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+        CompletableFuture<Protocol.InvocationResponse> future = new CompletableFuture<>();
+        SpawnProxyGrpc.SpawnProxyStub stub;
+        try {
+            stub = withDeadline(asyncStub, request);
+        } catch (ActorInvocationTimeoutException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        stub.invoke(request, new ClientResponseObserver<Protocol.InvocationRequest, Protocol.InvocationResponse>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<Protocol.InvocationRequest> call) {
+                future.whenComplete((response, err) -> {
+                    if (future.isCancelled()) {
+                        call.cancel("Invocation cancelled by the caller", null);
+                    }
+                });
+            }
+
+            @Override
+            public void onNext(Protocol.InvocationResponse response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable err) {
+                future.completeExceptionally(invocationFailure(err));
+            }
+
+            @Override
+            public void onCompleted() {
+                // Unary call: the response was already delivered through onNext.
+            }
+        });
+
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+        CompletableFuture<ProxyTransport.InvocationBatchResponse> future = new CompletableFuture<>();
+        withCallTimeout(asyncStub).invokeBatch(batch, new StreamObserver<>() {
+            @Override
+            public void onNext(ProxyTransport.InvocationBatchResponse response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable err) {
+                future.completeExceptionally(new ActorInvocationException(err));
+            }
+
+            @Override
+            public void onCompleted() {
+                // Unary call: the response was already delivered through onNext.
+            }
+        });
+
+        return future;
+    }
+
+    @Override
+    public void invokeAsync(Protocol.InvocationRequest request) throws ActorInvocationException {
+        switch (asyncLimiter.admit(request)) {
+            case SEND:
+                streamLock.lock();
+                try {
+                    unsent.addLast(request);
+                } finally {
+                    streamLock.unlock();
+                }
+                writeUnsent();
+                break;
+            case CALLER_RUNS:
+                sendSync(request);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Writes the unsent invocations for as long as the stream is ready, handing the permit of each written one
+     * over to the next queued invocation. Called again by the stream once it is ready.
+     */
+    private void writeUnsent() {
+        // StreamObserver is not thread-safe, so writes to the shared stream must be serialized.
+        streamLock.lock();
+        try {
+            if (unsent.isEmpty()) {
+                return;
+            }
+            if (Objects.isNull(invocationStream)) {
+                invocationStream = openInvocationStream();
+            }
+            // A failure reported from within onNext may have dropped the stream.
+            while (!unsent.isEmpty() && Objects.nonNull(invocationStream) && invocationStream.isReady()) {
+                invocationStream.onNext(unsent.pollFirst());
+                Protocol.InvocationRequest next = asyncLimiter.release();
+                if (Objects.nonNull(next)) {
+                    unsent.addLast(next);
+                }
+            }
+        } finally {
+            streamLock.unlock();
+        }
+    }
+
+    private void sendSync(Protocol.InvocationRequest request) {
+        try {
+            withDeadline(blockingStub, request).invoke(request);
+        } catch (StatusRuntimeException | ActorInvocationTimeoutException e) {
+            asyncLimiter.reportFailure(request, invocationFailure(e));
+        }
+    }
+
+    @Override
+    public Optional<AsyncInvocationMetrics> asyncInvocationMetrics() {
+        return Optional.of(asyncLimiter.metrics());
+    }
+
+    /**
+     * Half-closes the fire-and-forget stream and shuts down the underlying channel, then its event loops.
+     *
+     * @param timeout maximum time to wait for in-flight calls to finish
+     * @param unit    the time unit of the timeout argument
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        streamLock.lock();
+        try {
+            if (Objects.nonNull(invocationStream)) {
+                invocationStream.onCompleted();
+                invocationStream = null;
+            }
+        } finally {
+            streamLock.unlock();
+        }
+
+        try {
+            if (!channel.shutdown().awaitTermination(timeout, unit)) {
+                channel.shutdownNow();
+            }
+        } finally {
+            eventLoopGroup.ifPresent(group -> group.shutdownGracefully(0, timeout, unit));
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            shutdown(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            channel.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <S extends AbstractStub<S>> S withCallTimeout(S stub) {
+        return stub.withDeadlineAfter(callTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Bounds the call by the deadline the caller set in the request metadata, or else by the call timeout.
+     */
+    private <S extends AbstractStub<S>> S withDeadline(S stub, Protocol.InvocationRequest request)
+            throws ActorInvocationTimeoutException {
+        long deadline = InvocationDeadline.of(request.getMetadataMap());
+        if (deadline == InvocationDeadline.NONE) {
+            return withCallTimeout(stub);
+        }
+
+        long remaining = InvocationDeadline.remainingMillis(deadline);
+        if (remaining <= 0) {
+            throw new ActorInvocationTimeoutException(String.format(
+                    "Deadline of Actor %s invocation expired before it was sent", request.getActor().getId().getName()));
+        }
+        return stub.withDeadlineAfter(remaining, TimeUnit.MILLISECONDS);
+    }
+
+    private static ActorInvocationException invocationFailure(Throwable err) {
+        if (Status.fromThrowable(err).getCode() == Status.Code.DEADLINE_EXCEEDED) {
+            return new ActorInvocationTimeoutException(err);
+        }
+        return new ActorInvocationException(err);
+    }
+
+    private ClientCallStreamObserver<Protocol.InvocationRequest> openInvocationStream() {
+        log.debug("[{}] Opening fire-and-forget invocation stream to the proxy", system);
+        return (ClientCallStreamObserver<Protocol.InvocationRequest>) asyncStub.invokeStream(new InvocationStreamObserver());
+    }
+
+    private void resetInvocationStream(ClientCallStreamObserver<Protocol.InvocationRequest> stream, Throwable err) {
+        List<Protocol.InvocationRequest> failed = new ArrayList<>();
+        streamLock.lock();
+        try {
+            // Only drop the stream that actually failed; a newer one may already be in use.
+            if (invocationStream != stream) {
+                return;
+            }
+            invocationStream = null;
+            if (Objects.nonNull(err)) {
+                failed.addAll(unsent);
+                unsent.clear();
+            }
+        } finally {
+            streamLock.unlock();
+        }
+
+        // Invocations the failed stream never took are reported, and their permits go to the queued ones.
+        for (Protocol.InvocationRequest request : failed) {
+            asyncLimiter.reportFailure(request, invocationFailure(err));
+            Protocol.InvocationRequest next = asyncLimiter.release();
+            if (Objects.nonNull(next)) {
+                streamLock.lock();
+                try {
+                    unsent.addLast(next);
+                } finally {
+                    streamLock.unlock();
+                }
+            }
+        }
+        writeUnsent();
+    }
+
+    private final class InvocationStreamObserver
+            implements ClientResponseObserver<Protocol.InvocationRequest, Protocol.Noop> {
+        private volatile ClientCallStreamObserver<Protocol.InvocationRequest> requestStream;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<Protocol.InvocationRequest> requestStream) {
+            this.requestStream = requestStream;
+            requestStream.setOnReadyHandler(this::onReady);
+        }
+
+        private void onReady() {
+            // Channels with a direct executor report readiness from within the writes, or while the stream is
+            // being opened. The writing thread checks readiness again itself.
+            if (!streamLock.isHeldByCurrentThread()) {
+                writeUnsent();
+            }
+        }
+
+        @Override
+        public void onNext(Protocol.Noop value) {
+            log.trace("Actor invoke async stream acknowledged.");
+        }
+
+        @Override
+        public void onError(Throwable err) {
+            log.warn("Error while Actor invoke async. Stream will be reopened on next invocation.", err);
+            resetInvocationStream(requestStream, err);
+        }
+
+        @Override
+        public void onCompleted() {
+            resetInvocationStream(requestStream, null);
+        }
+    }
+}
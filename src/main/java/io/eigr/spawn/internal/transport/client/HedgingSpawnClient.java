@@ -0,0 +1,285 @@
+package io.eigr.spawn.internal.transport.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.CircuitBreakerMetrics;
+import io.eigr.spawn.api.RetryOpts;
+import io.eigr.spawn.api.exceptions.ActorCreationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.ActorNotFoundException;
+import io.eigr.spawn.api.exceptions.ActorRegistrationException;
+import io.eigr.spawn.api.exceptions.BulkheadFullException;
+import io.eigr.spawn.api.exceptions.CircuitBreakerOpenException;
+import io.eigr.spawn.internal.InvocationDeadline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * {@link SpawnClient} decorator that hedges and retries invocations flagged with {@link #IDEMPOTENT_METADATA}.
+ * <p>
+ * A duplicate request is sent when an invocation is still pending after a percentile of the recent latencies
+ * of its actor, and requests failing with a transport error are retried with a jittered exponential backoff.
+ * The first response completes the invocation and the requests still in flight are cancelled. Invocations
+ * without the flag, fire-and-forget and batched invocations go straight to the delegate.
+ */
+public final class HedgingSpawnClient implements SpawnClient {
+    /**
+     * Request metadata marking an invocation that may be sent to the proxy more than once.
+     */
+    public static final String IDEMPOTENT_METADATA = "idempotent";
+
+    private static final int TRACKERS_MAXIMUM_SIZE = 10_000;
+
+    private final SpawnClient delegate;
+    private final RetryOpts opts;
+    private final long minHedgeDelayNanos;
+    private final Cache<String, LatencyTracker> latencies;
+    private final Function<String, LatencyTracker> trackerFactory;
+    private final ScheduledExecutorService scheduler;
+
+    public HedgingSpawnClient(SpawnClient delegate, RetryOpts opts) {
+        this.delegate = delegate;
+        this.opts = opts;
+        this.minHedgeDelayNanos = opts.getMinHedgeDelay().toNanos();
+        this.latencies = Caffeine.newBuilder()
+                .maximumSize(TRACKERS_MAXIMUM_SIZE)
+                .build();
+        this.trackerFactory = key -> new LatencyTracker(opts.getHedgeDelayPercentile());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "spawn-invocation-hedger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) throws ActorRegistrationException {
+        return delegate.register(registration);
+    }
+
+    @Override
+    public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) throws ActorCreationException {
+        return delegate.spawn(registration);
+    }
+
+    @Override
+    public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException {
+        if (!isIdempotent(request)) {
+            return delegate.invoke(request);
+        }
+
+        CompletableFuture<Protocol.InvocationResponse> future = invokeAsyncWithResult(request);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ActorInvocationException) {
+                throw (ActorInvocationException) e.getCause();
+            }
+            throw new ActorInvocationException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ActorInvocationException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+        if (!isIdempotent(request)) {
+            return delegate.invokeAsyncWithResult(request);
+        }
+
+        HedgedInvocation invocation = new HedgedInvocation(
+                request, latencies.get(request.getActor().getId().getName(), trackerFactory));
+        invocation.start();
+        return invocation.result;
+    }
+
+    @Override
+    public void invokeAsync(Protocol.InvocationRequest request) throws ActorInvocationException {
+        delegate.invokeAsync(request);
+    }
+
+    @Override
+    public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+        return delegate.invokeBatch(batch);
+    }
+
+    @Override
+    public Map<String, Integer> activeStreamsPerConnection() {
+        return delegate.activeStreamsPerConnection();
+    }
+
+    @Override
+    public int connectionCount() {
+        return delegate.connectionCount();
+    }
+
+    @Override
+    public Optional<AsyncInvocationMetrics> asyncInvocationMetrics() {
+        return delegate.asyncInvocationMetrics();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public Map<String, CircuitBreakerMetrics> circuitBreakers() {
+        return delegate.circuitBreakers();
+    }
+
+    private static boolean isIdempotent(Protocol.InvocationRequest request) {
+        return !request.getAsync() && "true".equals(request.getMetadataMap().get(IDEMPOTENT_METADATA));
+    }
+
+    private static boolean isRetryable(Throwable err) {
+        // The proxy answered or the SDK itself refused the call: sending it again would get the same outcome.
+        return err instanceof ActorInvocationException
+                && !(err instanceof ActorNotFoundException)
+                && !(err instanceof CircuitBreakerOpenException)
+                && !(err instanceof BulkheadFullException);
+    }
+
+    private long backoffNanos(int retry) {
+        double backoff = opts.getInitialBackoff().toNanos() * Math.pow(opts.getBackoffMultiplier(), retry);
+        long capped = (long) Math.min(backoff, opts.getMaxBackoff().toNanos());
+        // Equal jitter: keeps half of the backoff and randomizes the other half, so retries of invocations that
+        // failed together are spread out without ever being sent right away.
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    /**
+     * One idempotent invocation and every request sent on its behalf.
+     */
+    private final class HedgedInvocation {
+        private final Protocol.InvocationRequest request;
+        private final LatencyTracker tracker;
+        private final long deadline;
+        private final CompletableFuture<Protocol.InvocationResponse> result = new CompletableFuture<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<CompletableFuture<Protocol.InvocationResponse>> inFlight = new ArrayList<>(2);
+        private ScheduledFuture<?> scheduled;
+        private int attempts;
+        private int retries;
+
+        private HedgedInvocation(Protocol.InvocationRequest request, LatencyTracker tracker) {
+            this.request = request;
+            this.tracker = tracker;
+            this.deadline = InvocationDeadline.of(request.getMetadataMap());
+            this.result.whenComplete((response, err) -> cancelAll());
+        }
+
+        void start() {
+            lock.lock();
+            try {
+                send();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void send() {
+            if (result.isDone() || attempts >= opts.getMaxAttempts()) {
+                return;
+            }
+            attempts++;
+
+            long start = System.nanoTime();
+            CompletableFuture<Protocol.InvocationResponse> call;
+            try {
+                call = delegate.invokeAsyncWithResult(request);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            inFlight.add(call);
+
+            final CompletableFuture<Protocol.InvocationResponse> self = call;
+            call.whenComplete((response, err) -> onComplete(self, start, response, err));
+            if (!call.isDone()) {
+                scheduleHedge();
+            }
+        }
+
+        private void scheduleHedge() {
+            long hedgeDelay = tracker.percentileNanos();
+            if (!opts.isHedging() || hedgeDelay < 0 || attempts >= opts.getMaxAttempts() || result.isDone()) {
+                return;
+            }
+            schedule(Math.max(hedgeDelay, minHedgeDelayNanos));
+        }
+
+        private void schedule(long delayNanos) {
+            if (Objects.nonNull(scheduled)) {
+                scheduled.cancel(false);
+            }
+            scheduled = scheduler.schedule(this::start, delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void onComplete(CompletableFuture<Protocol.InvocationResponse> call, long start,
+                                Protocol.InvocationResponse response, Throwable err) {
+            if (Objects.isNull(err)) {
+                tracker.record(System.nanoTime() - start);
+                result.complete(response);
+                return;
+            }
+
+            Throwable cause = err instanceof CompletionException && Objects.nonNull(err.getCause()) ? err.getCause() : err;
+            lock.lock();
+            try {
+                inFlight.remove(call);
+                if (result.isDone() || !inFlight.isEmpty()) {
+                    // Either another request already won, or one still in flight may do so.
+                    return;
+                }
+
+                long backoff = backoffNanos(retries);
+                boolean canRetry = isRetryable(cause)
+                        && attempts < opts.getMaxAttempts()
+                        && InvocationDeadline.remainingMillis(deadline) > TimeUnit.NANOSECONDS.toMillis(backoff);
+                if (canRetry) {
+                    retries++;
+                    schedule(backoff);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            result.completeExceptionally(cause);
+        }
+
+        private void cancelAll() {
+            List<CompletableFuture<Protocol.InvocationResponse>> losers;
+            lock.lock();
+            try {
+                if (Objects.nonNull(scheduled)) {
+                    scheduled.cancel(false);
+                }
+                losers = new ArrayList<>(inFlight);
+                inFlight.clear();
+            } finally {
+                lock.unlock();
+            }
+            losers.forEach(call -> call.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package io.eigr.spawn.internal.transport.client;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.CircuitBreakerMetrics;
+import io.eigr.spawn.api.InvocationInstrumentation;
+import io.eigr.spawn.api.exceptions.ActorCreationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.ActorRegistrationException;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link SpawnClient} decorator that reports every invocation to an {@link InvocationInstrumentation}: when it
+ * starts and how long it took, with the status and payload sizes, for invocations waiting for a result, and the
+ * request size of fire-and-forget and batched invocations.
+ * <p>
+ * Placed above the retry and resilience decorators, so latencies are the ones seen by {@code ActorRef} callers.
+ */
+public final class InstrumentedSpawnClient implements SpawnClient {
+
+    private final SpawnClient delegate;
+    private final InvocationInstrumentation instrumentation;
+
+    public InstrumentedSpawnClient(SpawnClient delegate, InvocationInstrumentation instrumentation) {
+        this.delegate = delegate;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) throws ActorRegistrationException {
+        return delegate.register(registration);
+    }
+
+    @Override
+    public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) throws ActorCreationException {
+        return delegate.spawn(registration);
+    }
+
+    @Override
+    public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException {
+        String actorName = request.getActor().getId().getName();
+        instrumentation.invocationStarted(actorName, request.getActionName(), request.getSerializedSize());
+        long start = System.nanoTime();
+
+        Protocol.InvocationResponse response;
+        try {
+            response = delegate.invoke(request);
+        } catch (ActorInvocationException | RuntimeException e) {
+            instrumentation.invocationFailed(actorName, request.getActionName(), e, System.nanoTime() - start);
+            throw e;
+        }
+
+        completed(actorName, request, response, start);
+        return response;
+    }
+
+    @Override
+    public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+        String actorName = request.getActor().getId().getName();
+        instrumentation.invocationStarted(actorName, request.getActionName(), request.getSerializedSize());
+        long start = System.nanoTime();
+
+        CompletableFuture<Protocol.InvocationResponse> future;
+        try {
+            future = delegate.invokeAsyncWithResult(request);
+        } catch (RuntimeException e) {
+            instrumentation.invocationFailed(actorName, request.getActionName(), e, System.nanoTime() - start);
+            throw e;
+        }
+
+        future.whenComplete((response, err) -> {
+            if (Objects.nonNull(err)) {
+                instrumentation.invocationFailed(actorName, request.getActionName(), err, System.nanoTime() - start);
+            } else {
+                completed(actorName, request, response, start);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void invokeAsync(Protocol.InvocationRequest request) throws ActorInvocationException {
+        delegate.invokeAsync(request);
+        instrumentation.asyncInvocationSent(
+                request.getActor().getId().getName(), request.getActionName(), request.getSerializedSize());
+    }
+
+    @Override
+    public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+        CompletableFuture<ProxyTransport.InvocationBatchResponse> future = delegate.invokeBatch(batch);
+        for (int i = 0; i < batch.getRequestsCount(); i++) {
+            Protocol.InvocationRequest request = batch.getRequests(i);
+            instrumentation.asyncInvocationSent(
+                    request.getActor().getId().getName(), request.getActionName(), request.getSerializedSize());
+        }
+        return future;
+    }
+
+    @Override
+    public Map<String, Integer> activeStreamsPerConnection() {
+        return delegate.activeStreamsPerConnection();
+    }
+
+    @Override
+    public int connectionCount() {
+        return delegate.connectionCount();
+    }
+
+    @Override
+    public Map<String, CircuitBreakerMetrics> circuitBreakers() {
+        return delegate.circuitBreakers();
+    }
+
+    @Override
+    public Optional<AsyncInvocationMetrics> asyncInvocationMetrics() {
+        return delegate.asyncInvocationMetrics();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private void completed(String actorName, Protocol.InvocationRequest request,
+                           Protocol.InvocationResponse response, long start) {
+        instrumentation.invocationCompleted(actorName, request.getActionName(), response.getStatus().getStatus(),
+                System.nanoTime() - start, response.getSerializedSize());
+    }
+}
@@ -0,0 +1,51 @@
+package io.eigr.spawn.internal.transport.client;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.spawn.api.InvocationInstrumentation;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener of a single invocation call, reporting how long it waited for a dispatcher slot and a connection,
+ * from the call being made to the first connection it acquired. Connection events are passed on to the shared
+ * {@link ConnectionStreamsListener}.
+ */
+final class InvocationCallListener extends EventListener {
+
+    private final Protocol.InvocationRequest request;
+    private final ConnectionStreamsListener streamsListener;
+    private final InvocationInstrumentation instrumentation;
+
+    private long callStartNanos;
+    private boolean queueingReported;
+
+    InvocationCallListener(Protocol.InvocationRequest request, ConnectionStreamsListener streamsListener,
+                           InvocationInstrumentation instrumentation) {
+        this.request = request;
+        this.streamsListener = streamsListener;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public void callStart(@NotNull Call call) {
+        callStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+        streamsListener.connectionAcquired(call, connection);
+        if (!queueingReported) {
+            // Connection failures retried by OkHttp acquire another connection, only the first wait is queueing.
+            queueingReported = true;
+            instrumentation.invocationQueued(
+                    request.getActor().getId().getName(), request.getActionName(), System.nanoTime() - callStartNanos);
+        }
+    }
+
+    @Override
+    public void connectionReleased(@NotNull Call call, @NotNull Connection connection) {
+        streamsListener.connectionReleased(call, connection);
+    }
+}
@@ -0,0 +1,57 @@
+package io.eigr.spawn.internal.transport.client;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Percentile of the most recent invocation latencies of one actor.
+ * <p>
+ * Latencies are kept in a ring buffer and the percentile is only recomputed, by sorting a copy of the buffer,
+ * every {@link #RECOMPUTE_EVERY} samples, so reading it on every invocation stays cheap.
+ */
+final class LatencyTracker {
+    static final int WINDOW_SIZE = 512;
+    static final int MINIMUM_SAMPLES = 20;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final double percentile;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] samples = new long[WINDOW_SIZE];
+    private final long[] sorted = new long[WINDOW_SIZE];
+    private int next;
+    private int buffered;
+    private int sinceLastComputation;
+    private volatile long percentileNanos = -1;
+
+    LatencyTracker(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long latencyNanos) {
+        lock.lock();
+        try {
+            samples[next] = latencyNanos;
+            next = (next + 1) % WINDOW_SIZE;
+            if (buffered < WINDOW_SIZE) {
+                buffered++;
+            }
+
+            if (buffered >= MINIMUM_SAMPLES && (percentileNanos < 0 || ++sinceLastComputation >= RECOMPUTE_EVERY)) {
+                sinceLastComputation = 0;
+                System.arraycopy(samples, 0, sorted, 0, buffered);
+                Arrays.sort(sorted, 0, buffered);
+                int rank = (int) Math.ceil(percentile / 100 * buffered) - 1;
+                percentileNanos = sorted[Math.max(0, Math.min(rank, buffered - 1))];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the latency percentile in nanoseconds, or -1 until enough latencies were recorded
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
@@ -1,60 +1,165 @@
 package io.eigr.spawn.internal.transport.client;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.protobuf.MessageLite;
 import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.InvocationInstrumentation;
 import io.eigr.spawn.api.TransportOpts;
 import io.eigr.spawn.api.exceptions.ActorCreationException;
 import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationTimeoutException;
 import io.eigr.spawn.api.exceptions.ActorRegistrationException;
+import io.eigr.spawn.internal.InvocationDeadline;
+import io.eigr.spawn.internal.VirtualThreads;
+import io.eigr.spawn.internal.transport.PayloadCompression;
 import okhttp3.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.Executor;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public final class OkHttpSpawnClient implements SpawnClient {
     private static final Logger log = LoggerFactory.getLogger(OkHttpSpawnClient.class);
 
     public static final String SPAWN_MEDIA_TYPE = "application/octet-stream";
-    private static final String SPAWN_REGISTER_URI = "/api/v1/system";
+    private static final String SPAWN_REGISTER_URI = "api/v1/system";
 
-    private static final String SPAWN_ACTOR_SPAWN = "/api/v1/system/%s/actors/spawn";
+    private static final String SPAWN_ACTOR_SPAWN = "actors/spawn";
 
-    private final Executor executor;
+    private static final String SPAWN_ACTOR_INVOKE_BATCH = "actors/invoke/batch";
+
+    private static final int INVOCATION_URL_CACHE_MAXIMUM_SIZE = 10_000;
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
 
     private final String system;
 
     private final TransportOpts opts;
     private final OkHttpClient client;
+    private final ConnectionPool connectionPool;
+    private final ConnectionStreamsListener streamsListener;
+    private final AsyncInvocationLimiter asyncLimiter;
+    private final PayloadCompression compression;
+    // Whether the latest proxy response listed the codec in Accept-Encoding, so that requests may be compressed.
+    private volatile boolean proxyAcceptsCompression;
+    private final InvocationInstrumentation instrumentation;
+
+    private final HttpUrl registerUrl;
+    // Keyed by actor id, which also carries the actor system name. ActorRef reuses the same id instance
+    // on every call, so a lookup hits the memoized protobuf hash code and the identity check in equals.
+    private final Cache<ActorOuterClass.ActorId, HttpUrl> invocationUrls;
+    private final Function<ActorOuterClass.ActorId, HttpUrl> invocationUrlFactory;
+    private final Map<String, HttpUrl> batchUrls = new ConcurrentHashMap<>();
+    private final Function<String, HttpUrl> batchUrlFactory;
 
     public OkHttpSpawnClient(String system, TransportOpts opts) {
         this.system = system;
         this.opts = opts;
-        this.client = new OkHttpClient.Builder()
-                .connectTimeout(120, TimeUnit.SECONDS)
-                .readTimeout(120, TimeUnit.SECONDS)
-                .writeTimeout(120, TimeUnit.SECONDS)
-                .callTimeout(400, TimeUnit.SECONDS)
+        this.connectionPool = newConnectionPool(opts);
+        this.instrumentation = opts.getInstrumentation().orElse(InvocationInstrumentation.NOOP);
+        this.streamsListener = new ConnectionStreamsListener(instrumentation);
+        this.compression = PayloadCompression.of(opts);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(opts.getConnectTimeout())
+                .readTimeout(opts.getReadTimeout())
+                .writeTimeout(opts.getWriteTimeout())
+                .callTimeout(opts.getCallTimeout())
                 .retryOnConnectionFailure(true)
-                .connectionPool(new ConnectionPool(256, 100, TimeUnit.SECONDS))
+                .connectionPool(connectionPool)
+                .eventListenerFactory(this::newEventListener);
+
+        // Async calls, fire-and-forget invocations included, run on the dispatcher executor.
+        Dispatcher dispatcher = opts.isVirtualThreads() && VirtualThreads.isSupported()
+                ? new Dispatcher(VirtualThreads.newThreadPerTaskExecutor("spawn-invocation-async"))
+                : new Dispatcher();
+        // Every request goes to the same proxy host, which OkHttp would otherwise cap at 5 concurrent requests.
+        dispatcher.setMaxRequests(opts.getMaxConcurrentRequests());
+        dispatcher.setMaxRequestsPerHost(opts.getMaxConcurrentRequests());
+        if (opts.getProxyProtocol() == TransportOpts.ProxyProtocol.H2C) {
+            // Without TLS there is no ALPN, so HTTP/2 must be spoken from the first byte.
+            builder.protocols(Collections.singletonList(okhttp3.Protocol.H2_PRIOR_KNOWLEDGE));
+        }
+        builder.dispatcher(dispatcher);
+        if (compression.isEnabled()) {
+            builder.addInterceptor(this::recordAcceptedEncoding);
+        }
+
+        opts.getProxySocketPath().ifPresent(socketPath -> builder
+                .socketFactory(new UnixDomainSocketFactory(socketPath))
+                // The socket ignores the address it is given, so skip name resolution of the proxy host.
+                .dns(hostname -> Collections.singletonList(InetAddress.getLoopbackAddress())));
+
+        this.client = builder.build();
+        this.asyncLimiter = new AsyncInvocationLimiter(opts);
+
+        this.registerUrl = new HttpUrl.Builder()
+                .scheme("http")
+                .host(opts.getProxyHost())
+                .port(opts.getProxyPort())
+                .addPathSegments(SPAWN_REGISTER_URI)
+                .build();
+        this.invocationUrls = Caffeine.newBuilder()
+                .maximumSize(INVOCATION_URL_CACHE_MAXIMUM_SIZE)
                 .build();
-        this.executor =  opts.getExecutor();
+        this.invocationUrlFactory = actorId -> makeURLForSystemAndActor(actorId.getSystem(), actorId.getName());
+        this.batchUrlFactory = systemName -> makeURLForSystem(systemName, SPAWN_ACTOR_INVOKE_BATCH);
     }
 
-    @Override
-    public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) throws ActorRegistrationException {
-        RequestBody body = RequestBody.create(registration.toByteArray(), MediaType.parse(SPAWN_MEDIA_TYPE));
+    /**
+     * Requests are only compressed once the proxy announced it decodes the codec, in the {@code Accept-Encoding}
+     * header of a response, registration included.
+     */
+    private Response recordAcceptedEncoding(Interceptor.Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        proxyAcceptsCompression = compression.isAcceptedBy(response.header(PayloadCompression.ACCEPT_ENCODING));
+        return response;
+    }
+
+    /**
+     * Instrumented invocation calls get a listener of their own to time their queueing, others share the
+     * listener counting streams per connection.
+     */
+    private EventListener newEventListener(Call call) {
+        Protocol.InvocationRequest request = call.request().tag(Protocol.InvocationRequest.class);
+        if (Objects.isNull(request)) {
+            return streamsListener;
+        }
+        return new InvocationCallListener(request, streamsListener, instrumentation);
+    }
 
-        Request request = new Request.Builder().url(makeURLFrom(SPAWN_REGISTER_URI)).post(body).build();
+    private static ConnectionPool newConnectionPool(TransportOpts opts) {
+        if (opts.getProxyProtocol() == TransportOpts.ProxyProtocol.H2C) {
+            return new ConnectionPool(opts.getMaxIdleConnections(), 100, TimeUnit.SECONDS);
+        }
 
-        Call call = client.newCall(request);
+        return new ConnectionPool(256, 100, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) throws ActorRegistrationException {
+        Call call = client.newCall(newRequest(registerUrl, registration));
         try (Response response = call.execute()) {
-            log.debug("Decode response from {}", response.body().bytes());
-            return Protocol.RegistrationResponse.parseFrom(
-                    Objects.requireNonNull(response.body()
-                    ).bytes());
+            Protocol.RegistrationResponse registrationResponse =
+                    Protocol.RegistrationResponse.parseFrom(responseStream(response));
+            log.debug("Decoded registration response {}", registrationResponse);
+            return registrationResponse;
         } catch (Exception e) {
             throw new ActorRegistrationException("Error registering Actors", e);
         }
@@ -62,18 +167,10 @@ public final class OkHttpSpawnClient implements SpawnClient {
 
     @Override
     public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) throws ActorCreationException {
-        RequestBody body = RequestBody.create(registration.toByteArray(), MediaType.parse(SPAWN_MEDIA_TYPE));
-
-        Request request = new Request.Builder()
-                .url(makeSpawnURLFrom(registration.getActors(0).getSystem()))
-                .post(body).build();
-
-        Call call = client.newCall(request);
+        Call call = client.newCall(
+                newRequest(makeURLForSystem(registration.getActors(0).getSystem(), SPAWN_ACTOR_SPAWN), registration));
         try (Response response = call.execute()) {
-            assert response.body() != null;
-            return io.eigr.functions.protocol.Protocol.SpawnResponse.parseFrom(
-                    Objects.requireNonNull(response.body()
-                    ).bytes());
+            return Protocol.SpawnResponse.parseFrom(responseStream(response));
         } catch (Exception e) {
             throw new ActorCreationException("Error registering Actors", e);
         }
@@ -81,63 +178,240 @@ public final class OkHttpSpawnClient implements SpawnClient {
 
     @Override
     public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException {
-        RequestBody body = RequestBody.create(
-                request.toByteArray(), MediaType.parse(SPAWN_MEDIA_TYPE));
-
-        Request invocationRequest = new Request.Builder()
-                .url(makeURLForSystemAndActor(request.getSystem().getName(), request.getActor().getId().getName()))
-                .post(body)
-                .build();
-
-        Call invocationCall = client.newCall(invocationRequest);
+        Call invocationCall = newInvocationCall(request);
         try (Response callInvocationResponse = invocationCall.execute()){
-            assert callInvocationResponse.body() != null;
-            return Protocol.InvocationResponse
-                    .parseFrom(Objects.requireNonNull(callInvocationResponse.body()).bytes());
+            return Protocol.InvocationResponse.parseFrom(responseStream(callInvocationResponse));
         } catch (Exception e) {
             e.printStackTrace();
-            throw new ActorInvocationException(e);
+            throw invocationFailure(e);
         }
     }
 
     @Override
-    public void invokeAsync(Protocol.InvocationRequest request) {
-        executor.execute(() -> {
-            RequestBody body = RequestBody.create(
-                    request.toByteArray(), MediaType.parse(SPAWN_MEDIA_TYPE));
-
-            Request invocationRequest = new Request.Builder()
-                    .url(makeURLForSystemAndActor(request.getSystem().getName(), request.getActor().getId().getName()))
-                    .post(body)
-                    .build();
+    public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+        Call invocationCall;
+        try {
+            invocationCall = newInvocationCall(request);
+        } catch (ActorInvocationTimeoutException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Protocol.InvocationResponse> future = new CompletableFuture<>();
+        invocationCall.enqueue(new Callback() {
+            @Override
+            public void onFailure(final Call call, IOException err) {
+                future.completeExceptionally(invocationFailure(err));
+            }
 
-            Call invocationCall = client.newCall(invocationRequest);
-            invocationCall.enqueue(new Callback() {
-                @Override
-                public void onFailure(final Call call, IOException err) {
-                    log.warn("Error while Actor invoke async.", err);
+            @Override
+            public void onResponse(Call call, final Response response) {
+                try (ResponseBody responseBody = response.body()) {
+                    future.complete(Protocol.InvocationResponse.parseFrom(responseStream(response)));
+                } catch (Exception e) {
+                    future.completeExceptionally(invocationFailure(e));
                 }
+            }
+        });
+
+        future.whenComplete((response, err) -> {
+            if (future.isCancelled()) {
+                invocationCall.cancel();
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void invokeAsync(Protocol.InvocationRequest request) throws ActorInvocationException {
+        switch (asyncLimiter.admit(request)) {
+            case SEND:
+                sendAsync(request);
+                break;
+            case CALLER_RUNS:
+                sendSync(request);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Sends an async invocation holding a permit of the limiter, then sends the next queued ones with it.
+     */
+    private void sendAsync(Protocol.InvocationRequest request) {
+        client.newCall(newRequest(invocationUrl(request), request)).enqueue(new Callback() {
+            @Override
+            public void onFailure(final Call call, IOException err) {
+                asyncLimiter.reportFailure(request, invocationFailure(err));
+                sendNextQueued();
+            }
+
+            @Override
+            public void onResponse(Call call, final Response response) {
+                try (ResponseBody responseBody = response.body()) {
+                    log.trace("Actor invoke async response with HTTP status {}.", response.code());
+                    if (!response.isSuccessful()) {
+                        asyncLimiter.reportFailure(request, new ActorInvocationException(String.format(
+                                "Proxy rejected async invocation with HTTP status %d", response.code())));
+                    }
+                }
+                sendNextQueued();
+            }
+        });
+    }
+
+    private void sendNextQueued() {
+        Protocol.InvocationRequest next = asyncLimiter.release();
+        if (Objects.nonNull(next)) {
+            sendAsync(next);
+        }
+    }
 
-                @Override
-                public void onResponse(Call call, final Response response) throws IOException {
-                    String res = response.body().string();
-                    log.trace("Actor invoke async response [{}].", res);
+    private void sendSync(Protocol.InvocationRequest request) {
+        try (Response response = client.newCall(newRequest(invocationUrl(request), request)).execute()) {
+            if (!response.isSuccessful()) {
+                asyncLimiter.reportFailure(request, new ActorInvocationException(String.format(
+                        "Proxy rejected async invocation with HTTP status %d", response.code())));
+            }
+        } catch (IOException e) {
+            asyncLimiter.reportFailure(request, invocationFailure(e));
+        }
+    }
+
+    @Override
+    public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+        String systemName = batch.getRequests(0).getSystem().getName();
+        Request batchRequest = newRequest(batchUrls.computeIfAbsent(systemName, batchUrlFactory), batch);
+
+        CompletableFuture<ProxyTransport.InvocationBatchResponse> future = new CompletableFuture<>();
+        client.newCall(batchRequest).enqueue(new Callback() {
+            @Override
+            public void onFailure(final Call call, IOException err) {
+                future.completeExceptionally(new ActorInvocationException(err));
+            }
+
+            @Override
+            public void onResponse(Call call, final Response response) {
+                try (ResponseBody responseBody = response.body()) {
+                    if (!response.isSuccessful()) {
+                        throw new ActorInvocationException(
+                                String.format("Proxy rejected invocation batch with HTTP status %d", response.code()));
+                    }
+                    future.complete(ProxyTransport.InvocationBatchResponse.parseFrom(responseStream(response)));
+                } catch (Exception e) {
+                    future.completeExceptionally(e instanceof ActorInvocationException ? e : new ActorInvocationException(e));
                 }
-            });
+            }
         });
+
+        return future;
+    }
+
+    @Override
+    public Map<String, Integer> activeStreamsPerConnection() {
+        return streamsListener.snapshot();
+    }
+
+    @Override
+    public int connectionCount() {
+        return connectionPool.connectionCount();
+    }
+
+    @Override
+    public Optional<AsyncInvocationMetrics> asyncInvocationMetrics() {
+        return Optional.of(asyncLimiter.metrics());
+    }
+
+    /**
+     * Stops the dispatcher, waiting a few seconds for the running calls, then closes the pooled connections.
+     */
+    @Override
+    public void close() {
+        ExecutorService dispatcherExecutor = client.dispatcher().executorService();
+        dispatcherExecutor.shutdown();
+        try {
+            if (!dispatcherExecutor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                client.dispatcher().cancelAll();
+            }
+        } catch (InterruptedException e) {
+            client.dispatcher().cancelAll();
+            Thread.currentThread().interrupt();
+        }
+        connectionPool.evictAll();
     }
 
-    private String makeURLForSystemAndActor(String systemName, String actorName) {
-        String uri = String.format("/api/v1/system/%s/actors/%s/invoke", systemName, actorName);
-        return makeURLFrom(uri);
+    /**
+     * Creates the call for an invocation, bounded by the deadline the caller set in the request metadata, if any.
+     */
+    private Call newInvocationCall(Protocol.InvocationRequest request) throws ActorInvocationTimeoutException {
+        Call invocationCall = client.newCall(newRequest(invocationUrl(request), request));
+
+        long deadline = InvocationDeadline.of(request.getMetadataMap());
+        if (deadline != InvocationDeadline.NONE) {
+            long remaining = InvocationDeadline.remainingMillis(deadline);
+            if (remaining <= 0) {
+                throw new ActorInvocationTimeoutException(String.format(
+                        "Deadline of Actor %s invocation expired before it was sent", request.getActor().getId().getName()));
+            }
+            invocationCall.timeout().timeout(remaining, TimeUnit.MILLISECONDS);
+        }
+        return invocationCall;
     }
 
-    private String makeURLFrom(String uri) {
-        return String.format("http://%s:%S%s", this.opts.getProxyHost(), this.opts.getProxyPort(), uri);
+    /**
+     * Creates a POST of the given message, compressed when compression is enabled, the proxy accepts the codec and
+     * the message is large enough.
+     */
+    private Request newRequest(HttpUrl url, MessageLite message) {
+        Request.Builder request = new Request.Builder().url(url);
+        if (message instanceof Protocol.InvocationRequest && instrumentation != InvocationInstrumentation.NOOP) {
+            request.tag(Protocol.InvocationRequest.class, (Protocol.InvocationRequest) message);
+        }
+        if (!compression.isEnabled()) {
+            // Leaves Accept-Encoding to OkHttp, which then transparently decodes gzip responses.
+            return request.post(ProtobufRequestBody.of(message)).build();
+        }
+
+        request.header(PayloadCompression.ACCEPT_ENCODING, compression.encoding());
+        if (proxyAcceptsCompression && compression.shouldCompress(message.getSerializedSize())) {
+            return request
+                    .header(PayloadCompression.CONTENT_ENCODING, compression.encoding())
+                    .post(ProtobufRequestBody.compressed(message, compression))
+                    .build();
+        }
+        return request.post(ProtobufRequestBody.of(message)).build();
     }
 
-    private String makeSpawnURLFrom(String systemName) {
-        String uri = String.format(SPAWN_ACTOR_SPAWN, systemName);
-        return makeURLFrom(uri);
+    private InputStream responseStream(Response response) throws IOException {
+        return compression.decode(
+                Objects.requireNonNull(response.body()).byteStream(), response.header(PayloadCompression.CONTENT_ENCODING));
+    }
+
+    private static ActorInvocationException invocationFailure(Exception e) {
+        // OkHttp reports both its call timeout and socket read timeouts as InterruptedIOException.
+        if (e instanceof InterruptedIOException) {
+            return new ActorInvocationTimeoutException(e);
+        }
+        return new ActorInvocationException(e);
+    }
+
+    private HttpUrl invocationUrl(Protocol.InvocationRequest request) {
+        return invocationUrls.get(request.getActor().getId(), invocationUrlFactory);
+    }
+
+    private HttpUrl makeURLForSystemAndActor(String systemName, String actorName) {
+        return registerUrl.newBuilder()
+                .addPathSegment(systemName)
+                .addPathSegment("actors")
+                .addPathSegment(actorName)
+                .addPathSegment("invoke")
+                .build();
+    }
+
+    private HttpUrl makeURLForSystem(String systemName, String uri) {
+        return registerUrl.newBuilder()
+                .addPathSegment(systemName)
+                .addPathSegments(uri)
+                .build();
     }
 }
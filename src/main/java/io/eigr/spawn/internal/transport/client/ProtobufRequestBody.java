@@ -0,0 +1,70 @@
+package io.eigr.spawn.internal.transport.client;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+import io.eigr.spawn.internal.transport.PayloadCompression;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+
+/**
+ * {@link RequestBody} that serializes a protobuf message straight into the OkHttp sink.
+ * <p>
+ * The message is never materialized as an intermediate {@code byte[]}: {@link CodedOutputStream} encodes it
+ * into a small buffer that is flushed into the sink's segments as it fills up. The content length comes from
+ * {@link MessageLite#getSerializedSize()}, which protobuf memoizes, so the request is still sent with a
+ * {@code Content-Length} header instead of chunked encoding.
+ * <p>
+ * A body created with {@link #compressed(MessageLite, PayloadCompression)} is compressed while it is written,
+ * so its length is unknown upfront and it is sent chunked.
+ */
+final class ProtobufRequestBody extends RequestBody {
+    private static final MediaType MEDIA_TYPE = MediaType.get(OkHttpSpawnClient.SPAWN_MEDIA_TYPE);
+
+    // Matches the size of an Okio segment, so every flush fills whole segments.
+    private static final int MAX_BUFFER_SIZE = 8192;
+
+    private final MessageLite message;
+    private final int serializedSize;
+    private final PayloadCompression compression;
+
+    private ProtobufRequestBody(MessageLite message, PayloadCompression compression) {
+        this.message = message;
+        this.serializedSize = message.getSerializedSize();
+        this.compression = compression;
+    }
+
+    static ProtobufRequestBody of(MessageLite message) {
+        return new ProtobufRequestBody(message, PayloadCompression.NONE);
+    }
+
+    static ProtobufRequestBody compressed(MessageLite message, PayloadCompression compression) {
+        return new ProtobufRequestBody(message, compression);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public long contentLength() {
+        return compression.isEnabled() ? -1 : serializedSize;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // May be called more than once when OkHttp retries, which is fine since the message is immutable.
+        if (compression.isEnabled()) {
+            compression.writeCompressed(message, sink.outputStream());
+            return;
+        }
+
+        CodedOutputStream output = CodedOutputStream.newInstance(
+                sink.outputStream(), Math.max(1, Math.min(serializedSize, MAX_BUFFER_SIZE)));
+        message.writeTo(output);
+        output.flush();
+    }
+}
@@ -0,0 +1,102 @@
+package io.eigr.spawn.internal.transport.client;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.CircuitBreakerMetrics;
+import io.eigr.spawn.api.exceptions.ActorCreationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.ActorRegistrationException;
+import io.eigr.spawn.internal.InvocationWaitListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link SpawnClient} decorator telling an {@link InvocationWaitListener} about every invocation whose reply the
+ * caller may wait for, from the moment it is sent until its reply arrives. Outermost in the chain, so the listener
+ * sees the thread of the {@code ActorRef} caller.
+ */
+public final class ReplyAwaitingSpawnClient implements SpawnClient {
+
+    private final SpawnClient delegate;
+    private final InvocationWaitListener listener;
+
+    public ReplyAwaitingSpawnClient(SpawnClient delegate, InvocationWaitListener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    @Override
+    public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) throws ActorRegistrationException {
+        return delegate.register(registration);
+    }
+
+    @Override
+    public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) throws ActorCreationException {
+        return delegate.spawn(registration);
+    }
+
+    @Override
+    public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException {
+        Runnable replied = listener.awaitingReply();
+        try {
+            return delegate.invoke(request);
+        } finally {
+            replied.run();
+        }
+    }
+
+    /**
+     * The caller may join the future at any time, so the wait is assumed to last until the reply arrives.
+     */
+    @Override
+    public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+        Runnable replied = listener.awaitingReply();
+        CompletableFuture<Protocol.InvocationResponse> future;
+        try {
+            future = delegate.invokeAsyncWithResult(request);
+        } catch (RuntimeException e) {
+            replied.run();
+            throw e;
+        }
+        future.whenComplete((response, err) -> replied.run());
+        return future;
+    }
+
+    @Override
+    public void invokeAsync(Protocol.InvocationRequest request) throws ActorInvocationException {
+        delegate.invokeAsync(request);
+    }
+
+    @Override
+    public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+        return delegate.invokeBatch(batch);
+    }
+
+    @Override
+    public Map<String, Integer> activeStreamsPerConnection() {
+        return delegate.activeStreamsPerConnection();
+    }
+
+    @Override
+    public int connectionCount() {
+        return delegate.connectionCount();
+    }
+
+    @Override
+    public Map<String, CircuitBreakerMetrics> circuitBreakers() {
+        return delegate.circuitBreakers();
+    }
+
+    @Override
+    public Optional<AsyncInvocationMetrics> asyncInvocationMetrics() {
+        return delegate.asyncInvocationMetrics();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
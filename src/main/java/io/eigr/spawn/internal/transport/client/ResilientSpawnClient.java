@@ -0,0 +1,182 @@
+package io.eigr.spawn.internal.transport.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.CircuitBreakerMetrics;
+import io.eigr.spawn.api.ResilienceOpts;
+import io.eigr.spawn.api.exceptions.ActorCreationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.ActorRegistrationException;
+import io.eigr.spawn.api.exceptions.BulkheadFullException;
+import io.eigr.spawn.api.exceptions.CircuitBreakerOpenException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * {@link SpawnClient} decorator that guards invocations waiting for a result with a circuit breaker and a
+ * bulkhead per actor, or per actor type. Calls rejected by either one fail immediately, without reaching the
+ * delegate, with a {@link CircuitBreakerOpenException} or a {@link BulkheadFullException}.
+ * <p>
+ * Transport errors and invocations answered with an error status count as failures. Fire-and-forget and
+ * batched invocations, registration and spawn requests go straight to the delegate.
+ */
+public final class ResilientSpawnClient implements SpawnClient {
+    private static final int BREAKERS_MAXIMUM_SIZE = 10_000;
+
+    private final SpawnClient delegate;
+    private final ResilienceOpts opts;
+    private final Cache<String, CircuitBreaker> breakers;
+    private final Function<String, CircuitBreaker> breakerFactory;
+
+    public ResilientSpawnClient(SpawnClient delegate, ResilienceOpts opts) {
+        this.delegate = delegate;
+        this.opts = opts;
+        this.breakers = Caffeine.newBuilder()
+                .maximumSize(BREAKERS_MAXIMUM_SIZE)
+                .build();
+        this.breakerFactory = key -> new CircuitBreaker(opts);
+    }
+
+    @Override
+    public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) throws ActorRegistrationException {
+        return delegate.register(registration);
+    }
+
+    @Override
+    public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) throws ActorCreationException {
+        return delegate.spawn(registration);
+    }
+
+    @Override
+    public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException {
+        CircuitBreaker breaker = acquire(request);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Protocol.InvocationResponse response = delegate.invoke(request);
+            failed = isFailure(response);
+            return response;
+        } finally {
+            release(breaker, start, failed);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+        CircuitBreaker breaker;
+        try {
+            breaker = acquire(request);
+        } catch (ActorInvocationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<Protocol.InvocationResponse> future;
+        try {
+            future = delegate.invokeAsyncWithResult(request);
+        } catch (RuntimeException e) {
+            release(breaker, start, true);
+            throw e;
+        }
+
+        future.whenComplete((response, err) -> {
+            if (err instanceof CancellationException) {
+                // A call cancelled by its caller says nothing about the health of the actor.
+                breaker.releaseBulkhead();
+                breaker.onIgnored();
+                return;
+            }
+            release(breaker, start, Objects.nonNull(err) || isFailure(response));
+        });
+        return future;
+    }
+
+    @Override
+    public void invokeAsync(Protocol.InvocationRequest request) throws ActorInvocationException {
+        delegate.invokeAsync(request);
+    }
+
+    @Override
+    public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+        return delegate.invokeBatch(batch);
+    }
+
+    @Override
+    public Map<String, Integer> activeStreamsPerConnection() {
+        return delegate.activeStreamsPerConnection();
+    }
+
+    @Override
+    public int connectionCount() {
+        return delegate.connectionCount();
+    }
+
+    @Override
+    public Optional<AsyncInvocationMetrics> asyncInvocationMetrics() {
+        return delegate.asyncInvocationMetrics();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public Map<String, CircuitBreakerMetrics> circuitBreakers() {
+        Map<String, CircuitBreakerMetrics> metrics = new LinkedHashMap<>();
+        breakers.asMap().forEach((key, breaker) -> metrics.put(key, breaker.metrics()));
+        return metrics;
+    }
+
+    private CircuitBreaker acquire(Protocol.InvocationRequest request) throws ActorInvocationException {
+        String key = keyOf(request);
+        CircuitBreaker breaker = breakers.get(key, breakerFactory);
+
+        if (!breaker.tryAcquireBulkhead()) {
+            throw new BulkheadFullException(String.format(
+                    "Actor %s already has %d invocations in flight", key, opts.getMaxConcurrentCalls()));
+        }
+
+        if (!breaker.tryAcquirePermission(System.nanoTime())) {
+            breaker.releaseBulkhead();
+            throw new CircuitBreakerOpenException(String.format(
+                    "Circuit breaker of Actor %s is open, invocation was not sent to the proxy", key));
+        }
+
+        return breaker;
+    }
+
+    private static void release(CircuitBreaker breaker, long start, boolean failed) {
+        long now = System.nanoTime();
+        breaker.releaseBulkhead();
+        breaker.onResult(now - start, failed, now);
+    }
+
+    private String keyOf(Protocol.InvocationRequest request) {
+        // Unnamed actors are invoked with the name of the actor they were spawned from as register ref.
+        if (opts.getKeyedBy() == ResilienceOpts.KeyedBy.ACTOR_TYPE && !request.getRegisterRef().isEmpty()) {
+            return request.getRegisterRef();
+        }
+        return request.getActor().getId().getName();
+    }
+
+    private static boolean isFailure(Protocol.InvocationResponse response) {
+        switch (response.getStatus().getStatus()) {
+            case UNKNOWN:
+            case ERROR:
+            case UNRECOGNIZED:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
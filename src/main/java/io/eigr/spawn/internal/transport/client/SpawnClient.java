@@ -1,16 +1,69 @@
 package io.eigr.spawn.internal.transport.client;
 
 import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.CircuitBreakerMetrics;
 import io.eigr.spawn.api.exceptions.ActorCreationException;
 import io.eigr.spawn.api.exceptions.ActorInvocationException;
 import io.eigr.spawn.api.exceptions.ActorRegistrationException;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 public interface SpawnClient {
 
     Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) throws ActorRegistrationException;
     Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) throws ActorCreationException;
     Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException;
 
-    void invokeAsync(Protocol.InvocationRequest request);
+    CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request);
+
+    void invokeAsync(Protocol.InvocationRequest request) throws ActorInvocationException;
+
+    /**
+     * Sends several fire-and-forget invocations, all for the same actor system, in a single request to the proxy.
+     *
+     * @param batch the invocations to send
+     * @return a future completed with one status per invocation, in the same order
+     */
+    CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch);
+
+    /**
+     * @return number of in-flight calls per open proxy connection, keyed by a connection description
+     */
+    default Map<String, Integer> activeStreamsPerConnection() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @return number of open connections to the proxy, idle or not
+     */
+    default int connectionCount() {
+        return 0;
+    }
+
+    /**
+     * @return state of every circuit breaker, keyed by actor name or actor type
+     */
+    default Map<String, CircuitBreakerMetrics> circuitBreakers() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * @return pending fire-and-forget invocations and their counters, when the transport bounds them
+     */
+    default Optional<AsyncInvocationMetrics> asyncInvocationMetrics() {
+        return Optional.empty();
+    }
+
+    /**
+     * Releases the connections and threads of the client, after letting in-flight calls finish for a while.
+     * Decorators close their delegate.
+     */
+    default void close() {
+    }
 }
 
@@ -0,0 +1,283 @@
+package io.eigr.spawn.internal.transport.client;
+
+import javax.net.SocketFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Objects;
+
+/**
+ * {@link SocketFactory} whose sockets connect to a UNIX domain socket file, whatever address they are asked
+ * to connect to. Lets OkHttp talk to a sidecar proxy without going through the TCP loopback stack.
+ * <p>
+ * UNIX domain {@link SocketChannel}s are available from Java 16 onwards. The SDK still targets Java 11,
+ * so they are looked up reflectively and {@link #isSupported()} reports whether the running JVM has them.
+ */
+public final class UnixDomainSocketFactory extends SocketFactory {
+
+    private static final MethodHandle OPEN_CHANNEL;
+    private static final MethodHandle ADDRESS_OF;
+    private static final ProtocolFamily UNIX_FAMILY;
+
+    static {
+        MethodHandle open = null;
+        MethodHandle addressOf = null;
+        ProtocolFamily unix = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+            addressOf = lookup.findStatic(addressClass, "of", MethodType.methodType(addressClass, String.class));
+            open = lookup.findStatic(SocketChannel.class, "open",
+                    MethodType.methodType(SocketChannel.class, ProtocolFamily.class));
+            unix = StandardProtocolFamily.valueOf("UNIX");
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            // Running on a JVM older than 16.
+        }
+        OPEN_CHANNEL = open;
+        ADDRESS_OF = addressOf;
+        UNIX_FAMILY = unix;
+    }
+
+    private final String socketPath;
+
+    public UnixDomainSocketFactory(String socketPath) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("UNIX domain sockets require Java 16 or newer");
+        }
+        this.socketPath = Objects.requireNonNull(socketPath, "socketPath cannot be null");
+    }
+
+    public static boolean isSupported() {
+        return Objects.nonNull(OPEN_CHANNEL);
+    }
+
+    @Override
+    public Socket createSocket() {
+        return new UnixDomainSocket(socketPath);
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return connected();
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        return connected();
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return connected();
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+        return connected();
+    }
+
+    private Socket connected() throws IOException {
+        Socket socket = createSocket();
+        socket.connect(null);
+        return socket;
+    }
+
+    /**
+     * Minimal {@link Socket} facade over a UNIX domain {@link SocketChannel}. Only the subset of the API
+     * used by OkHttp is implemented. Read timeouts are enforced by OkHttp's own watchdog, which closes the socket.
+     */
+    static final class UnixDomainSocket extends Socket {
+        private final String socketPath;
+        private SocketChannel channel;
+        private InputStream in;
+        private OutputStream out;
+        private int soTimeout;
+        private boolean inputShutdown;
+        private boolean outputShutdown;
+
+        UnixDomainSocket(String socketPath) {
+            this.socketPath = socketPath;
+        }
+
+        @Override
+        public void connect(SocketAddress endpoint) throws IOException {
+            connect(endpoint, 0);
+        }
+
+        @Override
+        public void connect(SocketAddress endpoint, int timeout) throws IOException {
+            try {
+                channel = (SocketChannel) OPEN_CHANNEL.invoke(UNIX_FAMILY);
+                channel.connect((SocketAddress) ADDRESS_OF.invoke(socketPath));
+            } catch (IOException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IOException(String.format("Unable to connect to UNIX domain socket %s", socketPath), e);
+            }
+            // Channels.newInputStream/newOutputStream serialize reads and writes on the channel's blocking lock,
+            // which would deadlock full-duplex protocols such as HTTP/2. SocketChannel itself allows one
+            // concurrent reader and writer.
+            in = new ChannelInputStream(channel);
+            out = new ChannelOutputStream(channel);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            ensureConnected();
+            return in;
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            ensureConnected();
+            return out;
+        }
+
+        @Override
+        public InetAddress getInetAddress() {
+            return InetAddress.getLoopbackAddress();
+        }
+
+        @Override
+        public SocketAddress getRemoteSocketAddress() {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        }
+
+        @Override
+        public int getPort() {
+            return 0;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return Objects.nonNull(channel) && channel.isConnected();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return Objects.nonNull(channel) && !channel.isOpen();
+        }
+
+        @Override
+        public void setSoTimeout(int timeout) {
+            this.soTimeout = timeout;
+        }
+
+        @Override
+        public int getSoTimeout() {
+            return soTimeout;
+        }
+
+        @Override
+        public void setTcpNoDelay(boolean on) {
+            // Not applicable to UNIX domain sockets.
+        }
+
+        @Override
+        public void shutdownInput() throws IOException {
+            ensureConnected();
+            channel.shutdownInput();
+            inputShutdown = true;
+        }
+
+        @Override
+        public void shutdownOutput() throws IOException {
+            ensureConnected();
+            channel.shutdownOutput();
+            outputShutdown = true;
+        }
+
+        @Override
+        public boolean isInputShutdown() {
+            return inputShutdown;
+        }
+
+        @Override
+        public boolean isOutputShutdown() {
+            return outputShutdown;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (Objects.nonNull(channel)) {
+                channel.close();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("UnixDomainSocket[%s]", socketPath);
+        }
+
+        private void ensureConnected() throws IOException {
+            if (!isConnected()) {
+                throw new IOException("Socket is not connected");
+            }
+        }
+    }
+
+    private static final class ChannelInputStream extends InputStream {
+        private final SocketChannel channel;
+
+        ChannelInputStream(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            return channel.read(ByteBuffer.wrap(b, off, len));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class ChannelOutputStream extends OutputStream {
+        private final SocketChannel channel;
+
+        ChannelOutputStream(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.eigr.spawn.internal.transport.server;
+
+import io.eigr.spawn.api.ActionAdmissionStats;
+import io.eigr.spawn.api.TransportOpts;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control of the actions endpoint. A request is accepted while fewer than {@code maxConcurrent} requests
+ * are in flight, queued or running, and then only runs if it did not wait longer than {@code maxQueueTime} for a
+ * worker. Requests failing either check are shed: answered at once with a 503, which the proxy can retry on
+ * another instance, instead of adding to the latency of every actor.
+ */
+public final class ActionAdmission {
+    private static final ThreadLocal<long[]> ARRIVAL = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final int maxConcurrent;
+    private final long maxQueueNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shedOverConcurrency = new LongAdder();
+    private final LongAdder shedOverQueueTime = new LongAdder();
+
+    private ActionAdmission(int maxConcurrent, long maxQueueNanos) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueueNanos = maxQueueNanos;
+    }
+
+    /**
+     * @return admission control admitting every request, only counting them
+     */
+    public static ActionAdmission unlimited() {
+        return new ActionAdmission(Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param opts transport options, with or without admission control
+     * @return admission control with the limits of the options
+     */
+    public static ActionAdmission of(TransportOpts opts) {
+        int maxConcurrent = opts.getMaxConcurrentActions() > 0 ? opts.getMaxConcurrentActions() : Integer.MAX_VALUE;
+        long maxQueueNanos = opts.getMaxActionQueueTime().map(Duration::toNanos).orElse(Long.MAX_VALUE);
+        return new ActionAdmission(maxConcurrent, maxQueueNanos);
+    }
+
+    /**
+     * Accepts a request that just arrived if the concurrency limit allows it. An accepted request must be
+     * {@link #release() released} once answered, whether it was shed later or not.
+     *
+     * @return true if the request is accepted, false if it must be shed
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxConcurrent) {
+                shedOverConcurrency.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Decides whether an accepted request, now picked up by a worker, still runs.
+     *
+     * @param arrivalNanos {@link System#nanoTime()} when the request arrived
+     * @return true if the request runs, false if it waited too long and must be shed
+     */
+    public boolean admit(long arrivalNanos) {
+        if (System.nanoTime() - arrivalNanos > maxQueueNanos) {
+            shedOverQueueTime.increment();
+            return false;
+        }
+        admitted.increment();
+        return true;
+    }
+
+    /**
+     * Releases a request accepted by {@link #tryAcquire()}.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return point-in-time counters of the admitted and shed requests
+     */
+    public ActionAdmissionStats stats() {
+        return new ActionAdmissionStats(inFlight.get(), admitted.sum(), shedOverConcurrency.sum(), shedOverQueueTime.sum());
+    }
+
+    /**
+     * Wraps the executor of a server that dispatches requests to it before reading them, so that the task
+     * handling a request can find when it was dispatched through {@link #arrivalNanos()}.
+     *
+     * @param executor the executor requests are handled on
+     * @return an executor stamping every task with its submission time
+     */
+    static Executor stampingArrivals(Executor executor) {
+        return task -> {
+            long arrival = System.nanoTime();
+            executor.execute(() -> {
+                ARRIVAL.get()[0] = arrival;
+                task.run();
+            });
+        };
+    }
+
+    /**
+     * @return submission time of the task running on this thread, if it was submitted through
+     * {@link #stampingArrivals(Executor)}, or now
+     */
+    static long arrivalNanos() {
+        long[] arrival = ARRIVAL.get();
+        long stamp = arrival[0];
+        arrival[0] = 0;
+        return stamp != 0 ? stamp : System.nanoTime();
+    }
+}
@@ -0,0 +1,280 @@
+package io.eigr.spawn.internal.transport.server;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import io.eigr.spawn.api.actors.BaseActor;
+import io.eigr.spawn.api.actors.behaviors.ActorBehavior;
+import io.eigr.spawn.internal.ActionEnvelope;
+import io.eigr.spawn.internal.Entity;
+import io.eigr.spawn.internal.ProtobufTypeRegistry;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable index of the actors registered by the application and of the actions each one can run, built once when
+ * the actions endpoint is created. Resolving the action of an invocation takes one hash lookup for the actor and one
+ * for the action, with the arity and argument type of the action already bound.
+ */
+final class ActionDispatchTable {
+
+    private final Map<String, ActorEntry> byName;
+    private final Map<String, ActorEntry> byLowerCaseName;
+    private final Set<ActorEntry> entries;
+
+    ActionDispatchTable(List<Entity> entities, ProtobufTypeRegistry types) {
+        Map<String, ActorEntry> byName = new HashMap<>();
+        Map<String, ActorEntry> byLowerCaseName = new HashMap<>();
+        Set<ActorEntry> entries = new LinkedHashSet<>();
+        for (Entity entity : entities) {
+            ActorEntry entry = new ActorEntry(entity, types);
+            entries.add(entry);
+            byName.putIfAbsent(entity.getActorName(), entry);
+            byLowerCaseName.putIfAbsent(entity.getActorName().toLowerCase(Locale.ROOT), entry);
+        }
+        this.byName = Map.copyOf(byName);
+        this.byLowerCaseName = Map.copyOf(byLowerCaseName);
+        this.entries = Set.copyOf(entries);
+    }
+
+    /**
+     * Builds the single instance every invocation of a stateless actor runs on. Stateless behaviors hold no
+     * per-actor data, so one instance serves all actors spawned from the same registration, on every thread.
+     *
+     * @throws ReflectiveOperationException if a stateless actor cannot be built
+     */
+    void buildStatelessInstances() throws ReflectiveOperationException {
+        for (ActorEntry entry : entries) {
+            if (!entry.entity.isStateful()) {
+                entry.sharedInstance = entry.newInstance(entry.entity.getActorName());
+            }
+        }
+    }
+
+    /**
+     * Finds the registered actor an invocation is for. Actor names are matched ignoring case, and actors spawned
+     * from a registered one are matched through their parent.
+     *
+     * @param actor  name of the invoked actor
+     * @param parent name of the actor it was spawned from, may be empty
+     * @return the registered actor, or null if there is none
+     */
+    ActorEntry actorOf(String actor, String parent) {
+        ActorEntry entry = lookup(actor);
+        if (Objects.isNull(entry) && Objects.nonNull(parent) && !parent.isEmpty()) {
+            entry = lookup(parent);
+        }
+        return entry;
+    }
+
+    private ActorEntry lookup(String name) {
+        ActorEntry entry = byName.get(name);
+        if (Objects.isNull(entry)) {
+            entry = byLowerCaseName.get(name.toLowerCase(Locale.ROOT));
+        }
+        return entry;
+    }
+
+    /**
+     * A registered actor and the actions it can run, timer actions included.
+     */
+    static final class ActorEntry {
+        private static final MethodType NO_ARGS_CONSTRUCTOR = MethodType.methodType(BaseActor.class);
+
+        private final Entity entity;
+        private final MethodHandle constructor;
+        private final Map<String, Action> actions;
+        private final String[] actionNames;
+        private volatile ActorInstance sharedInstance;
+
+        private ActorEntry(Entity entity, ProtobufTypeRegistry types) {
+            this.entity = entity;
+            this.constructor = constructorOf(entity.getActor().getClass());
+
+            Map<String, Entity.EntityMethod> methods = new HashMap<>(entity.getTimerActions());
+            methods.putAll(entity.getActions());
+
+            Map<String, Action> actions = new HashMap<>();
+            this.actionNames = new String[methods.size()];
+            int index = 0;
+            for (Entity.EntityMethod method : methods.values()) {
+                actionNames[index] = method.getName();
+                actions.put(method.getName(), new Action(index++, method, types));
+            }
+            this.actions = Map.copyOf(actions);
+        }
+
+        private static MethodHandle constructorOf(Class<?> actorType) {
+            try {
+                return MethodHandles.publicLookup()
+                        .findConstructor(actorType, MethodType.methodType(void.class))
+                        .asType(NO_ARGS_CONSTRUCTOR);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                // Reported when an instance is first needed, as the reflective construction did.
+                return null;
+            }
+        }
+
+        Entity entity() {
+            return entity;
+        }
+
+        /**
+         * @return the instance shared by every invocation of a stateless actor, or null for a stateful actor or
+         * before {@link #buildStatelessInstances()}
+         */
+        ActorInstance sharedInstance() {
+            return sharedInstance;
+        }
+
+        /**
+         * Builds a new instance of the actor, with the functions of its actions resolved.
+         *
+         * @param actorName name of the invoked actor
+         * @return the new instance
+         * @throws ReflectiveOperationException if the actor cannot be built
+         */
+        ActorInstance newInstance(String actorName) throws ReflectiveOperationException {
+            ActorBehavior behavior = newBehavior();
+            return new ActorInstance(actorName, behavior, bind(behavior));
+        }
+
+        /**
+         * Builds a new instance of the actor through its public no-argument constructor and configures its behavior.
+         *
+         * @return the behavior of the new instance
+         * @throws ReflectiveOperationException if the actor has no such constructor or if it fails
+         */
+        private ActorBehavior newBehavior() throws ReflectiveOperationException {
+            if (Objects.isNull(constructor)) {
+                throw new NoSuchMethodException(String.format(
+                        "Actor %s has no public no-argument constructor", entity.getActor().getClass().getName()));
+            }
+            BaseActor actor;
+            try {
+                actor = (BaseActor) constructor.invokeExact();
+            } catch (Error | RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+            return actor.configure(entity.getCtx());
+        }
+
+        /**
+         * @return the action with this exact name, or null if the actor has none
+         */
+        Action action(String name) {
+            return actions.get(name);
+        }
+
+        /**
+         * Resolves the functions of every action on an instance of the actor, indexed by {@link Action#index()}.
+         * An action the instance does not define is left null.
+         *
+         * @param behavior behavior of a newly built actor instance
+         * @return action functions of this instance
+         */
+        private Object[] bind(ActorBehavior behavior) {
+            Map<String, ActionEnvelope> envelopes = behavior.getActions();
+            Object[] functions = new Object[actionNames.length];
+            for (int i = 0; i < actionNames.length; i++) {
+                ActionEnvelope<?> envelope = envelopes.get(actionNames[i]);
+                functions[i] = Objects.isNull(envelope) ? null : envelope.getFunction();
+            }
+            return functions;
+        }
+    }
+
+    /**
+     * An actor instance with the functions of its actions, indexed by {@link Action#index()}.
+     */
+    static final class ActorInstance {
+        private final String actorName;
+        private final ActorBehavior behavior;
+        private final Object[] functions;
+
+        private ActorInstance(String actorName, ActorBehavior behavior, Object[] functions) {
+            this.actorName = actorName;
+            this.behavior = behavior;
+            this.functions = functions;
+        }
+
+        String actorName() {
+            return actorName;
+        }
+
+        ActorBehavior behavior() {
+            return behavior;
+        }
+
+        /**
+         * @return the function of the action, an {@code ActionBindings} or {@code ActionNoBindings}, or null if this
+         * instance does not define it
+         */
+        Object function(Action action) {
+            return functions[action.index()];
+        }
+    }
+
+    /**
+     * An action of a registered actor, with everything needed to call it resolved.
+     */
+    static final class Action {
+        private final int index;
+        private final String name;
+        private final int arity;
+        private final boolean readOnly;
+        private final ProtobufTypeRegistry.MessageType argumentType;
+
+        private Action(int index, Entity.EntityMethod method, ProtobufTypeRegistry types) {
+            this.index = index;
+            this.name = method.getName();
+            this.arity = method.getArity();
+            this.readOnly = method.isReadOnly();
+            this.argumentType = arity > 0 && Objects.nonNull(method.getInputType())
+                    ? types.typeOf(method.getInputType().asSubclass(Message.class))
+                    : null;
+        }
+
+        int index() {
+            return index;
+        }
+
+        String name() {
+            return name;
+        }
+
+        int arity() {
+            return arity;
+        }
+
+        /**
+         * @return whether the action was registered as only reading the actor state
+         */
+        boolean isReadOnly() {
+            return readOnly;
+        }
+
+        /**
+         * Decodes the argument of an invocation, which must carry a message of the type the action was registered with.
+         *
+         * @param value argument sent by the proxy
+         * @return the decoded argument
+         * @throws InvalidProtocolBufferException if the argument is of another type or cannot be decoded
+         */
+        Message parseArgument(Any value) throws InvalidProtocolBufferException {
+            return argumentType.parse(value);
+        }
+    }
+}
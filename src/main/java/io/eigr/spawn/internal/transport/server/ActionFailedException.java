@@ -0,0 +1,42 @@
+package io.eigr.spawn.internal.transport.server;
+
+import io.eigr.functions.protocol.Protocol;
+
+import java.io.IOException;
+
+/**
+ * Signals that an invocation could not be answered: it could not be decoded, its actor is not registered here, or
+ * its action failed. Server transports answer it with {@code 500 Internal Server Error} and the
+ * {@link Protocol.RequestStatus} as the body, keeping the connection open.
+ */
+final class ActionFailedException extends IOException {
+    private final Protocol.Status status;
+
+    ActionFailedException(Protocol.Status status, String message, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+    }
+
+    Protocol.Status status() {
+        return status;
+    }
+
+    /**
+     * @return the protobuf encoded {@link Protocol.RequestStatus} sent as the response body
+     */
+    byte[] toResponseBody() {
+        return Protocol.RequestStatus.newBuilder()
+                .setStatus(status)
+                .setMessage(getMessage())
+                .build()
+                .toByteArray();
+    }
+
+    /**
+     * The cause, if any, holds the stack trace that matters, so this exception does not capture its own.
+     */
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,237 @@
+package io.eigr.spawn.internal.transport.server;
+
+import io.eigr.functions.protocol.actors.ActorOuterClass.ActorId;
+import io.eigr.spawn.internal.InvocationWaitListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a fixed set of single-threaded stripes, always picking the same stripe for the same actor. Tasks of
+ * an actor therefore run one at a time, in submission order, on a thread whose caches stay warm with that actor,
+ * while tasks of different actors are spread across all stripes by the hash of their {@link ActorId}.
+ * <p>
+ * Every actor has a mailbox of its own, drained one task at a time. When a task waits for the reply of an
+ * invocation, see {@link #awaitingReply()}, the rest of its mailbox, and the mailboxes queued behind it on its
+ * stripe, are drained on the overflow executor until the reply arrives, since the invoked action may be one of
+ * them. Tasks of each actor still run one at a time and in order, except for the waiting task itself, which
+ * resumes once the tasks run meanwhile let it.
+ */
+public final class ActorAffinityExecutor implements InvocationWaitListener {
+    private static final Logger log = LoggerFactory.getLogger(ActorAffinityExecutor.class);
+    private static final Runnable NOTHING = () -> {
+    };
+    private static final ThreadLocal<Drain> currentDrain = new ThreadLocal<>();
+    private static final ThreadLocal<Stripe> currentStripe = new ThreadLocal<>();
+
+    private final Stripe[] stripes;
+    private final Executor overflow;
+    private final ConcurrentHashMap<ActorId, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private volatile boolean shutdown;
+
+    /**
+     * @param stripes  number of stripes, each with a thread of its own
+     * @param overflow executor draining the mailboxes of a stripe while it waits for a reply
+     */
+    public ActorAffinityExecutor(int stripes, Executor overflow) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes must be greater than zero");
+        }
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe("spawn-action-stripe-" + i);
+        }
+        this.overflow = overflow;
+    }
+
+    /**
+     * @param actorId the actor the task acts on
+     * @param task    the task
+     * @throws RejectedExecutionException if the executor was shut down
+     */
+    public void execute(ActorId actorId, Runnable task) {
+        if (shutdown) {
+            throw new RejectedExecutionException("The actor affinity executor was shut down");
+        }
+        Stripe stripe = stripes[stripeOf(actorId)];
+        Mailbox[] unscheduled = new Mailbox[1];
+        stripe.pending.incrementAndGet();
+        mailboxes.compute(actorId, (id, existing) -> {
+            Mailbox mailbox = Objects.isNull(existing) ? new Mailbox(id, stripe) : existing;
+            mailbox.tasks.add(task);
+            if (!mailbox.scheduled) {
+                mailbox.scheduled = true;
+                unscheduled[0] = mailbox;
+            }
+            return mailbox;
+        });
+        if (Objects.nonNull(unscheduled[0])) {
+            schedule(unscheduled[0]);
+        }
+    }
+
+    /**
+     * Moves the work a task running here could be waiting for off its thread: the rest of its mailbox and, on a
+     * stripe, the mailboxes queued behind it, as well as any mailbox of that stripe scheduled before the reply.
+     *
+     * @return to run once the reply arrived, from any thread
+     */
+    @Override
+    public Runnable awaitingReply() {
+        Drain drain = currentDrain.get();
+        if (Objects.isNull(drain) || drain.owner != this) {
+            return NOTHING;
+        }
+        if (!drain.handedOff) {
+            drain.handedOff = true;
+            overflow.execute(() -> drain(drain.mailbox));
+        }
+
+        Stripe stripe = drain.stripe;
+        if (Objects.isNull(stripe)) {
+            return NOTHING;
+        }
+        stripe.awaiting.incrementAndGet();
+        List<Runnable> queued = new ArrayList<>();
+        stripe.executor.getQueue().drainTo(queued);
+        queued.forEach(overflow::execute);
+
+        AtomicBoolean replied = new AtomicBoolean();
+        return () -> {
+            if (replied.compareAndSet(false, true)) {
+                stripe.awaiting.decrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * @param actorId an actor
+     * @return index of the stripe the tasks of this actor run on
+     */
+    public int stripeOf(ActorId actorId) {
+        int hash = actorId.getSystem().hashCode();
+        hash = 31 * hash + actorId.getName().hashCode();
+        hash = 31 * hash + actorId.getParent().hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+
+    /**
+     * @return number of tasks waiting to run on each stripe, by stripe index
+     */
+    public List<Integer> queueDepths() {
+        List<Integer> depths = new ArrayList<>(stripes.length);
+        for (Stripe stripe : stripes) {
+            depths.add(stripe.pending.get());
+        }
+        return depths;
+    }
+
+    /**
+     * Lets the stripes finish their queued tasks, without accepting new ones.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Stripe stripe : stripes) {
+            stripe.executor.shutdown();
+        }
+    }
+
+    private void schedule(Mailbox mailbox) {
+        Stripe stripe = mailbox.stripe;
+        Executor executor = stripe.awaiting.get() > 0 ? overflow : stripe.executor;
+        executor.execute(() -> drain(mailbox));
+    }
+
+    private void drain(Mailbox mailbox) {
+        Drain drain = new Drain(this, mailbox, currentStripe.get());
+        currentDrain.set(drain);
+        try {
+            Runnable task;
+            while (!drain.handedOff && Objects.nonNull(task = poll(mailbox))) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Error while running a task of Actor {}", mailbox.actorId.getName(), e);
+                }
+            }
+        } finally {
+            currentDrain.remove();
+        }
+    }
+
+    /**
+     * @return the next task of the mailbox, or null after retiring the empty mailbox
+     */
+    private Runnable poll(Mailbox mailbox) {
+        Runnable[] next = new Runnable[1];
+        mailboxes.computeIfPresent(mailbox.actorId, (id, existing) -> {
+            next[0] = existing.tasks.poll();
+            return Objects.isNull(next[0]) ? null : existing;
+        });
+        if (Objects.nonNull(next[0])) {
+            mailbox.stripe.pending.decrementAndGet();
+        }
+        return next[0];
+    }
+
+    /**
+     * Tasks of an actor. Only read and changed while computing its entry of the mailboxes map.
+     */
+    private static final class Mailbox {
+        private final ActorId actorId;
+        private final Stripe stripe;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean scheduled;
+
+        private Mailbox(ActorId actorId, Stripe stripe) {
+            this.actorId = actorId;
+            this.stripe = stripe;
+        }
+    }
+
+    /**
+     * A mailbox being drained by the current thread, until a task hands the rest of it off to another thread.
+     */
+    private static final class Drain {
+        private final ActorAffinityExecutor owner;
+        private final Mailbox mailbox;
+        private final Stripe stripe;
+        private boolean handedOff;
+
+        private Drain(ActorAffinityExecutor owner, Mailbox mailbox, Stripe stripe) {
+            this.owner = owner;
+            this.mailbox = mailbox;
+            this.stripe = stripe;
+        }
+    }
+
+    private static final class Stripe {
+        private final ThreadPoolExecutor executor;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger awaiting = new AtomicInteger();
+
+        private Stripe(String name) {
+            this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    task -> {
+                        Thread thread = new Thread(() -> {
+                            currentStripe.set(this);
+                            task.run();
+                        }, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.eigr.spawn.internal.transport.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Server exposing the actions endpoint the Spawn proxy sends actor invocations to.
+ */
+public interface ActorServer {
+
+    /**
+     * Starts serving the actions endpoint on the given address.
+     *
+     * @param address host and port to listen on
+     * @throws IOException if the address cannot be bound
+     */
+    void bind(InetSocketAddress address) throws IOException;
+
+    /**
+     * @return port the server listens on, the one picked by the OS when bound to port 0, or -1 when not bound to a
+     * TCP port
+     */
+    int port();
+
+    /**
+     * Stops accepting requests and waits up to the grace period for in-flight ones.
+     *
+     * @param gracePeriodSeconds maximum time to wait for in-flight requests
+     */
+    void stop(int gracePeriodSeconds);
+}
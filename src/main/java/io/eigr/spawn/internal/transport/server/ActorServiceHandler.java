@@ -2,27 +2,34 @@ package io.eigr.spawn.internal.transport.server;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.google.protobuf.*;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import io.eigr.functions.protocol.Protocol;
 import io.eigr.functions.protocol.actors.ActorOuterClass.ActorId;
+import io.eigr.spawn.api.ActionAdmissionStats;
+import io.eigr.spawn.api.ActorCacheOpts;
+import io.eigr.spawn.api.ActorCacheStats;
 import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.actors.ActionBindings;
 import io.eigr.spawn.api.actors.ActorContext;
-import io.eigr.spawn.api.actors.StatefulActor;
-import io.eigr.spawn.api.actors.StatelessActor;
 import io.eigr.spawn.api.actors.Value;
 import io.eigr.spawn.api.actors.behaviors.ActorBehavior;
 import io.eigr.spawn.api.actors.workflows.SideEffect;
+import io.eigr.spawn.api.exceptions.ActorCreationException;
 import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.internal.ActionNoBindings;
 import io.eigr.spawn.internal.Entity;
+import io.eigr.spawn.internal.InvocationDeadline;
+import io.eigr.spawn.internal.ProtobufTypeRegistry;
+import io.eigr.spawn.internal.transport.PayloadCompression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Constructor;
 import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
@@ -37,14 +44,22 @@ import java.util.stream.Collectors;
  */
 public final class ActorServiceHandler<B extends ActorBehavior> implements HttpHandler {
     private static final Logger log = LoggerFactory.getLogger(ActorServiceHandler.class);
-    private static final int CACHE_MAXIMUM_SIZE = 10_000;
-    private static final int CACHE_EXPIRE_AFTER_WRITE_SECONDS = 60;
     private static final String CONTENT_TYPE = "application/octet-stream";
+    private static final int INTERNAL_SERVER_ERROR = 500;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final int GATEWAY_TIMEOUT = 504;
+    private static final Any NOOP_VALUE = Any.pack(Protocol.Noop.getDefaultInstance());
+    private static final int ERROR_LOGS_PER_WINDOW = 10;
+    private static final Duration ERROR_LOG_WINDOW = Duration.ofSeconds(10);
 
     private final Spawn spawn;
     private final String system;
-    private final List<Entity> entities;
-    private final Cache<String, B> cache;
+    private final ProtobufTypeRegistry types;
+    private final ActionDispatchTable dispatchTable;
+    private final Cache<String, ActionDispatchTable.ActorInstance> cache;
+    private final PayloadCompression compression;
+    private final ActionAdmission admission;
+    private final SampledErrorLog errorLog = new SampledErrorLog(log, ERROR_LOGS_PER_WINDOW, ERROR_LOG_WINDOW);
 
     /**
      * Constructs an {@link ActorServiceHandler} instance.
@@ -53,13 +68,95 @@ public final class ActorServiceHandler<B extends ActorBehavior> implements HttpH
      * @param entities the list of {@link Entity} objects representing the actors
      */
     public ActorServiceHandler(final Spawn spawn, final List<Entity> entities) {
+        this(spawn, entities, PayloadCompression.NONE);
+    }
+
+    /**
+     * Constructs an {@link ActorServiceHandler} instance.
+     *
+     * @param spawn the {@link Spawn} instance representing the actor system
+     * @param entities the list of {@link Entity} objects representing the actors
+     * @param compression how large action responses are compressed for a proxy accepting it
+     */
+    public ActorServiceHandler(final Spawn spawn, final List<Entity> entities, final PayloadCompression compression) {
+        this(spawn, entities, compression, ActorCacheOpts.builder().build());
+    }
+
+    /**
+     * Constructs an {@link ActorServiceHandler} instance.
+     *
+     * @param spawn the {@link Spawn} instance representing the actor system
+     * @param entities the list of {@link Entity} objects representing the actors
+     * @param compression how large action responses are compressed for a proxy accepting it
+     * @param cacheOpts bounds and expiry of the cached actor instances
+     */
+    public ActorServiceHandler(final Spawn spawn, final List<Entity> entities, final PayloadCompression compression,
+                               final ActorCacheOpts cacheOpts) {
+        this(spawn, entities, compression, cacheOpts, ActionAdmission.unlimited());
+    }
+
+    /**
+     * Constructs an {@link ActorServiceHandler} instance.
+     *
+     * @param spawn the {@link Spawn} instance representing the actor system
+     * @param entities the list of {@link Entity} objects representing the actors
+     * @param compression how large action responses are compressed for a proxy accepting it
+     * @param cacheOpts bounds and expiry of the cached actor instances
+     * @param admission limits on the requests accepted by the actions endpoint
+     */
+    public ActorServiceHandler(final Spawn spawn, final List<Entity> entities, final PayloadCompression compression,
+                               final ActorCacheOpts cacheOpts, final ActionAdmission admission) {
+        this.compression = compression;
+        this.admission = admission;
         this.spawn = spawn;
         this.system = spawn.getSystem();
-        this.entities = entities;
-        this.cache = Caffeine.newBuilder()
-                .maximumSize(CACHE_MAXIMUM_SIZE)
-                .expireAfterWrite(Duration.ofSeconds(CACHE_EXPIRE_AFTER_WRITE_SECONDS))
-                .build();
+        this.types = ProtobufTypeRegistry.of(entities);
+        this.dispatchTable = new ActionDispatchTable(entities, types);
+        this.cache = newCache(cacheOpts);
+    }
+
+    private static Cache<String, ActionDispatchTable.ActorInstance> newCache(ActorCacheOpts opts) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterAccess(opts.getExpireAfterAccess())
+                .recordStats();
+        if (opts.getWeigher().isPresent()) {
+            ActorCacheOpts.ActorWeigher weigher = opts.getWeigher().get();
+            return builder
+                    .maximumWeight(opts.getMaximumWeight())
+                    .<String, ActionDispatchTable.ActorInstance>weigher(
+                            (key, instance) -> weigher.weigh(instance.actorName(), instance.behavior()))
+                    .build();
+        }
+        return builder.maximumSize(opts.getMaximumSize()).build();
+    }
+
+    /**
+     * Builds the instances of the stateless actors, shared by all their invocations. Called once, before the
+     * actions endpoint starts serving.
+     *
+     * @throws ActorCreationException if a stateless actor cannot be built
+     */
+    public void start() throws ActorCreationException {
+        try {
+            dispatchTable.buildStatelessInstances();
+        } catch (ReflectiveOperationException e) {
+            throw new ActorCreationException("Could not build the stateless actors", e);
+        }
+    }
+
+    /**
+     * @return counts of the requests the actions endpoint ran and shed
+     */
+    public ActionAdmissionStats admissionStats() {
+        return admission.stats();
+    }
+
+    /**
+     * @return hit, miss and eviction counts of the cached instances of stateful actors
+     */
+    public ActorCacheStats cacheStats() {
+        CacheStats stats = cache.stats();
+        return new ActorCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
     }
 
     /**
@@ -72,13 +169,55 @@ public final class ActorServiceHandler<B extends ActorBehavior> implements HttpH
     public void handle(HttpExchange exchange) throws IOException {
         log.debug("Received Actor Action Request.");
         if ("POST".equals(exchange.getRequestMethod())) {
-            try (OutputStream os = exchange.getResponseBody()) {
-                Protocol.ActorInvocationResponse response = handleRequest(exchange);
-                byte[] bytes = response.toByteArray();
+            long arrival = ActionAdmission.arrivalNanos();
+            if (!admission.tryAcquire()) {
+                sendOverloaded(exchange);
+                return;
+            }
+            try {
+                if (!admission.admit(arrival)) {
+                    sendOverloaded(exchange);
+                    return;
+                }
+                handleAdmitted(exchange);
+            } finally {
+                admission.release();
+            }
+        }
+    }
+
+    private void sendOverloaded(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(SERVICE_UNAVAILABLE, -1);
+        exchange.close();
+    }
+
+    private void handleAdmitted(HttpExchange exchange) throws IOException {
+        try (OutputStream os = exchange.getResponseBody()) {
+            Protocol.ActorInvocationResponse response;
+            try {
+                response = handleRequest(exchange);
+            } catch (InvocationExpiredException e) {
+                log.debug(e.getMessage());
+                exchange.sendResponseHeaders(GATEWAY_TIMEOUT, -1);
+                return;
+            } catch (ActionFailedException e) {
+                // A complete response, unlike an exception escaping the handler, keeps the connection open.
+                byte[] body = e.toResponseBody();
                 exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
-                exchange.sendResponseHeaders(200, bytes.length);
-                os.write(bytes);
+                exchange.sendResponseHeaders(INTERNAL_SERVER_ERROR, body.length);
+                os.write(body);
+                return;
             }
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (shouldCompress(response, exchange.getRequestHeaders().getFirst(PayloadCompression.ACCEPT_ENCODING))) {
+                exchange.getResponseHeaders().set(PayloadCompression.CONTENT_ENCODING, compression.encoding());
+                // The compressed length is only known once written, so the response is sent chunked.
+                exchange.sendResponseHeaders(200, 0);
+                compression.writeCompressed(response, os);
+                return;
+            }
+            exchange.sendResponseHeaders(200, response.getSerializedSize());
+            ResponseEncoder.write(response, os);
         }
     }
 
@@ -90,36 +229,93 @@ public final class ActorServiceHandler<B extends ActorBehavior> implements HttpH
      * @throws IOException if an I/O error occurs
      */
     private Protocol.ActorInvocationResponse handleRequest(HttpExchange exchange) throws IOException {
-        try (InputStream in = exchange.getRequestBody()) {
-            Protocol.ActorInvocation actorInvocationRequest = Protocol.ActorInvocation.parseFrom(in);
-            Protocol.Context context = actorInvocationRequest.getCurrentContext();
+        Protocol.ActorInvocation invocation;
+        try (InputStream in = compression.decode(
+                exchange.getRequestBody(), exchange.getRequestHeaders().getFirst(PayloadCompression.CONTENT_ENCODING))) {
+            invocation = Protocol.ActorInvocation.parseFrom(in);
+        } catch (IOException e) {
+            // Malformed protobuf, a corrupt compressed body or an unsupported Content-Encoding.
+            throw invalidInvocation(e);
+        }
+        return handleInvocation(invocation);
+    }
 
-            ActorId actorId = actorInvocationRequest.getActor();
-            String actor = actorId.getName();
-            String system = actorId.getSystem();
-            String parent = actorId.getParent();
-            String commandName = actorInvocationRequest.getActionName();
+    /**
+     * @param cause why the invocation could not be decoded
+     * @return the failure to answer the proxy with
+     */
+    ActionFailedException invalidInvocation(IOException cause) {
+        String message = String.format("Could not decode the invocation: %s", cause.getMessage());
+        errorLog.error(message, null);
+        return new ActionFailedException(Protocol.Status.ERROR, message, cause);
+    }
+
+    PayloadCompression compression() {
+        return compression;
+    }
+
+    ActionAdmission admission() {
+        return admission;
+    }
 
-            Any value = actorInvocationRequest.getValue();
+    /**
+     * @param response the action response about to be sent
+     * @param acceptEncoding the {@code Accept-Encoding} header sent by the proxy, may be null
+     * @return true if the response is large enough to be compressed and the proxy can read it compressed
+     */
+    boolean shouldCompress(Protocol.ActorInvocationResponse response, String acceptEncoding) {
+        return compression.shouldCompress(response.getSerializedSize()) && compression.isAcceptedBy(acceptEncoding);
+    }
 
-            Optional<Value> maybeValueResponse = callAction(system, actor, parent, commandName, value, context);
+    /**
+     * Processes an already decoded actor invocation. Shared by every server transport.
+     *
+     * @param actorInvocationRequest the {@link Protocol.ActorInvocation} sent by the proxy
+     * @return the {@link Protocol.ActorInvocationResponse} representing the response to the actor invocation
+     * @throws InvocationExpiredException if the caller deadline has already passed, in which case the action is not run
+     * @throws ActionFailedException if the actor is not registered, or if the action fails or returns no result
+     */
+    Protocol.ActorInvocationResponse handleInvocation(Protocol.ActorInvocation actorInvocationRequest) throws IOException {
+        long deadline = InvocationDeadline.of(actorInvocationRequest.getCurrentContext().getMetadataMap());
+        if (InvocationDeadline.isExpired(deadline)) {
+            throw new InvocationExpiredException(String.format(
+                    "Skipping action %s of Actor %s, its caller stopped waiting %d ms ago",
+                    actorInvocationRequest.getActionName(), actorInvocationRequest.getActor().getName(),
+                    -InvocationDeadline.remainingMillis(deadline)));
+        }
+
+        Protocol.Context context = actorInvocationRequest.getCurrentContext();
+
+        ActorId actorId = actorInvocationRequest.getActor();
+        String actor = actorId.getName();
+        String system = actorId.getSystem();
+        String parent = actorId.getParent();
+        String commandName = actorInvocationRequest.getActionName();
+
+        Any value = actorInvocationRequest.getValue();
+
+        Optional<Protocol.ActorInvocationResponse> maybeResponse;
+        try {
+            maybeResponse = callAction(system, actor, parent, commandName, value, context);
             log.debug("Actor {} return ActorInvocationResponse for command {}. Result value: {}",
-                    actor, commandName, maybeValueResponse);
+                    actor, commandName, maybeResponse);
 
-            if (maybeValueResponse.isPresent()) {
-                return buildResponse(maybeValueResponse.get(), actor, system);
+            if (maybeResponse.isPresent()) {
+                return maybeResponse.get();
             }
         } catch (Exception e) {
-            e.printStackTrace();
-            log.error("Error during handle request.", e);
-            throw new IOException("Action result is null", e);
+            String message = String.format("Action %s of Actor %s failed: %s", commandName, actor, e);
+            errorLog.error(message, e);
+            throw new ActionFailedException(Protocol.Status.ERROR, message, e);
         }
 
-        throw new IOException("Action result is null");
+        String message = String.format("Actor %s is not registered in system %s", actor, system);
+        errorLog.error(message, null);
+        throw new ActionFailedException(Protocol.Status.ACTOR_NOT_FOUND, message, null);
     }
 
     /**
-     * Invokes the specified action on the actor and returns the result.
+     * Invokes the specified action on the actor and returns the response to answer the proxy with.
      *
      * @param system the actor system name
      * @param actor the actor name
@@ -127,152 +323,144 @@ public final class ActorServiceHandler<B extends ActorBehavior> implements HttpH
      * @param commandName the action name
      * @param value the action input value
      * @param context the actor context
-     * @return an {@link Optional} containing the result of the action invocation
+     * @return an {@link Optional} containing the response, empty if the actor is not registered
      * @throws ActorInvocationException if an error occurs during action invocation
      */
-    private Optional<Value> callAction(
+    private Optional<Protocol.ActorInvocationResponse> callAction(
             String system, String actor, String parent, String commandName, Any value, Protocol.Context context)
             throws ActorInvocationException {
-        Optional<Entity> optionalEntity = getEntityByActor(actor, parent);
-        if (optionalEntity.isPresent()) {
-            Entity entity = optionalEntity.get();
-            try {
-                ActorBehavior actorRef = getOrCreateActor(system, actor, entity);
-                Entity.EntityMethod entityMethod = getEntityMethod(commandName, entity);
-                ActorContext actorContext = createActorContext(context, entity);
+        ActionDispatchTable.ActorEntry actorEntry = dispatchTable.actorOf(actor, parent);
+        if (Objects.isNull(actorEntry)) {
+            return Optional.empty();
+        }
 
-                return invokeAction(actorRef, commandName, value, entityMethod, actorContext);
-            } catch (ReflectiveOperationException | InvalidProtocolBufferException e) {
-                throw new ActorInvocationException(e);
+        ActionDispatchTable.Action action = actorEntry.action(commandName);
+        if (Objects.isNull(action)) {
+            throw new ActorInvocationException(
+                    String.format("The Actor does not have the desired action: %s", commandName));
+        }
+
+        try {
+            ActionDispatchTable.ActorInstance instance = actorEntry.sharedInstance();
+            if (Objects.isNull(instance)) {
+                instance = getOrCreateActor(system, actor, actorEntry);
             }
+            ActorContext actorContext = createActorContext(context, actorEntry.entity());
+
+            Value result = invokeAction(instance, action, value, actorContext);
+            return Optional.of(buildResponse(result, encodeState(result, action, context, actorContext, actor), actor, system));
+        } catch (ReflectiveOperationException | InvalidProtocolBufferException e) {
+            throw new ActorInvocationException(e);
         }
-        return Optional.empty();
     }
 
-    private Optional<Value> invokeAction(
-            ActorBehavior actorRef, String commandName, Any value, Entity.EntityMethod entityMethod, ActorContext actorContext)
-            throws ReflectiveOperationException, InvalidProtocolBufferException, ActorInvocationException {
-        if (entityMethod.getArity() == 0) {
-            return Optional.of((Value) actorRef.call(commandName, actorContext));
-        } else {
-            Class inputType = entityMethod.getInputType();
-            final var unpackedValue = value.unpack(inputType);
-            return Optional.of((Value) actorRef.call(commandName, actorContext, unpackedValue));
+    private Value invokeAction(ActionDispatchTable.ActorInstance instance, ActionDispatchTable.Action action, Any value,
+                               ActorContext actorContext) throws InvalidProtocolBufferException, ActorInvocationException {
+        Object function = instance.function(action);
+        if (Objects.isNull(function)) {
+            throw new ActorInvocationException(String.format(
+                    "Action [%s] not found for Actor [%s]", action.name(), instance.behavior().getName()));
         }
-    }
 
-    /**
-     * Builds or retrieves an actor behavior instance from the cache.
-     *
-     * @param system the actor system name
-     * @param actor the actor name
-     * @param entity the {@link Entity} object representing the actor
-     * @return the {@link ActorBehavior} instance
-     * @throws ReflectiveOperationException if a reflection operation fails
-     */
-    private ActorBehavior getOrCreateActor(String system, String actor, Entity entity) throws ReflectiveOperationException {
-        String actorKey = String.format("%s:%s", system, actor);
-        ActorBehavior actorRef = cache.getIfPresent(actorKey);
-        if (Objects.isNull(actorRef)) {
-            actorRef = buildInstance(entity);
-            cache.put(actorKey, (B) actorRef);
+        if (action.arity() == 0) {
+            return ((ActionNoBindings) function).handle(actorContext);
         }
-        return actorRef;
+        return ((ActionBindings<Message>) function).handle(actorContext, action.parseArgument(value));
     }
 
     /**
-     * Retrieves the method corresponding to the specified command name from the entity.
+     * Builds or retrieves an actor instance from the cache, with the functions of its actions resolved.
      *
-     * @param commandName the action name
-     * @param entity the {@link Entity} object representing the actor
-     * @return the {@link Entity.EntityMethod} representing the method for the command
-     * @throws ActorInvocationException if the entity does not contain the desired action
+     * @param system the actor system name
+     * @param actor the actor name
+     * @param actorEntry the registered actor to build an instance of
+     * @return the actor instance
+     * @throws ReflectiveOperationException if the actor cannot be built
      */
-    private Entity.EntityMethod getEntityMethod(String commandName, Entity entity) throws ActorInvocationException {
-        if (entity.getActions().containsKey(commandName)) {
-            return (Entity.EntityMethod) entity.getActions().get(commandName);
-        } else if (entity.getTimerActions().containsKey(commandName)) {
-            return (Entity.EntityMethod) entity.getTimerActions().get(commandName);
-        } else {
-            throw new ActorInvocationException(
-                    String.format("The Actor does not have the desired action: %s", commandName));
+    private ActionDispatchTable.ActorInstance getOrCreateActor(String system, String actor,
+                                                               ActionDispatchTable.ActorEntry actorEntry)
+            throws ReflectiveOperationException {
+        String actorKey = system + ':' + actor;
+        ActionDispatchTable.ActorInstance instance = cache.getIfPresent(actorKey);
+        if (Objects.isNull(instance)) {
+            instance = actorEntry.newInstance(actor);
+            cache.put(actorKey, instance);
         }
+        return instance;
     }
 
     /**
-     * Creates an {@link ActorContext} instance using the provided context and entity state.
+     * Creates an {@link ActorContext} instance using the provided context and entity state. The state is only
+     * decoded if the action reads it.
      *
      * @param context the {@link Protocol.Context} representing the actor context
      * @param entity the {@link Entity} object representing the actor
      * @return the {@link ActorContext} instance
-     * @throws InvalidProtocolBufferException if the state cannot be unpacked
      */
-    private ActorContext createActorContext(Protocol.Context context, Entity entity) throws InvalidProtocolBufferException, ClassNotFoundException {
+    private ActorContext createActorContext(Protocol.Context context, Entity entity) {
         if (context.hasState() && entity.isStateful()) {
             Any anyCtxState = context.getState();
-            log.debug("[{}] trying to get the state of the Actor {}. Parse Any type {} from State type {}",
-                    system, entity.getActorName(), anyCtxState, entity.getStateType().getSimpleName());
-
-            String typeUrl = anyCtxState.getTypeUrl();
-            String typeName = typeUrl.substring(typeUrl.lastIndexOf('/') + 1);
-            Class protoClass = Class.forName(typeName);
-            Object state = anyCtxState.unpack(protoClass);
-            return new ActorContext(spawn, state);
+            return ActorContext.withLazyState(spawn, () -> decodeState(anyCtxState, entity));
         } else {
             return new ActorContext(spawn);
         }
     }
 
-    /**
-     * Builds an {@link ActorBehavior} instance from the provided entity.
-     *
-     * @param entity the {@link Entity} object representing the actor
-     * @return the {@link ActorBehavior} instance
-     * @throws ReflectiveOperationException if a reflection operation fails
-     */
-    private <B extends ActorBehavior> B buildInstance(Entity entity) throws ReflectiveOperationException {
-        Constructor<?> constructor = entity.getActor().getClass().getConstructor();
-        if (entity.isStateful()) {
-            StatefulActor stActor = (StatefulActor) constructor.newInstance();
-            return (B) stActor.configure(entity.getCtx());
+    private Message decodeState(Any anyCtxState, Entity entity) {
+        log.debug("[{}] trying to get the state of the Actor {}. Parse Any type {}",
+                system, entity.getActorName(), anyCtxState.getTypeUrl());
+        try {
+            return types.unpack(anyCtxState);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException(
+                    String.format("Could not decode the state of Actor %s", entity.getActorName()), e);
         }
-
-        StatelessActor stsActor = (StatelessActor) constructor.newInstance();
-        return (B) stsActor.configure(entity.getCtx());
     }
 
     /**
-     * Retrieves an {@link Entity} based on the actor or parent actor name.
+     * Encodes the state an action returned. A read-only action always answers with the state the proxy sent, as
+     * received, whatever it returned: a different state is ignored with a warning. Any other action answers with
+     * the received state when it returned the very object decoded from it, instead of encoding it again.
      *
-     * @param actor the actor name
-     * @param parent the parent actor name
-     * @return an {@link Optional} containing the {@link Entity} if found
+     * @param valueResponse the result of the action
+     * @param action        the action that ran
+     * @param context       the context sent by the proxy
+     * @param actorContext  the context the action ran with
+     * @param actor         name of the actor the action belongs to
+     * @return the encoded state, or null if there is none to answer with
      */
-    private Optional<Entity> getEntityByActor(String actor, String parent) {
-        return entities.stream()
-                .filter(e -> e.getActorName().equalsIgnoreCase(actor))
-                .findFirst()
-                .or(() -> entities.stream()
-                        .filter(e -> e.getActorName().equalsIgnoreCase(parent))
-                        .findFirst());
+    private Any encodeState(Value valueResponse, ActionDispatchTable.Action action, Protocol.Context context,
+                            ActorContext<?> actorContext, String actor) {
+        GeneratedMessage state = valueResponse.getState();
+        if (action.isReadOnly()) {
+            if (Objects.nonNull(state) && !actorContext.isCurrentState(state)) {
+                log.warn("Read-only action {} of Actor {} returned a new state, which is ignored", action.name(), actor);
+            }
+            return context.hasState() ? context.getState() : null;
+        }
+        if (Objects.isNull(state)) {
+            return null;
+        }
+        if (context.hasState() && actorContext.isCurrentState(state)) {
+            return context.getState();
+        }
+        return Any.pack(state);
     }
 
-    private Protocol.ActorInvocationResponse buildResponse(Value valueResponse, String actor, String system) {
-        Protocol.Context.Builder updatedContextBuilder = Protocol.Context.newBuilder();
-
-        Optional.<GeneratedMessage>ofNullable(valueResponse.getState())
-                .ifPresent(state -> updatedContextBuilder.setState(Any.pack(state)));
+    private Protocol.ActorInvocationResponse buildResponse(Value valueResponse, Any state, String actor, String system) {
+        Protocol.Context updatedContext = Objects.isNull(state)
+                ? Protocol.Context.getDefaultInstance()
+                : Protocol.Context.newBuilder().setState(state).build();
 
-        Any encodedValue = Optional.<GeneratedMessage>ofNullable(valueResponse.getResponse())
-                .map(value -> Any.pack(value))
-                .orElse(Any.pack(Protocol.Noop.getDefaultInstance()));
+        GeneratedMessage value = valueResponse.getResponse();
+        Any encodedValue = Objects.isNull(value) ? NOOP_VALUE : Any.pack(value);
 
         return Protocol.ActorInvocationResponse.newBuilder()
                 .setActorName(actor)
                 .setActorSystem(system)
                 .setValue(encodedValue)
-                .setWorkflow(buildWorkflow(valueResponse))
-                .setUpdatedContext(updatedContextBuilder.build())
+                .setWorkflow(valueResponse.hasNoWorkflow() ? Protocol.Workflow.getDefaultInstance() : buildWorkflow(valueResponse))
+                .setUpdatedContext(updatedContext)
                 .setCheckpoint(valueResponse.getCheckpoint())
                 .build();
     }
@@ -0,0 +1,14 @@
+package io.eigr.spawn.internal.transport.server;
+
+import java.io.IOException;
+
+/**
+ * Signals that an invocation reached the SDK after its deadline and was not executed.
+ * Server transports answer it with {@code 504 Gateway Timeout}.
+ */
+final class InvocationExpiredException extends IOException {
+
+    InvocationExpiredException(String message) {
+        super(message);
+    }
+}
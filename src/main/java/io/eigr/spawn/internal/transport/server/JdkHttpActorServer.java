@@ -0,0 +1,47 @@
+package io.eigr.spawn.internal.transport.server;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * Actions endpoint served by the JDK {@link HttpServer}. Requests are accepted and read by a single dispatcher
+ * thread, then handled on the given {@link Executor}.
+ */
+public final class JdkHttpActorServer implements ActorServer {
+
+    private final String uri;
+    private final ActorServiceHandler<?> handler;
+    private final Executor executor;
+
+    private HttpServer httpServer;
+
+    public JdkHttpActorServer(String uri, ActorServiceHandler<?> handler, Executor executor) {
+        this.uri = uri;
+        this.handler = handler;
+        this.executor = executor;
+    }
+
+    @Override
+    public void bind(InetSocketAddress address) throws IOException {
+        this.httpServer = HttpServer.create(address, 0);
+        httpServer.createContext(uri, handler);
+        httpServer.setExecutor(ActionAdmission.stampingArrivals(executor));
+        httpServer.start();
+    }
+
+    @Override
+    public int port() {
+        return Objects.nonNull(httpServer) ? httpServer.getAddress().getPort() : -1;
+    }
+
+    @Override
+    public void stop(int gracePeriodSeconds) {
+        if (Objects.nonNull(httpServer)) {
+            httpServer.stop(gracePeriodSeconds);
+        }
+    }
+}
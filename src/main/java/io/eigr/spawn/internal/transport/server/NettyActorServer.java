@@ -0,0 +1,426 @@
+package io.eigr.spawn.internal.transport.server;
+
+import com.google.protobuf.CodedOutputStream;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.spawn.internal.transport.PayloadCompression;
+import io.grpc.netty.shaded.io.netty.bootstrap.ServerBootstrap;
+import io.grpc.netty.shaded.io.netty.buffer.ByteBuf;
+import io.grpc.netty.shaded.io.netty.buffer.ByteBufInputStream;
+import io.grpc.netty.shaded.io.netty.buffer.ByteBufOutputStream;
+import io.grpc.netty.shaded.io.netty.buffer.Unpooled;
+import io.grpc.netty.shaded.io.netty.channel.Channel;
+import io.grpc.netty.shaded.io.netty.channel.ChannelFutureListener;
+import io.grpc.netty.shaded.io.netty.channel.ChannelHandler;
+import io.grpc.netty.shaded.io.netty.channel.ChannelHandlerContext;
+import io.grpc.netty.shaded.io.netty.channel.ChannelInitializer;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.SimpleChannelInboundHandler;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.FullHttpRequest;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.FullHttpResponse;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpHeaderNames;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpHeaderValues;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpMethod;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpObjectAggregator;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpResponseStatus;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpServerCodec;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpServerUpgradeHandler;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpUtil;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpVersion;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.QueryStringDecoder;
+import io.grpc.netty.shaded.io.netty.handler.codec.http2.CleartextHttp2ServerUpgradeHandler;
+import io.grpc.netty.shaded.io.netty.handler.codec.http2.Http2CodecUtil;
+import io.grpc.netty.shaded.io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.grpc.netty.shaded.io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.grpc.netty.shaded.io.netty.handler.codec.http2.Http2ServerUpgradeCodec;
+import io.grpc.netty.shaded.io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.grpc.netty.shaded.io.netty.util.AsciiString;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actions endpoint served by the Netty bundled with {@code grpc-netty-shaded}, either on {@code host:port} or,
+ * for deployments where the Spawn proxy runs as a sidecar, on a UNIX domain socket skipping the TCP loopback
+ * stack entirely.
+ * <p>
+ * Connections are accepted and read by event loops, using epoll when available. Over TCP the proxy may speak
+ * HTTP/1.1 or cleartext HTTP/2, with prior knowledge or through an upgrade, and every HTTP/2 stream is handled as
+ * a request of its own. Requests are aggregated into pooled buffers and parsed from them without copying on the
+ * given {@link Executor}, never on an event loop, and actions are executed there too. With an
+ * {@link ActorAffinityExecutor}, the parsed invocation then picks the stripe of the invoked actor, and its action
+ * runs in the mailbox of that actor there.
+ */
+public final class NettyActorServer implements ActorServer {
+    private static final Logger log = LoggerFactory.getLogger(NettyActorServer.class);
+    private static final int MAX_CONTENT_LENGTH = 64 * 1024 * 1024;
+    private static final String CONTENT_TYPE = "application/octet-stream";
+    private static final String OVERLOADED = "Overloaded";
+
+    private final String uri;
+    private final ActorServiceHandler<?> handler;
+    private final Executor executor;
+    private final ActorAffinityExecutor affinityExecutor;
+    private final ActionsHandler actionsHandler = new ActionsHandler();
+
+    private EventLoopGroup acceptGroup;
+    private EventLoopGroup ioGroup;
+    private Channel channel;
+    private Path socketFile;
+
+    public NettyActorServer(String uri, ActorServiceHandler<?> handler, Executor executor) {
+        this(uri, handler, executor, null);
+    }
+
+    /**
+     * @param uri              path of the actions endpoint
+     * @param handler          handler running the invoked actions
+     * @param executor         executor actions run on without actor affinity
+     * @param affinityExecutor executor running the actions of an actor on the same stripe, may be null
+     */
+    public NettyActorServer(String uri, ActorServiceHandler<?> handler, Executor executor,
+                            ActorAffinityExecutor affinityExecutor) {
+        this.uri = uri;
+        this.handler = handler;
+        this.executor = executor;
+        this.affinityExecutor = affinityExecutor;
+    }
+
+    public static boolean isDomainSocketSupported() {
+        return Epoll.isAvailable();
+    }
+
+    /**
+     * Binds the actions endpoint to the given socket file, replacing any stale file left by a previous run.
+     *
+     * @param socketPath path of the UNIX domain socket file
+     * @throws IOException if the socket cannot be bound
+     */
+    public void bindDomainSocket(String socketPath) throws IOException {
+        if (!isDomainSocketSupported()) {
+            throw new IOException("UNIX domain sockets are not available on this platform", Epoll.unavailabilityCause());
+        }
+
+        this.socketFile = Paths.get(socketPath);
+        Files.deleteIfExists(socketFile);
+
+        this.acceptGroup = new EpollEventLoopGroup(1, new DefaultThreadFactory("spawn-actions-accept"));
+        this.ioGroup = new EpollEventLoopGroup(0, new DefaultThreadFactory("spawn-actions-io"));
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(acceptGroup, ioGroup)
+                .channel(EpollServerDomainSocketChannel.class)
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline()
+                                .addLast(new HttpServerCodec())
+                                .addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH))
+                                .addLast(actionsHandler);
+                    }
+                });
+
+        bind(bootstrap, new DomainSocketAddress(socketPath));
+        log.info("Spawn actions endpoint listening on unix:{}", socketPath);
+    }
+
+    @Override
+    public void bind(InetSocketAddress address) throws IOException {
+        ServerBootstrap bootstrap = new ServerBootstrap();
+        if (Epoll.isAvailable()) {
+            this.acceptGroup = new EpollEventLoopGroup(1, new DefaultThreadFactory("spawn-actions-accept"));
+            this.ioGroup = new EpollEventLoopGroup(0, new DefaultThreadFactory("spawn-actions-io"));
+            bootstrap.channel(EpollServerSocketChannel.class);
+        } else {
+            this.acceptGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("spawn-actions-accept"));
+            this.ioGroup = new NioEventLoopGroup(0, new DefaultThreadFactory("spawn-actions-io"));
+            bootstrap.channel(NioServerSocketChannel.class);
+        }
+
+        bootstrap.group(acceptGroup, ioGroup)
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        HttpServerCodec http1 = new HttpServerCodec();
+                        HttpServerUpgradeHandler upgradeToHttp2 = new HttpServerUpgradeHandler(http1, protocol ->
+                                AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol)
+                                        ? new Http2ServerUpgradeCodec(Http2FrameCodecBuilder.forServer().build(), newHttp2Multiplexer())
+                                        : null, MAX_CONTENT_LENGTH);
+
+                        // HTTP/2 connections replace the HTTP/1.1 handlers, so the ones below only see HTTP/1.1.
+                        ch.pipeline()
+                                .addLast(new CleartextHttp2ServerUpgradeHandler(http1, upgradeToHttp2, newHttp2Handler()))
+                                .addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH))
+                                .addLast(actionsHandler);
+                    }
+                });
+
+        bind(bootstrap, address);
+        log.info("Spawn actions endpoint listening on {}:{}", address.getHostString(), port());
+    }
+
+    @Override
+    public int port() {
+        if (Objects.nonNull(channel) && channel.localAddress() instanceof InetSocketAddress) {
+            return ((InetSocketAddress) channel.localAddress()).getPort();
+        }
+        return -1;
+    }
+
+    /**
+     * Stops accepting requests and waits up to the grace period for in-flight ones.
+     *
+     * @param gracePeriodSeconds maximum time to wait for in-flight requests
+     */
+    @Override
+    public void stop(int gracePeriodSeconds) {
+        if (Objects.nonNull(channel)) {
+            channel.close().syncUninterruptibly();
+        }
+        if (Objects.nonNull(acceptGroup)) {
+            acceptGroup.shutdownGracefully(0, gracePeriodSeconds, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+        if (Objects.nonNull(ioGroup)) {
+            ioGroup.shutdownGracefully(0, gracePeriodSeconds, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+        if (Objects.nonNull(socketFile)) {
+            try {
+                Files.deleteIfExists(socketFile);
+            } catch (IOException e) {
+                log.warn("Unable to remove socket file {}", socketFile, e);
+            }
+        }
+    }
+
+    private void bind(ServerBootstrap bootstrap, SocketAddress address) throws IOException {
+        try {
+            this.channel = bootstrap.bind(address).sync().channel();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while binding " + address, e);
+        } catch (Exception e) {
+            acceptGroup.shutdownGracefully();
+            ioGroup.shutdownGracefully();
+            throw new IOException("Unable to bind " + address, e);
+        }
+    }
+
+    private ChannelHandler newHttp2Handler() {
+        return new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel ch) {
+                ch.pipeline()
+                        .addLast(Http2FrameCodecBuilder.forServer().build())
+                        .addLast(newHttp2Multiplexer());
+            }
+        };
+    }
+
+    /**
+     * Gives every HTTP/2 stream a child channel translating its frames to the HTTP/1.1 objects the
+     * {@link ActionsHandler} understands.
+     */
+    private Http2MultiplexHandler newHttp2Multiplexer() {
+        return new Http2MultiplexHandler(new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(Channel stream) {
+                stream.pipeline()
+                        .addLast(new Http2StreamFrameToHttpObjectCodec(true))
+                        .addLast(new HttpObjectAggregator(MAX_CONTENT_LENGTH))
+                        .addLast(actionsHandler);
+            }
+        });
+    }
+
+    @ChannelHandler.Sharable
+    private final class ActionsHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+            if (!HttpMethod.POST.equals(request.method()) || !isActionsPath(request.uri())) {
+                writeResponse(ctx, request, plainResponse(HttpResponseStatus.NOT_FOUND, "Not Found"));
+                return;
+            }
+
+            // Shed on the event loop, before the request takes a place in any queue.
+            ActionAdmission admission = handler.admission();
+            if (!admission.tryAcquire()) {
+                writeResponse(ctx, request, plainResponse(HttpResponseStatus.SERVICE_UNAVAILABLE, OVERLOADED));
+                return;
+            }
+            long arrival = System.nanoTime();
+
+            // The aggregated request is released when this method returns, so hand a retained copy to the worker.
+            FullHttpRequest retained = request.retain();
+            try {
+                executor.execute(() -> {
+                    Protocol.ActorInvocation invocation;
+                    try {
+                        invocation = parseInvocation(retained);
+                    } catch (IOException e) {
+                        writeResponse(ctx, retained, failureResponse(handler.invalidInvocation(e)));
+                        retained.release();
+                        admission.release();
+                        return;
+                    }
+
+                    if (Objects.nonNull(affinityExecutor)) {
+                        executeOnActorStripe(ctx, retained, invocation, arrival, admission);
+                        return;
+                    }
+                    try {
+                        invoke(ctx, retained, invocation, arrival);
+                    } finally {
+                        retained.release();
+                        admission.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                retained.release();
+                admission.release();
+                writeResponse(ctx, request, plainResponse(HttpResponseStatus.SERVICE_UNAVAILABLE, OVERLOADED));
+            }
+        }
+
+        /**
+         * Matches the path of the request, without its query, by prefix, as the contexts of the JDK server do.
+         */
+        private boolean isActionsPath(String requestUri) {
+            return new QueryStringDecoder(requestUri).path().startsWith(uri);
+        }
+
+        /**
+         * Hands the parsed invocation to the mailbox of its actor, passing on the retained request and the
+         * admission, both released once the action ran or was rejected.
+         */
+        private void executeOnActorStripe(ChannelHandlerContext ctx, FullHttpRequest request,
+                                          Protocol.ActorInvocation invocation, long arrival, ActionAdmission admission) {
+            try {
+                affinityExecutor.execute(invocation.getActor(), () -> {
+                    try {
+                        invoke(ctx, request, invocation, arrival);
+                    } finally {
+                        request.release();
+                        admission.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                writeResponse(ctx, request, plainResponse(HttpResponseStatus.SERVICE_UNAVAILABLE, OVERLOADED));
+                request.release();
+                admission.release();
+            }
+        }
+
+        private void invoke(ChannelHandlerContext ctx, FullHttpRequest request, Protocol.ActorInvocation invocation,
+                            long arrival) {
+            if (!handler.admission().admit(arrival)) {
+                writeResponse(ctx, request, plainResponse(HttpResponseStatus.SERVICE_UNAVAILABLE, OVERLOADED));
+                return;
+            }
+            try {
+                Protocol.ActorInvocationResponse response = handler.handleInvocation(invocation);
+                writeResponse(ctx, request, actionResponse(ctx, response,
+                        request.headers().get(HttpHeaderNames.ACCEPT_ENCODING)));
+            } catch (InvocationExpiredException e) {
+                log.debug(e.getMessage());
+                writeResponse(ctx, request, plainResponse(HttpResponseStatus.GATEWAY_TIMEOUT, e.getMessage()));
+            } catch (ActionFailedException e) {
+                writeResponse(ctx, request, failureResponse(e));
+            } catch (Exception e) {
+                log.error("Error during handle request.", e);
+                writeResponse(ctx, request, plainResponse(HttpResponseStatus.INTERNAL_SERVER_ERROR, e.getMessage()));
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            log.warn("Error on actions endpoint connection.", cause);
+            ctx.close();
+        }
+
+        private Protocol.ActorInvocation parseInvocation(FullHttpRequest request) throws IOException {
+            ByteBuf content = request.content();
+            String contentEncoding = request.headers().get(HttpHeaderNames.CONTENT_ENCODING);
+            if (PayloadCompression.isIdentity(contentEncoding) && content.nioBufferCount() == 1) {
+                return Protocol.ActorInvocation.parseFrom(content.nioBuffer());
+            }
+
+            try (InputStream in = handler.compression().decode(new ByteBufInputStream(content), contentEncoding)) {
+                return Protocol.ActorInvocation.parseFrom(in);
+            }
+        }
+
+        private FullHttpResponse actionResponse(ChannelHandlerContext ctx, Protocol.ActorInvocationResponse response,
+                                                String acceptEncoding) throws IOException {
+            PayloadCompression compression = handler.compression();
+            boolean compressed = handler.shouldCompress(response, acceptEncoding);
+            int size = response.getSerializedSize();
+            ByteBuf content = ctx.alloc().buffer(compressed ? size / 2 : size);
+            try {
+                if (compressed) {
+                    compression.writeCompressed(response, new ByteBufOutputStream(content));
+                } else {
+                    // Encodes straight into the pooled buffer, without an intermediate byte array.
+                    CodedOutputStream out = CodedOutputStream.newInstance(content.nioBuffer(0, size));
+                    response.writeTo(out);
+                    out.checkNoSpaceLeft();
+                    content.writerIndex(size);
+                }
+            } catch (IOException | RuntimeException e) {
+                content.release();
+                throw e;
+            }
+
+            FullHttpResponse httpResponse = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, content);
+            httpResponse.headers().set(HttpHeaderNames.CONTENT_TYPE, CONTENT_TYPE);
+            if (compressed) {
+                httpResponse.headers().set(HttpHeaderNames.CONTENT_ENCODING, compression.encoding());
+            }
+            return httpResponse;
+        }
+
+        private void writeResponse(ChannelHandlerContext ctx, FullHttpRequest request, FullHttpResponse response) {
+            boolean keepAlive = HttpUtil.isKeepAlive(request);
+            HttpUtil.setContentLength(response, response.content().readableBytes());
+            if (keepAlive) {
+                response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+                ctx.writeAndFlush(response);
+            } else {
+                ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            }
+        }
+
+        private FullHttpResponse failureResponse(ActionFailedException failure) {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                    HttpResponseStatus.INTERNAL_SERVER_ERROR, Unpooled.wrappedBuffer(failure.toResponseBody()));
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, CONTENT_TYPE);
+            return response;
+        }
+
+        private FullHttpResponse plainResponse(HttpResponseStatus status, String message) {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status,
+                    Unpooled.copiedBuffer(String.valueOf(message), StandardCharsets.UTF_8));
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8");
+            return response;
+        }
+    }
+}
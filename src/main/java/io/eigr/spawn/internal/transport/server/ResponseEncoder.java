@@ -0,0 +1,66 @@
+package io.eigr.spawn.internal.transport.server;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Writes protobuf messages to a stream through a {@link CodedOutputStream} and buffer kept per thread, so that
+ * encoding a response allocates neither an intermediate byte array nor a new encoder. Server worker threads are
+ * pooled and long-lived, so each one builds its encoder once. A thread that is not reused, such as a virtual
+ * thread, pays for the encoder on its one response, as a {@code toByteArray()} call would.
+ */
+public final class ResponseEncoder {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final ThreadLocal<ResponseEncoder> ENCODERS = ThreadLocal.withInitial(ResponseEncoder::new);
+
+    private final TargetStream target = new TargetStream();
+    private final CodedOutputStream output = CodedOutputStream.newInstance(target, BUFFER_SIZE);
+
+    private ResponseEncoder() {
+    }
+
+    /**
+     * Writes a message, without a length prefix. Its serialized size is computed once, so
+     * {@link MessageLite#getSerializedSize()} may be called beforehand at no extra cost, for example to send a
+     * {@code Content-Length}.
+     *
+     * @param message the message to write
+     * @param out     the stream to write to, not closed
+     * @throws IOException if writing to the stream fails
+     */
+    public static void write(MessageLite message, OutputStream out) throws IOException {
+        ResponseEncoder encoder = ENCODERS.get();
+        encoder.target.out = out;
+        try {
+            message.writeTo(encoder.output);
+            encoder.output.flush();
+        } catch (IOException | RuntimeException e) {
+            // Bytes of the failed message may be left in the buffer, so this encoder cannot be reused.
+            ENCODERS.remove();
+            throw e;
+        } finally {
+            encoder.target.out = null;
+        }
+    }
+
+    /**
+     * Forwards to the stream of the message being written, so that the encoder can outlive it.
+     */
+    private static final class TargetStream extends OutputStream {
+        private OutputStream out;
+
+        @Override
+        public void write(int b) throws IOException {
+            Objects.requireNonNull(out).write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            Objects.requireNonNull(out).write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.eigr.spawn.internal.transport.server;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs errors with their stack trace at most {@code maxPerWindow} times per window, counting the others, so that a
+ * burst of failing actions does not also turn into a burst of stack trace formatting and log volume. The next error
+ * logged reports how many were left out.
+ */
+final class SampledErrorLog {
+    private final Logger log;
+    private final int maxPerWindow;
+    private final long windowNanos;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    SampledErrorLog(Logger log, int maxPerWindow, Duration window) {
+        this.log = log;
+        this.maxPerWindow = maxPerWindow;
+        this.windowNanos = window.toNanos();
+    }
+
+    /**
+     * @param message the error message
+     * @param cause   the error, logged with its stack trace, may be null
+     */
+    void error(String message, Throwable cause) {
+        if (!tryAcquire()) {
+            suppressed.increment();
+            return;
+        }
+        long skipped = suppressed.sumThenReset();
+        if (skipped > 0) {
+            log.error("{} ({} similar errors were not logged)", message, skipped, cause);
+        } else {
+            log.error(message, cause);
+        }
+    }
+
+    private boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            loggedInWindow.set(0);
+        }
+        return loggedInWindow.incrementAndGet() <= maxPerWindow;
+    }
+}
@@ -0,0 +1,64 @@
+package io.eigr.spawn.internal;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Virtual thread support, Java 21 version. Pinning is detected with the {@code jdk.VirtualThreadPinned} JFR
+ * event, which the JVM emits when a virtual thread blocks while it cannot unmount from its carrier thread, such as
+ * inside a {@code synchronized} block.
+ */
+public final class VirtualThreads {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String SDK_PACKAGE = "io.eigr.spawn.";
+    private static final int REPORTED_FRAMES = 8;
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return true;
+    }
+
+    public static ExecutorService newThreadPerTaskExecutor(String name) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    public static AutoCloseable reportPinning(Duration threshold) {
+        RecordingStream stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, VirtualThreads::onPinned);
+        stream.startAsync();
+        return stream;
+    }
+
+    private static void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (Objects.isNull(stackTrace) || stackTrace.getFrames().stream().noneMatch(VirtualThreads::isSdkFrame)) {
+            return;
+        }
+
+        log.warn("Virtual thread pinned to its carrier for {} ms while running SDK code, at:\n\t{}",
+                event.getDuration().toMillis(), stackTrace.getFrames().stream()
+                        .limit(REPORTED_FRAMES)
+                        .map(frame -> String.format("%s.%s:%d", frame.getMethod().getType().getName(),
+                                frame.getMethod().getName(), frame.getLineNumber()))
+                        .collect(Collectors.joining("\n\t")));
+    }
+
+    private static boolean isSdkFrame(RecordedFrame frame) {
+        return frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(SDK_PACKAGE);
+    }
+}
@@ -0,0 +1,52 @@
+package io.eigr.spawn.test;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
+import domain.actors.Reply;
+import domain.actors.Request;
+import domain.actors.State;
+import io.eigr.spawn.api.actors.behaviors.BehaviorCtx;
+import io.eigr.spawn.internal.Entity;
+import io.eigr.spawn.internal.ProtobufTypeRegistry;
+import io.eigr.spawn.test.actors.JoeActor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProtobufTypeRegistryTest {
+
+    @Test
+    public void testStateTypeIsResolvedFromTheActorDeclaration() throws Exception {
+        Entity entity = Entity.fromStatefulActorToEntity(BehaviorCtx.create(), JoeActor.class);
+
+        assertEquals(State.class, entity.getStateType());
+    }
+
+    @Test
+    public void testRegisteredAndUnregisteredTypesAreUnpacked() throws Exception {
+        ProtobufTypeRegistry types = ProtobufTypeRegistry.of(
+                List.of(Entity.fromStatefulActorToEntity(BehaviorCtx.create(), JoeActor.class)));
+
+        State state = State.newBuilder().addLanguages("Java").build();
+        assertEquals(state, types.unpack(Any.pack(state)));
+        assertEquals(state, types.unpack(Any.pack(state, "example.com/custom")));
+
+        Reply reply = Reply.newBuilder().setResponse("Java").build();
+        assertEquals(reply, types.unpack(Any.pack(reply)));
+
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> types.unpack(Any.newBuilder().setTypeUrl("type.googleapis.com/unknown.Type").build()));
+    }
+
+    @Test
+    public void testMessageTypeRejectsMessagesOfAnotherType() throws Exception {
+        ProtobufTypeRegistry.MessageType requestType = ProtobufTypeRegistry.of(List.of()).typeOf(Request.class);
+
+        Request request = Request.newBuilder().setLanguage("Java").build();
+        assertEquals(request, requestType.parse(Any.pack(request)));
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> requestType.parse(Any.pack(Reply.newBuilder().setResponse("Java").build())));
+    }
+}
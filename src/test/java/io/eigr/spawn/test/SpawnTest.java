@@ -13,6 +13,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 class SpawnTest extends AbstractContainerBaseTest {
 
@@ -87,4 +88,20 @@ class SpawnTest extends AbstractContainerBaseTest {
             Assertions.assertEquals("Hi Elixir. Hello From Java", reply.getResponse());
         }
     }
+
+    @Test
+    void testNamedFutureInvocation() throws Exception {
+        ActorRef joeActor = spawnSystem.createActorRef(
+                ActorIdentity.of(spawnSystemName, "JoeActor"));
+
+        Request msg = Request.newBuilder()
+                .setLanguage("Erlang")
+                .build();
+
+        Optional<Reply> maybeReply =
+                joeActor.invokeFuture("SetLanguage", msg, Reply.class).get(10, TimeUnit.SECONDS);
+
+        Assertions.assertTrue(maybeReply.isPresent());
+        Assertions.assertEquals("Hi Erlang. Hello From Java", maybeReply.get().getResponse());
+    }
 }
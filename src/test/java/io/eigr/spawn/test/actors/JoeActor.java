@@ -13,6 +13,7 @@ import io.eigr.spawn.api.actors.behaviors.NamedActorBehavior;
 
 import static io.eigr.spawn.api.actors.behaviors.ActorBehavior.action;
 import static io.eigr.spawn.api.actors.behaviors.ActorBehavior.channel;
+import static io.eigr.spawn.api.actors.behaviors.ActorBehavior.readOnlyAction;
 
 public final class JoeActor implements StatefulActor<State> {
 
@@ -21,10 +22,32 @@ public final class JoeActor implements StatefulActor<State> {
         return new NamedActorBehavior(
                 //name("JoeActor"),
                 channel("test.channel"),
-                action("SetLanguage", ActionBindings.of(Request.class, this::setLanguage))
+                action("SetLanguage", ActionBindings.of(Request.class, this::setLanguage)),
+                action("KeepLanguages", ActionBindings.of(Request.class, this::getLanguages)),
+                readOnlyAction("GetLanguages", ActionBindings.of(Request.class, this::readLanguages)),
+                readOnlyAction("MisreadLanguage", ActionBindings.of(Request.class, this::setLanguage))
         );
     }
 
+    private Value getLanguages(ActorContext<State> context, Request msg) {
+        State state = context.getState().orElse(State.getDefaultInstance());
+        return Value.at()
+                .response(Reply.newBuilder()
+                        .setResponse(String.join(", ", state.getLanguagesList()))
+                        .build())
+                .state(state)
+                .reply();
+    }
+
+    private Value readLanguages(ActorContext<State> context, Request msg) {
+        State state = context.getState().orElse(State.getDefaultInstance());
+        return Value.at()
+                .response(Reply.newBuilder()
+                        .setResponse(String.join(", ", state.getLanguagesList()))
+                        .build())
+                .reply();
+    }
+
     private Value setLanguage(ActorContext<State> context, Request msg) {
         return Value.at()
                 .response(Reply.newBuilder()
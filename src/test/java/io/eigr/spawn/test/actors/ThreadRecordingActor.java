@@ -0,0 +1,74 @@
+package io.eigr.spawn.test.actors;
+
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.actors.ActionBindings;
+import io.eigr.spawn.api.actors.ActorContext;
+import io.eigr.spawn.api.actors.StatelessActor;
+import io.eigr.spawn.api.actors.Value;
+import io.eigr.spawn.api.actors.behaviors.ActorBehavior;
+import io.eigr.spawn.api.actors.behaviors.BehaviorCtx;
+import io.eigr.spawn.api.actors.behaviors.NamedActorBehavior;
+import io.eigr.spawn.api.exceptions.ActorCreationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+
+import static io.eigr.spawn.api.actors.behaviors.ActorBehavior.action;
+import static io.eigr.spawn.api.actors.behaviors.ActorBehavior.name;
+
+/**
+ * Answers with the name of the thread its action ran on, which it also keeps in {@link #lastThread}, or with the
+ * answer of an invocation of itself, either synchronous or joined from its future.
+ */
+public class ThreadRecordingActor implements StatelessActor {
+
+    public static volatile Thread lastThread;
+
+    @Override
+    public ActorBehavior configure(BehaviorCtx context) {
+        return new NamedActorBehavior(
+                name("ThreadRecordingActor"),
+                action("RecordThread", ActionBindings.of(Request.class, this::recordThread)),
+                action("InvokeSelf", ActionBindings.of(Request.class, this::invokeSelf)),
+                action("JoinSelf", ActionBindings.of(Request.class, this::joinSelf))
+        );
+    }
+
+    private Value recordThread(ActorContext<?> context, Request msg) {
+        lastThread = Thread.currentThread();
+        return Value.at()
+                .response(Reply.newBuilder()
+                        .setResponse(Thread.currentThread().getName())
+                        .build())
+                .reply();
+    }
+
+    private Value invokeSelf(ActorContext<?> context, Request msg) {
+        try {
+            Reply reply = context.getSpawnSystem()
+                    .createActorRef(ActorIdentity.of(context.getSpawnSystem().getSystem(), "ThreadRecordingActor"))
+                    .invoke("RecordThread", msg, Reply.class)
+                    .orElseThrow();
+            return Value.at()
+                    .response(reply)
+                    .reply();
+        } catch (ActorCreationException | ActorInvocationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Value joinSelf(ActorContext<?> context, Request msg) {
+        try {
+            Reply reply = context.getSpawnSystem()
+                    .createActorRef(ActorIdentity.of(context.getSpawnSystem().getSystem(), "ThreadRecordingActor"))
+                    .invokeFuture("RecordThread", msg, Reply.class)
+                    .join()
+                    .orElseThrow();
+            return Value.at()
+                    .response(reply)
+                    .reply();
+        } catch (ActorCreationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.eigr.spawn.test.benchmarks;
+
+import com.google.protobuf.Any;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.test.actors.JoeActor;
+import io.eigr.spawn.test.transport.SpawnFixture;
+import io.eigr.spawn.test.transport.StandInProxy;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the actions endpoint, as the proxy sees it, for each server transport. Every benchmark thread
+ * plays a proxy connection posting {@code SetLanguage} invocations to a {@link JoeActor} over HTTP/1.1.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.eigr.spawn.test.benchmarks.ActorServerBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class ActorServerBenchmark {
+    private static final String SYSTEM = "spawn-system-benchmark";
+    private static final MediaType MEDIA_TYPE = MediaType.parse("application/octet-stream");
+
+    @Param({"JDK_HTTP", "NETTY"})
+    public TransportOpts.ServerTransport serverTransport;
+
+    private final SpawnFixture fixture = new SpawnFixture(SYSTEM);
+    private OkHttpClient client;
+    private okhttp3.Request request;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        fixture.start(StandInProxy.acknowledging(), TransportOpts.builder().serverTransport(serverTransport),
+                system -> system.withActor(JoeActor.class));
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(64);
+        client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(64, 1, TimeUnit.MINUTES))
+                .build();
+
+        Protocol.ActorInvocation invocation = Protocol.ActorInvocation.newBuilder()
+                .setActor(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                .setActionName("SetLanguage")
+                .setCurrentContext(Protocol.Context.newBuilder())
+                .setValue(Any.pack(Request.newBuilder().setLanguage("Java").build()))
+                .build();
+        request = new okhttp3.Request.Builder()
+                .url(String.format("http://127.0.0.1:%d/api/v1/actors/actions", fixture.sdkPort()))
+                .post(RequestBody.create(invocation.toByteArray(), MEDIA_TYPE))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public byte[] invokeAction() throws Exception {
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().bytes();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ActorServerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
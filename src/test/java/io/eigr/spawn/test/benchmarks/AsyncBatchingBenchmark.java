@@ -0,0 +1,84 @@
+package io.eigr.spawn.test.benchmarks;
+
+import com.google.protobuf.Any;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.internal.transport.client.BatchingSpawnClient;
+import io.eigr.spawn.internal.transport.client.OkHttpSpawnClient;
+import io.eigr.spawn.internal.transport.client.SpawnClient;
+import io.eigr.spawn.test.transport.StandInProxy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fire-and-forget throughput against a local stand-in proxy, with and without micro-batching.
+ * Each operation is one invocation acknowledged by the proxy.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.eigr.spawn.test.benchmarks.AsyncBatchingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsyncBatchingBenchmark {
+    private static final String SYSTEM = "spawn-system-benchmark";
+    private static final int INVOCATIONS = 1_000;
+
+    @Param({"unbatched", "batched"})
+    public String mode;
+
+    private StandInProxy proxy;
+    private SpawnClient client;
+    private Protocol.InvocationRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        proxy = StandInProxy.acknowledging().listenOnPort(0);
+        SpawnClient transport = new OkHttpSpawnClient(SYSTEM, TransportOpts.builder().proxyPort(proxy.port()).build());
+        client = "batched".equals(mode)
+                ? new BatchingSpawnClient(transport, 256, Duration.ofMillis(5))
+                : transport;
+
+        request = Protocol.InvocationRequest.newBuilder()
+                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM).build())
+                .setActor(ActorOuterClass.Actor.newBuilder()
+                        .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                        .build())
+                .setActionName("SetLanguage")
+                .setAsync(true)
+                .setValue(Any.pack(Request.newBuilder().setLanguage("Java").build()))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        proxy.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INVOCATIONS)
+    public void invokeAsync() throws Exception {
+        int target = proxy.invocations() + INVOCATIONS;
+        for (int i = 0; i < INVOCATIONS; i++) {
+            client.invokeAsync(request);
+        }
+
+        while (proxy.invocations() < target) {
+            Thread.sleep(0, 100_000);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AsyncBatchingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
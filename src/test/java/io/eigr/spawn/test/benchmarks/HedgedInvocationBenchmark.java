@@ -0,0 +1,87 @@
+package io.eigr.spawn.test.benchmarks;
+
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.ActorRef;
+import io.eigr.spawn.api.InvocationOpts;
+import io.eigr.spawn.api.RetryOpts;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.test.actors.JoeActor;
+import io.eigr.spawn.test.transport.StandInProxy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of idempotent invocations against a stand-in proxy answering in about 2ms, except for
+ * 2% of the invocations which take 50ms. Compare the {@code p0.99} sample of both {@code hedging} values:
+ * with hedging on, an invocation stuck in the tail is duplicated after the 95th percentile of the recent
+ * latencies and usually completes with the duplicate instead.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.eigr.spawn.test.benchmarks.HedgedInvocationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class HedgedInvocationBenchmark {
+    private static final String SYSTEM = "spawn-system-benchmark";
+
+    @Param({"false", "true"})
+    public boolean hedging;
+
+    private StandInProxy proxy;
+    private ActorRef joeActor;
+    private Request request;
+    private InvocationOpts opts;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        proxy = StandInProxy.acknowledging()
+                .withLatency(Duration.ofMillis(2))
+                .withTailLatency(0.02, Duration.ofMillis(50))
+                .listenOnPort(0);
+
+        TransportOpts.TransportOptsBuilder transport = TransportOpts.builder().proxyPort(proxy.port());
+        if (hedging) {
+            transport.retries(RetryOpts.builder().build());
+        }
+
+        Spawn spawn = new Spawn.SpawnSystem()
+                .create(SYSTEM)
+                .withActor(JoeActor.class)
+                .withTransportOptions(transport.build())
+                .build();
+
+        joeActor = spawn.createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+        request = Request.newBuilder().setLanguage("Java").build();
+        opts = InvocationOpts.builder().idempotent(true).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        proxy.close();
+    }
+
+    @Benchmark
+    public Optional<Reply> invoke() throws Exception {
+        return joeActor.invoke("SetLanguage", request, Reply.class, opts);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HedgedInvocationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,146 @@
+package io.eigr.spawn.test.benchmarks;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.protobuf.Any;
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.ActorRef;
+import io.eigr.spawn.api.InvocationOpts;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.internal.transport.client.SpawnClient;
+import io.eigr.spawn.test.actors.JoeActor;
+import io.eigr.spawn.test.transport.StandInProxy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation cost of a synchronous {@link ActorRef#invoke}, read through the {@code gc.alloc.rate.norm} metric
+ * of the GC profiler (bytes allocated per invocation), which {@link #main(String[])} enables.
+ * <p>
+ * In {@code stub} mode the ActorRef talks to an in-memory client answering a canned response, isolating the
+ * cost of building the request and handling the response. In {@code http} mode it goes through
+ * {@code OkHttpSpawnClient} to a local stand-in proxy that acknowledges every invocation.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.eigr.spawn.test.benchmarks.InvocationAllocationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvocationAllocationBenchmark {
+    private static final String SYSTEM = "spawn-system-benchmark";
+
+    @Param({"stub", "http"})
+    public String mode;
+
+    private StandInProxy proxy;
+    private ActorRef joeActor;
+    private Request request;
+    private InvocationOpts opts;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        request = Request.newBuilder().setLanguage("Java").build();
+        opts = InvocationOpts.builder().timeoutSeconds(Duration.ofSeconds(5)).build();
+
+        if ("stub".equals(mode)) {
+            joeActor = newActorRef(new StubSpawnClient());
+            return;
+        }
+
+        proxy = StandInProxy.acknowledging().listenOnPort(0);
+        Spawn spawn = new Spawn.SpawnSystem()
+                .create(SYSTEM)
+                .withActor(JoeActor.class)
+                .withTransportOptions(TransportOpts.builder().proxyPort(proxy.port()).build())
+                .build();
+
+        joeActor = spawn.createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (proxy != null) {
+            proxy.close();
+        }
+    }
+
+    @Benchmark
+    public Optional<Reply> invoke() throws Exception {
+        return joeActor.invoke("SetLanguage", request, Reply.class);
+    }
+
+    @Benchmark
+    public Optional<Reply> invokeWithOpts() throws Exception {
+        return joeActor.invoke("SetLanguage", request, Reply.class, opts);
+    }
+
+    // Spawn always builds its own transport, so the stub has to be handed to the ActorRef factory directly.
+    private static ActorRef newActorRef(SpawnClient client) throws Exception {
+        Method of = ActorRef.class.getDeclaredMethod("of", SpawnClient.class,
+                Cache.class, ActorIdentity.class, Class.class);
+        of.setAccessible(true);
+        return (ActorRef) of.invoke(null, client, Caffeine.newBuilder().build(),
+                ActorIdentity.of(SYSTEM, "JoeActor"), JoeActor.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InvocationAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    private static final class StubSpawnClient implements SpawnClient {
+        private static final Protocol.InvocationResponse RESPONSE = Protocol.InvocationResponse.newBuilder()
+                .setStatus(Protocol.RequestStatus.newBuilder().setStatus(Protocol.Status.OK).build())
+                .setValue(Any.pack(Reply.newBuilder().setResponse("Hi Java. Hello From Java").build()))
+                .build();
+
+        @Override
+        public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) {
+            return RESPONSE;
+        }
+
+        @Override
+        public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+            return CompletableFuture.completedFuture(RESPONSE);
+        }
+
+        @Override
+        public void invokeAsync(Protocol.InvocationRequest request) {
+        }
+
+        @Override
+        public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.eigr.spawn.test.benchmarks;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.spawn.api.InvocationMetricsRecorder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording one invocation, from start to completion, in an {@link InvocationMetricsRecorder} shared by
+ * every benchmark thread. Run with the GC profiler, as {@link #main} does, and check that
+ * {@code gc.alloc.rate.norm} stays at zero bytes per operation.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.eigr.spawn.test.benchmarks.InvocationRecordingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class InvocationRecordingBenchmark {
+
+    private final InvocationMetricsRecorder recorder = new InvocationMetricsRecorder();
+
+    @Benchmark
+    public void record() {
+        recorder.invocationStarted("JoeActor", "SetLanguage", 128);
+        recorder.invocationQueued("JoeActor", "SetLanguage", 20_000);
+        recorder.invocationCompleted("JoeActor", "SetLanguage", Protocol.Status.OK, 1_500_000, 256);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InvocationRecordingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
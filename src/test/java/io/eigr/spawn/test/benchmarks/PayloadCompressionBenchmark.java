@@ -0,0 +1,93 @@
+package io.eigr.spawn.test.benchmarks;
+
+import com.google.protobuf.Any;
+import domain.actors.Reply;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.spawn.api.CompressionCodec;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.internal.transport.PayloadCompression;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of compressing an action response carrying an actor state of {@code stateSize} bytes, against the
+ * bytes it saves on the wire. The state is made of repetitive JSON-like records, as typical actor states are.
+ * <p>
+ * {@code encode} and {@code decode} measure each side of the exchange. The wire size of every combination is
+ * printed when the trial starts.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.eigr.spawn.test.benchmarks.PayloadCompressionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadCompressionBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    public int stateSize;
+
+    @Param({"none", "gzip"})
+    public String codec;
+
+    private PayloadCompression compression;
+    private Protocol.ActorInvocationResponse response;
+    private byte[] wire;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        TransportOpts.TransportOptsBuilder opts = TransportOpts.builder();
+        if ("gzip".equals(codec)) {
+            opts.compression(CompressionCodec.gzip(), 0);
+        }
+        compression = PayloadCompression.of(opts.build());
+
+        StringBuilder state = new StringBuilder(stateSize);
+        for (int i = 0; state.length() < stateSize; i++) {
+            state.append(String.format("{\"id\":%d,\"name\":\"user-%d\",\"active\":%b,\"score\":%d}%n",
+                    i, i, i % 3 == 0, (i * 7919) % 1000));
+        }
+        response = Protocol.ActorInvocationResponse.newBuilder()
+                .setActorName("JoeActor")
+                .setActorSystem("spawn-system-benchmark")
+                .setUpdatedContext(Protocol.Context.newBuilder()
+                        .setState(Any.pack(Reply.newBuilder().setResponse(state.substring(0, stateSize)).build())))
+                .build();
+
+        wire = encode();
+        System.out.printf("%n%s: %d bytes encoded, %d bytes on the wire%n", codec, response.getSerializedSize(), wire.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (!compression.isEnabled()) {
+            return response.toByteArray();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(response.getSerializedSize());
+        compression.writeCompressed(response, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public Protocol.ActorInvocationResponse decode() throws IOException {
+        String contentEncoding = compression.isEnabled() ? compression.encoding() : null;
+        return Protocol.ActorInvocationResponse.parseFrom(
+                compression.decode(new ByteArrayInputStream(wire), contentEncoding));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PayloadCompressionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package io.eigr.spawn.test.benchmarks;
+
+import com.google.protobuf.Any;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.functions.protocol.transport.SpawnProxyGrpc;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.internal.transport.client.GrpcSpawnClient;
+import io.eigr.spawn.internal.transport.client.OkHttpSpawnClient;
+import io.eigr.spawn.internal.transport.client.SpawnClient;
+import io.eigr.spawn.test.transport.StandInProxy;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synchronous invocation throughput against a local stand-in proxy, over the gRPC API and over HTTP/1.1.
+ * Each operation is one invocation acknowledged by the proxy, made from several threads at once.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.eigr.spawn.test.benchmarks.ProxyTransportBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ProxyTransportBenchmark {
+    private static final String SYSTEM = "spawn-system-benchmark";
+
+    @Param({"grpc", "http1"})
+    public String transport;
+
+    private StandInProxy httpProxy;
+    private Server grpcProxy;
+    private SpawnClient client;
+    private Protocol.InvocationRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        if ("grpc".equals(transport)) {
+            grpcProxy = NettyServerBuilder.forAddress(new InetSocketAddress("127.0.0.1", 0))
+                    .addService(new AnsweringGrpcProxy())
+                    .build()
+                    .start();
+            client = new GrpcSpawnClient(SYSTEM, TransportOpts.builder()
+                    .proxyProtocol(TransportOpts.ProxyProtocol.GRPC)
+                    .proxyPort(grpcProxy.getPort())
+                    .build());
+        } else {
+            httpProxy = StandInProxy.acknowledging().listenOnPort(0);
+            client = new OkHttpSpawnClient(SYSTEM, TransportOpts.builder().proxyPort(httpProxy.port()).build());
+        }
+
+        request = Protocol.InvocationRequest.newBuilder()
+                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM).build())
+                .setActor(ActorOuterClass.Actor.newBuilder()
+                        .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                        .build())
+                .setActionName("SetLanguage")
+                .setValue(Any.pack(Request.newBuilder().setLanguage("Java").build()))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.close();
+        if (grpcProxy != null) {
+            grpcProxy.shutdownNow().awaitTermination();
+        }
+        if (httpProxy != null) {
+            httpProxy.close();
+        }
+    }
+
+    @Benchmark
+    public Protocol.InvocationResponse invoke() throws Exception {
+        return client.invoke(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProxyTransportBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static final class AnsweringGrpcProxy extends SpawnProxyGrpc.SpawnProxyImplBase {
+        private static final Protocol.InvocationResponse RESPONSE = Protocol.InvocationResponse.newBuilder()
+                .setStatus(Protocol.RequestStatus.newBuilder().setStatus(Protocol.Status.OK).build())
+                .build();
+
+        @Override
+        public void invoke(Protocol.InvocationRequest request, StreamObserver<Protocol.InvocationResponse> observer) {
+            observer.onNext(RESPONSE);
+            observer.onCompleted();
+        }
+    }
+}
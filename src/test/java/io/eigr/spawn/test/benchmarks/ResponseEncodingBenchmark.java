@@ -0,0 +1,98 @@
+package io.eigr.spawn.test.benchmarks;
+
+import com.google.protobuf.Any;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.internal.transport.server.ActorServiceHandler;
+import io.eigr.spawn.internal.transport.server.ResponseEncoder;
+import io.eigr.spawn.test.actors.JoeActor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation cost of answering an action on the actions endpoint, read through the {@code gc.alloc.rate.norm}
+ * metric of the GC profiler (bytes allocated per operation), which {@link #main(String[])} enables.
+ * <p>
+ * {@code toByteArray} and {@code encoder} write the same {@link JoeActor} response to a discarding stream, the
+ * way the JDK HTTP server transport used to and the way it does now. {@code handleAndEncode} runs the action and
+ * builds its response as well, without any transport.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.eigr.spawn.test.benchmarks.ResponseEncodingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+    private static final String SYSTEM = "spawn-system-benchmark";
+
+    private final OutputStream out = OutputStream.nullOutputStream();
+
+    private MethodHandle handleInvocation;
+    private Protocol.ActorInvocation invocation;
+    private Protocol.ActorInvocationResponse response;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        Spawn spawn = new Spawn.SpawnSystem()
+                .create(SYSTEM)
+                .withActor(JoeActor.class)
+                .build();
+
+        // The handler is only reachable through the Spawn it serves.
+        Field handlerField = Spawn.class.getDeclaredField("handler");
+        handlerField.setAccessible(true);
+        Object handler = handlerField.get(spawn);
+        handleInvocation = MethodHandles.privateLookupIn(ActorServiceHandler.class, MethodHandles.lookup())
+                .findVirtual(ActorServiceHandler.class, "handleInvocation", MethodType.methodType(
+                        Protocol.ActorInvocationResponse.class, Protocol.ActorInvocation.class))
+                .bindTo(handler);
+
+        invocation = Protocol.ActorInvocation.newBuilder()
+                .setActor(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor"))
+                .setActionName("SetLanguage")
+                .setCurrentContext(Protocol.Context.newBuilder())
+                .setValue(Any.pack(Request.newBuilder().setLanguage("Java").build()))
+                .build();
+        response = (Protocol.ActorInvocationResponse) handleInvocation.invoke(invocation);
+    }
+
+    @Benchmark
+    public void toByteArray() throws IOException {
+        out.write(response.toByteArray());
+    }
+
+    @Benchmark
+    public void encoder() throws IOException {
+        ResponseEncoder.write(response, out);
+    }
+
+    @Benchmark
+    public void handleAndEncode() throws Throwable {
+        Protocol.ActorInvocationResponse handled = (Protocol.ActorInvocationResponse) handleInvocation.invokeExact(invocation);
+        ResponseEncoder.write(handled, out);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseEncodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,208 @@
+package io.eigr.spawn.test.transport;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import domain.actors.Reply;
+import domain.actors.Request;
+import domain.actors.State;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.ActorCacheOpts;
+import io.eigr.spawn.api.ActorCacheStats;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.api.actors.ActorContext;
+import io.eigr.spawn.test.actors.JoeActor;
+import io.eigr.spawn.test.actors.StatelessNamedActor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionDispatchTest {
+
+    private static final String SYSTEM = "spawn-system-dispatch-test";
+
+    private final OkHttpClient client = new OkHttpClient();
+    private final SpawnFixture fixture = new SpawnFixture(SYSTEM);
+    private Spawn spawnSystem;
+
+    @BeforeEach
+    public void before() throws Exception {
+        spawnSystem = fixture.start(StandInProxy.acknowledging(), TransportOpts.builder(), system -> system
+                .withActor(JoeActor.class)
+                .withActor(StatelessNamedActor.class)
+                .withActorCacheOptions(ActorCacheOpts.builder()
+                        .maximumWeight(100, (actorName, behavior) -> behavior.getActions().size())
+                        .build()));
+    }
+
+    @AfterEach
+    public void after() {
+        fixture.close();
+    }
+
+    @Test
+    void testActorNamesAreMatchedIgnoringCase() throws Exception {
+        try (Response response = postInvocation(actorId("joeactor", ""), "SetLanguage", request())) {
+            assertEquals(200, response.code());
+            assertEquals("Hi Java. Hello From Java", replyOf(response).getResponse());
+        }
+    }
+
+    @Test
+    void testSpawnedActorsAreMatchedThroughTheirParent() throws Exception {
+        try (Response response = postInvocation(actorId("joe-1", "JoeActor"), "SetLanguage", request())) {
+            assertEquals(200, response.code());
+            assertEquals("Hi Java. Hello From Java", replyOf(response).getResponse());
+        }
+    }
+
+    @Test
+    void testUnknownActionsAndArgumentsOfAnotherTypeAreRejected() throws Exception {
+        try (Response response = postInvocation(actorId("JoeActor", ""), "Unknown", request())) {
+            assertEquals(500, response.code());
+            Protocol.RequestStatus status = Protocol.RequestStatus.parseFrom(response.body().byteStream());
+            assertEquals(Protocol.Status.ERROR, status.getStatus());
+            assertTrue(status.getMessage().startsWith("Action Unknown of Actor JoeActor failed"), status.getMessage());
+        }
+        try (Response response = postInvocation(actorId("JoeActor", ""), "SetLanguage",
+                Reply.newBuilder().setResponse("Java").build())) {
+            assertEquals(500, response.code());
+            assertEquals(Protocol.Status.ERROR, Protocol.RequestStatus.parseFrom(response.body().byteStream()).getStatus());
+        }
+        try (Response response = postInvocation(actorId("NobodyActor", ""), "SetLanguage", request())) {
+            assertEquals(500, response.code());
+            assertEquals(Protocol.Status.ACTOR_NOT_FOUND,
+                    Protocol.RequestStatus.parseFrom(response.body().byteStream()).getStatus());
+        }
+    }
+
+    @Test
+    void testStateIsOnlyDecodedWhenTheActionReadsIt() throws Exception {
+        // SetLanguage never reads the state, so a state that cannot be decoded goes unnoticed.
+        Any corruptState = Any.newBuilder()
+                .setTypeUrl("type.googleapis.com/" + State.getDescriptor().getFullName())
+                .setValue(ByteString.copyFrom(new byte[]{(byte) 0xff, (byte) 0xff}))
+                .build();
+        try (Response response = postInvocation(actorId("JoeActor", ""), "SetLanguage", request(), corruptState)) {
+            assertEquals(200, response.code());
+        }
+
+        AtomicInteger decoded = new AtomicInteger();
+        ActorContext<State> context = ActorContext.withLazyState(null, () -> {
+            decoded.incrementAndGet();
+            return State.newBuilder().addLanguages("Java").build();
+        });
+        assertEquals(0, decoded.get());
+        assertEquals("Java", context.getState().get().getLanguages(0));
+        assertEquals("Java", context.getState().get().getLanguages(0));
+        assertEquals(1, decoded.get());
+    }
+
+    @Test
+    void testUnchangedStateIsAnsweredWithTheBytesItWasSentWith() throws Exception {
+        // An unknown field ahead of the known ones: encoding the decoded state again would move it after them.
+        ByteString stateBytes = ByteString.copyFrom(new byte[]{(byte) 0x78, 0x01})
+                .concat(State.newBuilder().addLanguages("Erlang").build().toByteString());
+        Any state = Any.newBuilder()
+                .setTypeUrl("type.googleapis.com/" + State.getDescriptor().getFullName())
+                .setValue(stateBytes)
+                .build();
+
+        // A read-only action need not return the state, while a plain one must return the object it was given.
+        for (String action : new String[]{"GetLanguages", "KeepLanguages"}) {
+            try (Response response = postInvocation(actorId("JoeActor", ""), action, request(), state)) {
+                Protocol.ActorInvocationResponse invocationResponse =
+                        Protocol.ActorInvocationResponse.parseFrom(response.body().byteStream());
+                assertEquals("Erlang", invocationResponse.getValue().unpack(Reply.class).getResponse());
+                assertEquals(stateBytes, invocationResponse.getUpdatedContext().getState().getValue());
+            }
+        }
+
+        try (Response response = postInvocation(actorId("JoeActor", ""), "SetLanguage", request(), state)) {
+            Any updated = Protocol.ActorInvocationResponse.parseFrom(response.body().byteStream())
+                    .getUpdatedContext().getState();
+            assertEquals("Java", updated.unpack(State.class).getLanguages(0));
+        }
+
+        // The same action registered read-only cannot change the state.
+        try (Response response = postInvocation(actorId("JoeActor", ""), "MisreadLanguage", request(), state)) {
+            Protocol.ActorInvocationResponse invocationResponse =
+                    Protocol.ActorInvocationResponse.parseFrom(response.body().byteStream());
+            assertEquals("Hi Java. Hello From Java", invocationResponse.getValue().unpack(Reply.class).getResponse());
+            assertEquals(stateBytes, invocationResponse.getUpdatedContext().getState().getValue());
+        }
+    }
+
+    @Test
+    void testActorInstancesAreReusedFromTheCache() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            try (Response response = postInvocation(actorId("JoeActor", ""), "SetLanguage", request())) {
+                assertEquals(200, response.code());
+            }
+        }
+
+        ActorCacheStats stats = spawnSystem.getActorCacheStats();
+        assertEquals(1, stats.getMissCount());
+        assertEquals(2, stats.getHitCount());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void testStatelessActorsShareOneInstanceOutsideTheCache() throws Exception {
+        for (String name : new String[]{"StatelessNamedActor", "stateless-1", "stateless-2"}) {
+            try (Response response = postInvocation(actorId(name, "StatelessNamedActor"), "SetLanguage", request())) {
+                assertEquals(200, response.code());
+                assertEquals("Hi Java. Hello From Java", replyOf(response).getResponse());
+            }
+        }
+
+        ActorCacheStats stats = spawnSystem.getActorCacheStats();
+        assertEquals(0, stats.getMissCount());
+        assertEquals(0, stats.getHitCount());
+    }
+
+    private static ActorOuterClass.ActorId actorId(String name, String parent) {
+        return ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName(name).setParent(parent).build();
+    }
+
+    private static Request request() {
+        return Request.newBuilder().setLanguage("Java").build();
+    }
+
+    private Response postInvocation(ActorOuterClass.ActorId actorId, String action, Message argument) throws Exception {
+        return postInvocation(actorId, action, argument, null);
+    }
+
+    private Response postInvocation(ActorOuterClass.ActorId actorId, String action, Message argument, Any state)
+            throws Exception {
+        Protocol.Context.Builder context = Protocol.Context.newBuilder();
+        if (state != null) {
+            context.setState(state);
+        }
+        Protocol.ActorInvocation invocation = Protocol.ActorInvocation.newBuilder()
+                .setActor(actorId)
+                .setActionName(action)
+                .setCurrentContext(context)
+                .setValue(Any.pack(argument))
+                .build();
+
+        return client.newCall(new okhttp3.Request.Builder()
+                .url(String.format("http://127.0.0.1:%d/api/v1/actors/actions", fixture.sdkPort()))
+                .post(RequestBody.create(invocation.toByteArray(), MediaType.parse("application/octet-stream")))
+                .build()).execute();
+    }
+
+    private static Reply replyOf(Response response) throws Exception {
+        return Protocol.ActorInvocationResponse.parseFrom(response.body().byteStream()).getValue().unpack(Reply.class);
+    }
+}
@@ -0,0 +1,205 @@
+package io.eigr.spawn.test.transport;
+
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.internal.transport.server.ActorAffinityExecutor;
+import io.eigr.spawn.test.actors.ThreadRecordingActor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActorAffinityTest {
+
+    private static final String SYSTEM = "spawn-system-affinity-test";
+
+    private final SpawnFixture fixture = new SpawnFixture(SYSTEM);
+
+    @AfterEach
+    public void after() {
+        fixture.close();
+    }
+
+    @Test
+    void testTasksOfAnActorRunInOrderOnOneStripe() throws Exception {
+        ActorAffinityExecutor executor = new ActorAffinityExecutor(4, Executors.newCachedThreadPool());
+        try {
+            ActorOuterClass.ActorId joe = actorId("joe");
+            assertEquals(executor.stripeOf(joe), executor.stripeOf(actorId("joe")));
+
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+            CountDownLatch done = new CountDownLatch(100);
+            for (int i = 0; i < 100; i++) {
+                int task = i;
+                executor.execute(joe, () -> {
+                    order.add(task);
+                    threads.add(Thread.currentThread().getName());
+                    done.countDown();
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, order.get(i));
+            }
+            assertEquals(Set.of("spawn-action-stripe-" + executor.stripeOf(joe)), threads);
+            assertEquals(4, executor.queueDepths().size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testTasksOfAnActorStayInOrderWhileTheirStripeAwaitsAReply() throws Exception {
+        ExecutorService overflow = Executors.newCachedThreadPool();
+        ActorAffinityExecutor executor = new ActorAffinityExecutor(4, overflow);
+        try {
+            ActorOuterClass.ActorId waiting = actorId("waiting");
+            ActorOuterClass.ActorId neighbour = actorId("neighbour-0");
+            for (int i = 1; executor.stripeOf(neighbour) != executor.stripeOf(waiting); i++) {
+                neighbour = actorId("neighbour-" + i);
+            }
+
+            CountDownLatch awaiting = new CountDownLatch(1);
+            CountDownLatch reply = new CountDownLatch(1);
+            executor.execute(waiting, () -> {
+                Runnable replied = executor.awaitingReply();
+                awaiting.countDown();
+                try {
+                    reply.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    replied.run();
+                }
+            });
+            assertTrue(awaiting.await(5, TimeUnit.SECONDS));
+
+            List<List<Integer>> orders = List.of(
+                    Collections.synchronizedList(new ArrayList<>()), Collections.synchronizedList(new ArrayList<>()));
+            List<AtomicInteger> running = List.of(new AtomicInteger(), new AtomicInteger());
+            AtomicInteger overlaps = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(200);
+            for (int i = 0; i < 200; i++) {
+                int actor = i % 2;
+                int task = i / 2;
+                executor.execute(actor == 0 ? waiting : neighbour, () -> {
+                    if (running.get(actor).incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    Thread.yield();
+                    orders.get(actor).add(task);
+                    running.get(actor).decrementAndGet();
+                    done.countDown();
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            reply.countDown();
+            assertEquals(0, overlaps.get());
+            for (List<Integer> order : orders) {
+                for (int i = 0; i < 100; i++) {
+                    assertEquals(i, order.get(i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+            overflow.shutdown();
+        }
+    }
+
+    @Test
+    void testActorsAreSpreadAcrossStripes() {
+        ActorAffinityExecutor executor = new ActorAffinityExecutor(4, Executors.newCachedThreadPool());
+        try {
+            Set<Integer> stripes = new HashSet<>();
+            for (int i = 0; i < 100; i++) {
+                stripes.add(executor.stripeOf(actorId("actor-" + i)));
+            }
+            assertEquals(4, stripes.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testActionsRunOnActorStripes() throws Exception {
+        Spawn spawnSystem = startWithAffinity();
+
+        Optional<Reply> reply = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "ThreadRecordingActor"))
+                .invoke("RecordThread", Request.getDefaultInstance(), Reply.class);
+
+        assertEquals("spawn-action-stripe-" + stripeOf(actorId("ThreadRecordingActor")),
+                reply.get().getResponse());
+        assertEquals(List.of(0, 0, 0, 0), spawnSystem.getActorAffinityQueueDepths());
+    }
+
+    @Test
+    void testSynchronousSelfInvocationDoesNotWaitForItsOwnStripe() throws Exception {
+        Spawn spawnSystem = startWithAffinity();
+
+        Optional<Reply> reply = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "ThreadRecordingActor"))
+                .invokeFuture("InvokeSelf", Request.getDefaultInstance(), Reply.class)
+                .get(10, TimeUnit.SECONDS);
+
+        assertFalse(reply.get().getResponse().startsWith("spawn-action-stripe-"));
+        assertEquals(List.of(0, 0, 0, 0), spawnSystem.getActorAffinityQueueDepths());
+    }
+
+    @Test
+    void testJoinedSelfInvocationDoesNotWaitForItsOwnStripe() throws Exception {
+        Spawn spawnSystem = startWithAffinity();
+
+        Optional<Reply> reply = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "ThreadRecordingActor"))
+                .invokeFuture("JoinSelf", Request.getDefaultInstance(), Reply.class)
+                .get(10, TimeUnit.SECONDS);
+
+        assertFalse(reply.get().getResponse().startsWith("spawn-action-stripe-"));
+        assertEquals(List.of(0, 0, 0, 0), spawnSystem.getActorAffinityQueueDepths());
+    }
+
+    @Test
+    void testAffinityIsRejectedForTheJdkServer() {
+        assertThrows(IllegalArgumentException.class, () -> TransportOpts.builder()
+                .serverTransport(TransportOpts.ServerTransport.JDK_HTTP)
+                .actorAffinity(4)
+                .build());
+    }
+
+    private Spawn startWithAffinity() throws Exception {
+        return fixture.start(StandInProxy.forwardingOverTcp(), TransportOpts.builder()
+                        .serverTransport(TransportOpts.ServerTransport.NETTY)
+                        .actorAffinity(4),
+                system -> system.withActor(ThreadRecordingActor.class));
+    }
+
+    private static int stripeOf(ActorOuterClass.ActorId actorId) {
+        ActorAffinityExecutor executor = new ActorAffinityExecutor(4, Executors.newCachedThreadPool());
+        try {
+            return executor.stripeOf(actorId);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ActorOuterClass.ActorId actorId(String name) {
+        return ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName(name).build();
+    }
+}
@@ -0,0 +1,179 @@
+package io.eigr.spawn.test.transport;
+
+import com.google.protobuf.Any;
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.ActorRef;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.test.actors.JoeActor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActorServerTransportTest {
+
+    private static final String SYSTEM = "spawn-system-server-transport-test";
+
+    private final SpawnFixture fixture = new SpawnFixture(SYSTEM);
+
+    @AfterEach
+    public void after() {
+        fixture.close();
+    }
+
+    @Test
+    void testNettyServerAnswersHttp1AndHttp2() throws Exception {
+        Spawn spawn = start(TransportOpts.ServerTransport.NETTY);
+
+        ActorRef joeActor = spawn.createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+        Optional<Reply> reply = joeActor.invoke("SetLanguage", Request.newBuilder().setLanguage("Erlang").build(), Reply.class);
+        assertEquals("Hi Erlang. Hello From Java", reply.get().getResponse());
+
+        OkHttpClient h2c = new OkHttpClient.Builder()
+                .protocols(Collections.singletonList(okhttp3.Protocol.H2_PRIOR_KNOWLEDGE))
+                .build();
+        try (Response response = postInvocation(h2c)) {
+            assertEquals(okhttp3.Protocol.H2_PRIOR_KNOWLEDGE, response.protocol());
+            assertEquals("Hi Elixir. Hello From Java", replyOf(response).getResponse());
+        }
+    }
+
+    @Test
+    void testNettyServerMatchesTheActionsPathIgnoringTheQuery() throws Exception {
+        start(TransportOpts.ServerTransport.NETTY);
+
+        OkHttpClient client = new OkHttpClient();
+        for (String path : new String[]{"/api/v1/actors/actions?trace=1", "/api/v1/actors/actions/"}) {
+            try (Response response = postInvocation(client, "SetLanguage", path)) {
+                assertEquals(200, response.code());
+                assertEquals("Hi Elixir. Hello From Java", replyOf(response).getResponse());
+            }
+        }
+        try (Response response = postInvocation(client, "SetLanguage", "/api/v1/actors")) {
+            assertEquals(404, response.code());
+        }
+    }
+
+    @Test
+    void testJdkServerIsTheDefault() throws Exception {
+        assertEquals(TransportOpts.ServerTransport.JDK_HTTP, TransportOpts.builder().build().getServerTransport());
+        start(TransportOpts.ServerTransport.JDK_HTTP);
+
+        try (Response response = postInvocation(new OkHttpClient())) {
+            assertEquals(okhttp3.Protocol.HTTP_1_1, response.protocol());
+            assertEquals("Hi Elixir. Hello From Java", replyOf(response).getResponse());
+        }
+    }
+
+    @Test
+    void testNettyServerKeepsTheConnectionAfterAFailedAction() throws Exception {
+        start(TransportOpts.ServerTransport.NETTY);
+        assertFailedActionsKeepTheConnection();
+    }
+
+    @Test
+    void testJdkServerKeepsTheConnectionAfterAFailedAction() throws Exception {
+        start(TransportOpts.ServerTransport.JDK_HTTP);
+        assertFailedActionsKeepTheConnection();
+    }
+
+    @Test
+    void testNettyServerRejectsACorruptCompressedInvocation() throws Exception {
+        start(TransportOpts.ServerTransport.NETTY);
+        assertCorruptCompressedInvocationsAreRejected();
+    }
+
+    @Test
+    void testNettyServerWithAffinityRejectsACorruptCompressedInvocation() throws Exception {
+        fixture.start(StandInProxy.forwardingOverTcp(), TransportOpts.builder()
+                        .serverTransport(TransportOpts.ServerTransport.NETTY)
+                        .actorAffinity(2),
+                system -> system.withActor(JoeActor.class));
+        assertCorruptCompressedInvocationsAreRejected();
+    }
+
+    @Test
+    void testJdkServerRejectsACorruptCompressedInvocation() throws Exception {
+        start(TransportOpts.ServerTransport.JDK_HTTP);
+        assertCorruptCompressedInvocationsAreRejected();
+    }
+
+    private void assertCorruptCompressedInvocationsAreRejected() throws Exception {
+        OkHttpClient client = new OkHttpClient();
+        for (String contentEncoding : new String[]{"gzip", "br"}) {
+            try (Response response = client.newCall(new okhttp3.Request.Builder()
+                    .url(String.format("http://127.0.0.1:%d/api/v1/actors/actions", fixture.sdkPort()))
+                    .header("Content-Encoding", contentEncoding)
+                    .post(RequestBody.create(new byte[]{1, 2, 3, 4, 5, 6, 7, 8},
+                            MediaType.parse("application/octet-stream")))
+                    .build()).execute()) {
+                assertEquals(500, response.code());
+                Protocol.RequestStatus status = Protocol.RequestStatus.parseFrom(response.body().byteStream());
+                assertEquals(Protocol.Status.ERROR, status.getStatus());
+                assertTrue(status.getMessage().startsWith("Could not decode the invocation"));
+            }
+        }
+        try (Response response = postInvocation(client)) {
+            assertEquals("Hi Elixir. Hello From Java", replyOf(response).getResponse());
+        }
+        assertEquals(1, client.connectionPool().connectionCount());
+    }
+
+    private void assertFailedActionsKeepTheConnection() throws Exception {
+        OkHttpClient client = new OkHttpClient();
+        for (int i = 0; i < 2; i++) {
+            try (Response response = postInvocation(client, "Unknown")) {
+                assertEquals(500, response.code());
+                Protocol.RequestStatus status = Protocol.RequestStatus.parseFrom(response.body().byteStream());
+                assertEquals(Protocol.Status.ERROR, status.getStatus());
+            }
+        }
+        try (Response response = postInvocation(client)) {
+            assertEquals("Hi Elixir. Hello From Java", replyOf(response).getResponse());
+        }
+        assertEquals(1, client.connectionPool().connectionCount());
+    }
+
+    private Spawn start(TransportOpts.ServerTransport serverTransport) throws Exception {
+        return fixture.start(StandInProxy.forwardingOverTcp(), TransportOpts.builder().serverTransport(serverTransport),
+                system -> system.withActor(JoeActor.class));
+    }
+
+    private Response postInvocation(OkHttpClient client) throws Exception {
+        return postInvocation(client, "SetLanguage");
+    }
+
+    private Response postInvocation(OkHttpClient client, String action) throws Exception {
+        return postInvocation(client, action, "/api/v1/actors/actions");
+    }
+
+    private Response postInvocation(OkHttpClient client, String action, String path) throws Exception {
+        Protocol.ActorInvocation invocation = Protocol.ActorInvocation.newBuilder()
+                .setActor(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                .setActionName(action)
+                .setCurrentContext(Protocol.Context.newBuilder())
+                .setValue(Any.pack(Request.newBuilder().setLanguage("Elixir").build()))
+                .build();
+
+        return client.newCall(new okhttp3.Request.Builder()
+                .url(String.format("http://127.0.0.1:%d%s", fixture.sdkPort(), path))
+                .post(RequestBody.create(invocation.toByteArray(), MediaType.parse("application/octet-stream")))
+                .build()).execute();
+    }
+
+    private static Reply replyOf(Response response) throws Exception {
+        return Protocol.ActorInvocationResponse.parseFrom(response.body().byteStream()).getValue().unpack(Reply.class);
+    }
+}
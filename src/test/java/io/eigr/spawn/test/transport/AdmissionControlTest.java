@@ -0,0 +1,130 @@
+package io.eigr.spawn.test.transport;
+
+import com.google.protobuf.Any;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.ActionAdmissionStats;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.test.actors.JoeActor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private static final String SYSTEM = "spawn-system-admission-test";
+    private static final Duration MAX_QUEUE_TIME = Duration.ofMillis(100);
+
+    private final OkHttpClient client = new OkHttpClient();
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final SpawnFixture fixture = new SpawnFixture(SYSTEM);
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void before() {
+        // A single worker, busy until the test lets it go, so that requests queue behind it.
+        executor = Executors.newSingleThreadExecutor();
+        executor.execute(() -> {
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        unblock.countDown();
+        fixture.close();
+        executor.shutdown();
+    }
+
+    @Test
+    void testRequestsOverTheConcurrencyLimitOrQueueTimeAreShed() throws Exception {
+        Spawn spawnSystem = start(TransportOpts.ServerTransport.NETTY);
+
+        CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(this::postInvocation);
+        awaitInFlight(spawnSystem, 1);
+
+        assertEquals(503, postInvocation());
+        assertEquals(1, spawnSystem.getActionAdmissionStats().getShedOverConcurrency());
+
+        Thread.sleep(MAX_QUEUE_TIME.toMillis() * 2);
+        unblock.countDown();
+        assertEquals(503, queued.get(5, TimeUnit.SECONDS));
+        assertEquals(200, postInvocation());
+
+        ActionAdmissionStats stats = spawnSystem.getActionAdmissionStats();
+        assertEquals(1, stats.getShedOverQueueTime());
+        assertEquals(2, stats.getShed());
+        assertEquals(1, stats.getAdmitted());
+        // The slot is released once the response is written, which may be after the client has read it.
+        awaitInFlight(spawnSystem, 0);
+    }
+
+    @Test
+    void testJdkServerShedsRequestsOverTheQueueTime() throws Exception {
+        Spawn spawnSystem = start(TransportOpts.ServerTransport.JDK_HTTP);
+
+        CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(this::postInvocation);
+        Thread.sleep(MAX_QUEUE_TIME.toMillis() * 2);
+        unblock.countDown();
+
+        assertEquals(503, queued.get(5, TimeUnit.SECONDS));
+        assertEquals(200, postInvocation());
+
+        ActionAdmissionStats stats = spawnSystem.getActionAdmissionStats();
+        assertEquals(1, stats.getShedOverQueueTime());
+        assertEquals(1, stats.getAdmitted());
+    }
+
+    private Spawn start(TransportOpts.ServerTransport serverTransport) throws Exception {
+        return fixture.start(StandInProxy.acknowledging(), TransportOpts.builder()
+                        .serverTransport(serverTransport)
+                        .executor(executor)
+                        .admissionControl(1, MAX_QUEUE_TIME),
+                system -> system.withActor(JoeActor.class));
+    }
+
+    private static void awaitInFlight(Spawn spawnSystem, int inFlight) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (spawnSystem.getActionAdmissionStats().getInFlight() != inFlight && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(inFlight, spawnSystem.getActionAdmissionStats().getInFlight());
+    }
+
+    private int postInvocation() {
+        Protocol.ActorInvocation invocation = Protocol.ActorInvocation.newBuilder()
+                .setActor(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor"))
+                .setActionName("SetLanguage")
+                .setCurrentContext(Protocol.Context.newBuilder())
+                .setValue(Any.pack(Request.newBuilder().setLanguage("Java").build()))
+                .build();
+
+        try (Response response = client.newCall(new okhttp3.Request.Builder()
+                .url(String.format("http://127.0.0.1:%d/api/v1/actors/actions", fixture.sdkPort()))
+                .post(RequestBody.create(invocation.toByteArray(), MediaType.parse("application/octet-stream")))
+                .build()).execute()) {
+            return response.code();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
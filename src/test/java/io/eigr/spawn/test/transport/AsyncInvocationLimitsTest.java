@@ -0,0 +1,176 @@
+package io.eigr.spawn.test.transport;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.api.exceptions.AsyncInvocationRejectedException;
+import io.eigr.spawn.internal.transport.client.OkHttpSpawnClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncInvocationLimitsTest {
+
+    private static final String SYSTEM = "spawn-system-async-limits-test";
+    private static final Duration LATENCY = Duration.ofMillis(300);
+
+    private final List<String> failedActions = new CopyOnWriteArrayList<>();
+    private StandInProxy proxy;
+
+    @BeforeEach
+    public void before() throws Exception {
+        proxy = StandInProxy.acknowledging().withLatency(LATENCY).listenOnPort(0);
+    }
+
+    @AfterEach
+    public void after() {
+        proxy.close();
+    }
+
+    @Test
+    void testRejectsOnceInFlightAndQueueAreFull() throws Exception {
+        OkHttpSpawnClient client = newClient(TransportOpts.AsyncOverflowPolicy.REJECT);
+
+        client.invokeAsync(invocation("First"));
+        client.invokeAsync(invocation("Second"));
+        assertThrows(AsyncInvocationRejectedException.class, () -> client.invokeAsync(invocation("Third")));
+
+        AsyncInvocationMetrics metrics = client.asyncInvocationMetrics().get();
+        assertEquals(1, metrics.getInFlight());
+        assertEquals(1, metrics.getQueued());
+        assertEquals(1, metrics.getRejected());
+
+        awaitInvocations(2);
+        awaitDrained(client);
+    }
+
+    @Test
+    void testDropsOldestQueuedInvocation() throws Exception {
+        OkHttpSpawnClient client = newClient(TransportOpts.AsyncOverflowPolicy.DROP_OLDEST);
+
+        client.invokeAsync(invocation("First"));
+        client.invokeAsync(invocation("Second"));
+        client.invokeAsync(invocation("Third"));
+
+        assertEquals(List.of("Second"), failedActions);
+        assertEquals(1, client.asyncInvocationMetrics().get().getDropped());
+        awaitInvocations(2);
+    }
+
+    @Test
+    void testCallerRunsInvocationItself() throws Exception {
+        OkHttpSpawnClient client = newClient(TransportOpts.AsyncOverflowPolicy.CALLER_RUNS);
+
+        client.invokeAsync(invocation("First"));
+        client.invokeAsync(invocation("Second"));
+        long start = System.nanoTime();
+        client.invokeAsync(invocation("Third"));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(LATENCY) >= 0);
+        assertEquals(1, client.asyncInvocationMetrics().get().getCallerRuns());
+        awaitInvocations(3);
+    }
+
+    @Test
+    void testBlocksUntilThereIsRoom() throws Exception {
+        OkHttpSpawnClient client = newClient(TransportOpts.AsyncOverflowPolicy.BLOCK);
+
+        client.invokeAsync(invocation("First"));
+        client.invokeAsync(invocation("Second"));
+        long start = System.nanoTime();
+        client.invokeAsync(invocation("Third"));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(LATENCY.dividedBy(2)) >= 0);
+        awaitInvocations(3);
+        awaitDrained(client);
+    }
+
+    @Test
+    void testRunsMoreThanFiveInvocationsConcurrentlyOverHttp1() throws Exception {
+        OkHttpSpawnClient client = new OkHttpSpawnClient(SYSTEM, TransportOpts.builder()
+                .proxyPort(proxy.port())
+                .proxyProtocol(TransportOpts.ProxyProtocol.HTTP_1_1)
+                .build());
+        client.invokeAsyncWithResult(invocation("Warmup")).get(5, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Protocol.InvocationResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            futures.add(client.invokeAsyncWithResult(invocation("Concurrent-" + i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        // Five at a time, the thirty invocations would take at least six times the latency.
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(LATENCY.multipliedBy(3)) < 0);
+        assertEquals(31, proxy.invocations());
+    }
+
+    @Test
+    void testReportsFailuresToHandler() throws Exception {
+        int port;
+        try (ServerSocket unused = new ServerSocket(0)) {
+            port = unused.getLocalPort();
+        }
+        OkHttpSpawnClient client = new OkHttpSpawnClient(SYSTEM, TransportOpts.builder()
+                .proxyPort(port)
+                .asyncFailureHandler((actorName, actionName, cause) -> failedActions.add(actionName))
+                .build());
+
+        client.invokeAsync(invocation("First"));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (failedActions.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of("First"), failedActions);
+        assertEquals(1, client.asyncInvocationMetrics().get().getFailed());
+    }
+
+    private OkHttpSpawnClient newClient(TransportOpts.AsyncOverflowPolicy policy) {
+        return new OkHttpSpawnClient(SYSTEM, TransportOpts.builder()
+                .proxyPort(proxy.port())
+                .asyncInvocationLimits(1, 1, policy)
+                .asyncFailureHandler((actorName, actionName, cause) -> failedActions.add(actionName))
+                .build());
+    }
+
+    private void awaitInvocations(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (proxy.invocations() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, proxy.invocations());
+    }
+
+    private static void awaitDrained(OkHttpSpawnClient client) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (client.asyncInvocationMetrics().get().getInFlight() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        AsyncInvocationMetrics metrics = client.asyncInvocationMetrics().get();
+        assertEquals(0, metrics.getInFlight());
+        assertEquals(0, metrics.getQueued());
+    }
+
+    private static Protocol.InvocationRequest invocation(String action) {
+        return Protocol.InvocationRequest.newBuilder()
+                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM).build())
+                .setActor(ActorOuterClass.Actor.newBuilder()
+                        .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                        .build())
+                .setActionName(action)
+                .setAsync(true)
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package io.eigr.spawn.test.transport;
+
+import com.google.protobuf.Any;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.api.exceptions.AsyncInvocationRejectedException;
+import io.eigr.spawn.internal.transport.client.BatchingSpawnClient;
+import io.eigr.spawn.internal.transport.client.OkHttpSpawnClient;
+import io.eigr.spawn.internal.transport.client.SpawnClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class BatchingSpawnClientTest {
+
+    private static final String SYSTEM = "spawn-system-test";
+
+    private StandInProxy proxy;
+    private BatchingSpawnClient client;
+
+    @BeforeEach
+    public void before() throws Exception {
+        proxy = StandInProxy.acknowledging().listenOnPort(0);
+        client = new BatchingSpawnClient(
+                new OkHttpSpawnClient(SYSTEM, TransportOpts.builder().proxyPort(proxy.port()).build()),
+                10,
+                Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    public void after() {
+        proxy.close();
+    }
+
+    @Test
+    void testFlushesOnSizeAndOnWindow() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            client.invokeAsync(invocation(i));
+        }
+
+        // Two full batches are sent right away, the remaining five once the window elapses.
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (proxy.invocations() < 25) {
+                Thread.sleep(10);
+            }
+        });
+        assertEquals(3, proxy.batches());
+    }
+
+    @Test
+    void testExplicitFlush() throws Exception {
+        client.invokeAsync(invocation(1));
+        client.flush();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (proxy.invocations() < 1) {
+                Thread.sleep(10);
+            }
+        });
+        assertEquals(1, proxy.batches());
+    }
+
+    @Test
+    void testShutdownWaitsForTheLastBatch() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            client.invokeAsync(invocation(i));
+        }
+        client.shutdown(Duration.ofSeconds(5));
+
+        assertEquals(3, proxy.invocations());
+        assertEquals(1, proxy.batches());
+
+        // Past shutdown there is no window left to wait for.
+        client.invokeAsync(invocation(3));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            while (proxy.invocations() < 4) {
+                Thread.sleep(10);
+            }
+        });
+    }
+
+    @Test
+    void testBatchedInvocationsHoldAsyncPermits() throws Exception {
+        proxy.withLatency(Duration.ofMillis(300));
+        BatchingSpawnClient bounded = new BatchingSpawnClient(
+                new OkHttpSpawnClient(SYSTEM, TransportOpts.builder().proxyPort(proxy.port()).build()),
+                TransportOpts.builder()
+                        .asyncBatching(10, Duration.ofMillis(20))
+                        .asyncInvocationLimits(3, 2, TransportOpts.AsyncOverflowPolicy.REJECT)
+                        .build(),
+                Duration.ofSeconds(5));
+
+        for (int i = 0; i < 5; i++) {
+            bounded.invokeAsync(invocation(i));
+        }
+        assertThrows(AsyncInvocationRejectedException.class, () -> bounded.invokeAsync(invocation(5)));
+        AsyncInvocationMetrics held = bounded.asyncInvocationMetrics().get();
+        assertEquals(3, held.getInFlight());
+        assertEquals(2, held.getQueued());
+        assertEquals(1, held.getRejected());
+
+        // The two queued invocations are batched once the first batch is answered.
+        bounded.shutdown(Duration.ofSeconds(5));
+        assertEquals(5, proxy.invocations());
+        assertEquals(2, proxy.batches());
+        AsyncInvocationMetrics released = bounded.asyncInvocationMetrics().get();
+        assertEquals(0, released.getInFlight());
+        assertEquals(0, released.getQueued());
+    }
+
+    @Test
+    void testInvocationsWithoutStatusAreReportedAsFailures() throws Exception {
+        List<String> failedActions = new CopyOnWriteArrayList<>();
+        BatchingSpawnClient unanswered = new BatchingSpawnClient(new StatuslessSpawnClient(),
+                TransportOpts.builder()
+                        .asyncBatching(3, Duration.ofMillis(20))
+                        .asyncFailureHandler((actorName, actionName, cause) -> failedActions.add(actionName))
+                        .build(),
+                Duration.ofSeconds(5));
+
+        for (int i = 0; i < 3; i++) {
+            unanswered.invokeAsync(invocation(i));
+        }
+        unanswered.shutdown(Duration.ofSeconds(5));
+
+        assertEquals(List.of("SetLanguage", "SetLanguage"), failedActions);
+        assertEquals(2, unanswered.asyncInvocationMetrics().get().getFailed());
+    }
+
+    @Test
+    void testBatchingOptionsAreValidated() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TransportOpts.builder().asyncBatching(10, Duration.ZERO).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> TransportOpts.builder().asyncBatching(10, Duration.ofMillis(-1)).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> TransportOpts.builder().asyncBatching(0, Duration.ofMillis(5)).build());
+    }
+
+    private static Protocol.InvocationRequest invocation(int index) {
+        return Protocol.InvocationRequest.newBuilder()
+                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM).build())
+                .setActor(ActorOuterClass.Actor.newBuilder()
+                        .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                        .build())
+                .setActionName("SetLanguage")
+                .setAsync(true)
+                .setValue(Any.pack(Request.newBuilder().setLanguage("Java " + index).build()))
+                .build();
+    }
+
+    /**
+     * Answers batches with a single OK status, however many invocations they hold.
+     */
+    private static final class StatuslessSpawnClient implements SpawnClient {
+
+        @Override
+        public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void invokeAsync(Protocol.InvocationRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+            return CompletableFuture.completedFuture(ProxyTransport.InvocationBatchResponse.newBuilder()
+                    .addStatuses(Protocol.RequestStatus.newBuilder().setStatus(Protocol.Status.OK))
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package io.eigr.spawn.test.transport;
+
+import com.google.protobuf.Any;
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.functions.protocol.transport.SpawnProxyGrpc;
+import io.eigr.spawn.api.AsyncInvocationMetrics;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationTimeoutException;
+import io.eigr.spawn.api.exceptions.AsyncInvocationRejectedException;
+import io.eigr.spawn.internal.transport.client.GrpcSpawnClient;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrpcSpawnClientTest {
+
+    private static final String SYSTEM = "spawn-system-test";
+    // Invocations of this language are never answered.
+    private static final String SILENCE = "Silence";
+
+    private String serverName;
+    private Server server;
+    private GrpcSpawnClient client;
+    private StandInProxy proxy;
+
+    @BeforeEach
+    public void before() throws Exception {
+        serverName = InProcessServerBuilder.generateName();
+        proxy = new StandInProxy();
+        server = InProcessServerBuilder.forName(serverName)
+                .directExecutor()
+                .addService(proxy)
+                .build()
+                .start();
+
+        client = new GrpcSpawnClient(SYSTEM, InProcessChannelBuilder.forName(serverName).directExecutor().build());
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        client.shutdown(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination();
+    }
+
+    @Test
+    void testRegister() throws Exception {
+        Protocol.RegistrationResponse response = client.register(Protocol.RegistrationRequest.newBuilder()
+                .setActorSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM).build())
+                .build());
+
+        assertEquals(Protocol.Status.OK, response.getStatus().getStatus());
+    }
+
+    @Test
+    void testInvoke() throws Exception {
+        Protocol.InvocationResponse response = client.invoke(invocation("Erlang"));
+
+        assertEquals(Protocol.Status.OK, response.getStatus().getStatus());
+        assertEquals("Hi Erlang", response.getValue().unpack(Reply.class).getResponse());
+    }
+
+    @Test
+    void testInvokeAsyncWithResult() throws Exception {
+        Protocol.InvocationResponse response = client.invokeAsyncWithResult(invocation("Elixir"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("Hi Elixir", response.getValue().unpack(Reply.class).getResponse());
+    }
+
+    @Test
+    void testInvokeAsyncSharesOneStream() throws Exception {
+        proxy.expectStreamed(100);
+        for (int i = 0; i < 100; i++) {
+            client.invokeAsync(invocation("Java"));
+        }
+
+        assertTrue(proxy.streamed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, proxy.openedStreams.get());
+    }
+
+    @Test
+    void testInvokeAsyncWaitsForTheStreamToBeReady() throws Exception {
+        GrpcSpawnClient bounded = new GrpcSpawnClient(SYSTEM,
+                InProcessChannelBuilder.forName(serverName).directExecutor().build(),
+                TransportOpts.builder()
+                        .asyncInvocationLimits(2, 3, TransportOpts.AsyncOverflowPolicy.REJECT)
+                        .build());
+        try {
+            proxy.holdStreams();
+            proxy.expectStreamed(5);
+            for (int i = 0; i < 5; i++) {
+                bounded.invokeAsync(invocation("Java"));
+            }
+            assertThrows(AsyncInvocationRejectedException.class, () -> bounded.invokeAsync(invocation("Java")));
+
+            AsyncInvocationMetrics held = bounded.asyncInvocationMetrics().get();
+            assertEquals(2, held.getInFlight());
+            assertEquals(3, held.getQueued());
+            assertEquals(1, held.getRejected());
+
+            proxy.releaseStreams();
+            assertTrue(proxy.streamed.await(5, TimeUnit.SECONDS));
+            AsyncInvocationMetrics released = bounded.asyncInvocationMetrics().get();
+            assertEquals(0, released.getInFlight());
+            assertEquals(0, released.getQueued());
+        } finally {
+            bounded.shutdown(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testInvocationsWithoutDeadlineAreBoundedByTheCallTimeout() throws Exception {
+        GrpcSpawnClient bounded = new GrpcSpawnClient(SYSTEM,
+                InProcessChannelBuilder.forName(serverName).directExecutor().build(),
+                TransportOpts.builder().callTimeout(Duration.ofMillis(200)).build());
+        try {
+            assertThrows(ActorInvocationTimeoutException.class, () -> bounded.invoke(invocation(SILENCE)));
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> bounded.invokeAsyncWithResult(invocation(SILENCE)).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ActorInvocationTimeoutException.class, failure.getCause());
+        } finally {
+            bounded.shutdown(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testCloseShutsDownTheChannel() {
+        client.close();
+
+        assertThrows(ActorInvocationException.class, () -> client.invoke(invocation("Erlang")));
+    }
+
+    private static Protocol.InvocationRequest invocation(String language) {
+        return Protocol.InvocationRequest.newBuilder()
+                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM).build())
+                .setActor(ActorOuterClass.Actor.newBuilder()
+                        .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                        .build())
+                .setActionName("SetLanguage")
+                .setValue(Any.pack(Request.newBuilder().setLanguage(language).build()))
+                .build();
+    }
+
+    private static final class StandInProxy extends SpawnProxyGrpc.SpawnProxyImplBase {
+        private final AtomicInteger openedStreams = new AtomicInteger();
+        private CountDownLatch streamed = new CountDownLatch(0);
+        private volatile boolean holdStreams;
+        private volatile ServerCallStreamObserver<Protocol.Noop> heldStream;
+
+        void expectStreamed(int count) {
+            streamed = new CountDownLatch(count);
+        }
+
+        /**
+         * Makes the next invocation stream take no message until {@link #releaseStreams()}.
+         */
+        void holdStreams() {
+            holdStreams = true;
+        }
+
+        void releaseStreams() {
+            heldStream.request(Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void register(Protocol.RegistrationRequest request, StreamObserver<Protocol.RegistrationResponse> observer) {
+            observer.onNext(Protocol.RegistrationResponse.newBuilder()
+                    .setStatus(Protocol.RequestStatus.newBuilder().setStatus(Protocol.Status.OK).build())
+                    .build());
+            observer.onCompleted();
+        }
+
+        @Override
+        public void invoke(Protocol.InvocationRequest request, StreamObserver<Protocol.InvocationResponse> observer) {
+            try {
+                Request msg = request.getValue().unpack(Request.class);
+                if (msg.getLanguage().equals(SILENCE)) {
+                    return;
+                }
+                observer.onNext(Protocol.InvocationResponse.newBuilder()
+                        .setStatus(Protocol.RequestStatus.newBuilder().setStatus(Protocol.Status.OK).build())
+                        .setValue(Any.pack(Reply.newBuilder().setResponse("Hi " + msg.getLanguage()).build()))
+                        .build());
+                observer.onCompleted();
+            } catch (Exception e) {
+                observer.onError(e);
+            }
+        }
+
+        @Override
+        public StreamObserver<Protocol.InvocationRequest> invokeStream(StreamObserver<Protocol.Noop> observer) {
+            openedStreams.incrementAndGet();
+            if (holdStreams) {
+                heldStream = (ServerCallStreamObserver<Protocol.Noop>) observer;
+                heldStream.disableAutoRequest();
+            }
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(Protocol.InvocationRequest value) {
+                    streamed.countDown();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    observer.onNext(Protocol.Noop.getDefaultInstance());
+                    observer.onCompleted();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.eigr.spawn.test.transport;
+
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.ActorRef;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.test.actors.JoeActor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class H2cProxyTransportTest {
+
+    private static final String SYSTEM = "spawn-system-h2c-test";
+    private static final int INVOCATIONS = 10;
+
+    private final SpawnFixture fixture = new SpawnFixture(SYSTEM);
+
+    @AfterEach
+    public void after() {
+        fixture.close();
+    }
+
+    @Test
+    void testConcurrentInvocationsShareOneConnection() throws Exception {
+        Spawn spawnSystem = fixture.start(
+                StandInProxy.forwardingOverTcp().speakingH2c().withLatency(Duration.ofMillis(500)),
+                TransportOpts.builder().proxyProtocol(TransportOpts.ProxyProtocol.H2C),
+                system -> system.withActor(JoeActor.class));
+        ActorRef joeActor = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+
+        List<CompletableFuture<Optional<Reply>>> replies = new ArrayList<>();
+        for (int i = 0; i < INVOCATIONS; i++) {
+            replies.add(joeActor.invokeFuture(
+                    "SetLanguage", Request.newBuilder().setLanguage("Java").build(), Reply.class));
+        }
+
+        Map<String, Integer> streams = awaitStreams(spawnSystem, INVOCATIONS);
+        assertEquals(1, streams.size());
+        assertEquals(INVOCATIONS, streams.values().iterator().next());
+        assertEquals(1, spawnSystem.getProxyConnectionCount());
+
+        for (CompletableFuture<Optional<Reply>> reply : replies) {
+            assertEquals("Hi Java. Hello From Java", reply.get(5, TimeUnit.SECONDS).get().getResponse());
+        }
+        assertEquals(1, fixture.proxy().connections());
+    }
+
+    private static Map<String, Integer> awaitStreams(Spawn spawnSystem, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Map<String, Integer> streams = spawnSystem.getProxyConnectionStreams();
+        while (streams.values().stream().mapToInt(Integer::intValue).sum() < expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            streams = spawnSystem.getProxyConnectionStreams();
+        }
+        return streams;
+    }
+}
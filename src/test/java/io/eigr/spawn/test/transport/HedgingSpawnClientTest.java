@@ -0,0 +1,160 @@
+package io.eigr.spawn.test.transport;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.RetryOpts;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.CircuitBreakerOpenException;
+import io.eigr.spawn.internal.transport.client.HedgingSpawnClient;
+import io.eigr.spawn.internal.transport.client.SpawnClient;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgingSpawnClientTest {
+
+    private static final String SYSTEM = "spawn-system-hedging-test";
+
+    private final ScriptedSpawnClient delegate = new ScriptedSpawnClient();
+
+    @Test
+    void testSlowInvocationIsHedgedAndLoserCancelled() throws Exception {
+        HedgingSpawnClient client = new HedgingSpawnClient(delegate, RetryOpts.builder()
+                .minHedgeDelay(Duration.ofMillis(20))
+                .build());
+
+        // Fast answers give the actor a latency percentile well below the minimum hedge delay.
+        delegate.script = call -> CompletableFuture.completedFuture(ok());
+        for (int i = 0; i < 20; i++) {
+            client.invoke(invocation(true));
+        }
+
+        CompletableFuture<Protocol.InvocationResponse> slow = new CompletableFuture<>();
+        delegate.calls.clear();
+        delegate.script = call -> call == 0 ? slow : CompletableFuture.completedFuture(ok());
+
+        Protocol.InvocationResponse response = client.invokeAsyncWithResult(invocation(true)).get(1, TimeUnit.SECONDS);
+
+        assertEquals(Protocol.Status.OK, response.getStatus().getStatus());
+        assertEquals(2, delegate.calls.size());
+        assertTrue(slow.isCancelled());
+    }
+
+    @Test
+    void testTransportErrorsAreRetriedUntilSuccess() throws Exception {
+        HedgingSpawnClient client = new HedgingSpawnClient(delegate, RetryOpts.builder()
+                .initialBackoff(Duration.ofMillis(10))
+                .build());
+        delegate.script = call -> call < 2
+                ? CompletableFuture.failedFuture(new ActorInvocationException("Connection reset"))
+                : CompletableFuture.completedFuture(ok());
+
+        assertEquals(Protocol.Status.OK, client.invoke(invocation(true)).getStatus().getStatus());
+        assertEquals(3, delegate.calls.size());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        HedgingSpawnClient client = new HedgingSpawnClient(delegate, RetryOpts.builder()
+                .maxAttempts(2)
+                .initialBackoff(Duration.ofMillis(10))
+                .build());
+        delegate.script = call -> CompletableFuture.failedFuture(new ActorInvocationException("Connection reset"));
+
+        assertThrows(ActorInvocationException.class, () -> client.invoke(invocation(true)));
+        assertEquals(2, delegate.calls.size());
+    }
+
+    @Test
+    void testRejectedOrNonIdempotentInvocationsAreSentOnce() {
+        HedgingSpawnClient client = new HedgingSpawnClient(delegate, RetryOpts.builder()
+                .initialBackoff(Duration.ofMillis(10))
+                .build());
+
+        delegate.script = call -> CompletableFuture.failedFuture(new ActorInvocationException("Connection reset"));
+        assertThrows(ActorInvocationException.class, () -> client.invoke(invocation(false)));
+        assertEquals(1, delegate.calls.size());
+
+        delegate.calls.clear();
+        delegate.script = call -> CompletableFuture.failedFuture(new CircuitBreakerOpenException("Open"));
+        assertThrows(CircuitBreakerOpenException.class, () -> client.invoke(invocation(true)));
+        assertEquals(1, delegate.calls.size());
+    }
+
+    @Test
+    void testCancellingInvocationCancelsRequestsInFlight() {
+        HedgingSpawnClient client = new HedgingSpawnClient(delegate, RetryOpts.builder().build());
+        CompletableFuture<Protocol.InvocationResponse> pending = new CompletableFuture<>();
+        delegate.script = call -> pending;
+
+        client.invokeAsyncWithResult(invocation(true)).cancel(true);
+
+        assertTrue(pending.isCancelled());
+    }
+
+    private static Protocol.InvocationRequest invocation(boolean idempotent) {
+        Protocol.InvocationRequest.Builder request = Protocol.InvocationRequest.newBuilder()
+                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM).build())
+                .setActor(ActorOuterClass.Actor.newBuilder()
+                        .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                        .build())
+                .setActionName("SetLanguage");
+        if (idempotent) {
+            request.putMetadata(HedgingSpawnClient.IDEMPOTENT_METADATA, "true");
+        }
+        return request.build();
+    }
+
+    private static Protocol.InvocationResponse ok() {
+        return Protocol.InvocationResponse.newBuilder()
+                .setStatus(Protocol.RequestStatus.newBuilder().setStatus(Protocol.Status.OK).build())
+                .build();
+    }
+
+    private static final class ScriptedSpawnClient implements SpawnClient {
+        private final List<Protocol.InvocationRequest> calls = new CopyOnWriteArrayList<>();
+        private volatile IntFunction<CompletableFuture<Protocol.InvocationResponse>> script;
+
+        @Override
+        public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException {
+            try {
+                return invokeAsyncWithResult(request).join();
+            } catch (RuntimeException e) {
+                throw new ActorInvocationException(e.getCause());
+            }
+        }
+
+        @Override
+        public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+            calls.add(request);
+            return script.apply(calls.size() - 1);
+        }
+
+        @Override
+        public void invokeAsync(Protocol.InvocationRequest request) {
+        }
+
+        @Override
+        public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
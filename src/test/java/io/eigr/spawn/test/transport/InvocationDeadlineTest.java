@@ -0,0 +1,118 @@
+package io.eigr.spawn.test.transport;
+
+import com.google.protobuf.Any;
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.ActorRef;
+import io.eigr.spawn.api.InvocationOpts;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.ActorInvocationTimeoutException;
+import io.eigr.spawn.internal.InvocationDeadline;
+import io.eigr.spawn.internal.transport.client.OkHttpSpawnClient;
+import io.eigr.spawn.test.actors.JoeActor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvocationDeadlineTest {
+
+    private static final String SYSTEM = "spawn-system-deadline-test";
+
+    private final SpawnFixture fixture = new SpawnFixture(SYSTEM);
+    private StandInProxy proxy;
+    private Spawn spawnSystem;
+
+    @BeforeEach
+    public void before() throws Exception {
+        spawnSystem = fixture.start(StandInProxy.forwardingOverTcp(), TransportOpts.builder(),
+                system -> system.withActor(JoeActor.class));
+        proxy = fixture.proxy();
+    }
+
+    @AfterEach
+    public void after() {
+        fixture.close();
+    }
+
+    @Test
+    void testInvocationWithinDeadline() throws Exception {
+        ActorRef joeActor = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+
+        Optional<Reply> maybeReply = joeActor.invoke("SetLanguage", Request.newBuilder().setLanguage("Erlang").build(),
+                Reply.class, InvocationOpts.builder().timeoutSeconds(Duration.ofSeconds(5)).build());
+
+        assertTrue(maybeReply.isPresent());
+        assertEquals("Hi Erlang. Hello From Java", maybeReply.get().getResponse());
+    }
+
+    @Test
+    void testSlowInvocationFailsAtDeadline() throws Exception {
+        proxy.withLatency(Duration.ofSeconds(3));
+        ActorRef joeActor = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+        InvocationOpts opts = InvocationOpts.builder().timeoutSeconds(Duration.ofMillis(300)).build();
+
+        long start = System.nanoTime();
+        assertThrows(ActorInvocationTimeoutException.class, () ->
+                joeActor.invoke("SetLanguage", Request.newBuilder().setLanguage("Erlang").build(), Reply.class, opts));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    @Test
+    void testSlowInvocationFailsAtReadTimeout() {
+        proxy.withLatency(Duration.ofSeconds(3));
+        OkHttpSpawnClient client = new OkHttpSpawnClient(SYSTEM, TransportOpts.builder()
+                .proxyPort(proxy.port())
+                .readTimeout(Duration.ofMillis(300))
+                .build());
+        Protocol.InvocationRequest request = Protocol.InvocationRequest.newBuilder()
+                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM).build())
+                .setActor(ActorOuterClass.Actor.newBuilder()
+                        .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                        .build())
+                .setActionName("SetLanguage")
+                .setValue(Any.pack(Request.newBuilder().setLanguage("Erlang").build()))
+                .build();
+
+        try {
+            long start = System.nanoTime();
+            assertThrows(ActorInvocationException.class, () -> client.invoke(request));
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    void testExpiredInvocationIsNotExecuted() throws Exception {
+        Protocol.ActorInvocation invocation = Protocol.ActorInvocation.newBuilder()
+                .setActor(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                .setActionName("SetLanguage")
+                .setCurrentContext(Protocol.Context.newBuilder()
+                        .putMetadata(InvocationDeadline.REQUEST_DEADLINE_METADATA, InvocationDeadline.after(-1_000)))
+                .setValue(Any.pack(Request.newBuilder().setLanguage("Erlang").build()))
+                .build();
+
+        okhttp3.Request request = new okhttp3.Request.Builder()
+                .url(String.format("http://127.0.0.1:%d/api/v1/actors/actions", fixture.sdkPort()))
+                .post(RequestBody.create(invocation.toByteArray(), MediaType.parse("application/octet-stream")))
+                .build();
+
+        try (Response response = new OkHttpClient().newCall(request).execute()) {
+            assertEquals(504, response.code());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.eigr.spawn.test.transport;
+
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.spawn.api.ActionInvocationMetrics;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.ActorRef;
+import io.eigr.spawn.api.HistogramSnapshot;
+import io.eigr.spawn.api.InvocationMetricsRecorder;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.internal.PowerOfTwoHistogram;
+import io.eigr.spawn.test.actors.JoeActor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvocationInstrumentationTest {
+
+    private static final String SYSTEM = "spawn-system-instrumentation-test";
+
+    private final InvocationMetricsRecorder recorder = new InvocationMetricsRecorder();
+    private StandInProxy proxy;
+
+    @BeforeEach
+    public void before() throws Exception {
+        proxy = StandInProxy.acknowledging().withLatency(Duration.ofMillis(5)).listenOnPort(0);
+    }
+
+    @AfterEach
+    public void after() {
+        proxy.close();
+    }
+
+    @Test
+    void testRecordsInvocationsPerActorAndAction() throws Exception {
+        ActorRef joeActor = newSpawn(proxy.port()).createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+        Request request = Request.newBuilder().setLanguage("Java").build();
+
+        for (int i = 0; i < 3; i++) {
+            joeActor.invoke("SetLanguage", request, Reply.class);
+        }
+        joeActor.invokeFuture("SetLanguage", request, Reply.class).get();
+        joeActor.invokeAsync("SetLanguage", request);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (proxy.invocations() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        ActionInvocationMetrics metrics = recorder.snapshot("JoeActor", "SetLanguage").get();
+        assertEquals(4, metrics.getLatency().getCount());
+        assertTrue(metrics.getLatency().getMax() >= Duration.ofMillis(5).toNanos());
+        assertEquals(Map.of(Protocol.Status.OK, 4L), metrics.getStatuses());
+        assertEquals(0, metrics.getFailures());
+        assertEquals(5, metrics.getRequestBytes().getCount());
+        assertEquals(4, metrics.getResponseBytes().getCount());
+        assertEquals(1, metrics.getAsyncInvocations());
+        assertTrue(metrics.getQueueing().getCount() >= 4);
+        assertEquals(0, recorder.getInFlight());
+    }
+
+    @Test
+    void testRecordsFailures() throws Exception {
+        int port;
+        try (ServerSocket unused = new ServerSocket(0)) {
+            port = unused.getLocalPort();
+        }
+        ActorRef joeActor = newSpawn(port).createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+
+        assertThrows(ActorInvocationException.class, () -> joeActor.invoke("SetLanguage", Reply.class));
+
+        ActionInvocationMetrics metrics = recorder.snapshot("JoeActor", "SetLanguage").get();
+        assertEquals(1, metrics.getFailures());
+        assertTrue(metrics.getStatuses().isEmpty());
+        assertEquals(0, recorder.getInFlight());
+        assertEquals(0, recorder.getConnectionsInUse());
+    }
+
+    @Test
+    void testHistogramPercentilesAreBoundedByTheirBucket() {
+        PowerOfTwoHistogram histogram = new PowerOfTwoHistogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500_500, snapshot.getSum());
+        assertEquals(511, snapshot.getValueAtPercentile(50));
+        assertEquals(1000, snapshot.getValueAtPercentile(99.9));
+        assertEquals(1000, snapshot.getMax());
+    }
+
+    private Spawn newSpawn(int proxyPort) throws Exception {
+        return new Spawn.SpawnSystem()
+                .create(SYSTEM)
+                .withActor(JoeActor.class)
+                .withTransportOptions(TransportOpts.builder()
+                        .proxyPort(proxyPort)
+                        .instrumentation(recorder)
+                        .build())
+                .build();
+    }
+}
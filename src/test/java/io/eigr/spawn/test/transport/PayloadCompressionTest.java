@@ -0,0 +1,152 @@
+package io.eigr.spawn.test.transport;
+
+import com.google.protobuf.Any;
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.ActorRef;
+import io.eigr.spawn.api.CompressionCodec;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.internal.transport.PayloadCompression;
+import io.eigr.spawn.internal.transport.client.OkHttpSpawnClient;
+import io.eigr.spawn.test.actors.JoeActor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadCompressionTest {
+
+    private static final String SYSTEM = "spawn-system-compression-test";
+    private static final String LARGE_LANGUAGE = "Java".repeat(4 * 1024);
+
+    private final SpawnFixture fixture = new SpawnFixture(SYSTEM);
+    private StandInProxy proxy;
+    private Spawn spawnSystem;
+
+    @BeforeEach
+    public void before() throws Exception {
+        spawnSystem = fixture.start(StandInProxy.forwardingOverTcp(),
+                TransportOpts.builder().compression(CompressionCodec.gzip(), 1024),
+                system -> system.withActor(JoeActor.class));
+        proxy = fixture.proxy();
+    }
+
+    @AfterEach
+    public void after() {
+        fixture.close();
+    }
+
+    @Test
+    void testLargePayloadsAreCompressedBothWays() throws Exception {
+        ActorRef joeActor = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+
+        Optional<Reply> reply = joeActor.invoke(
+                "SetLanguage", Request.newBuilder().setLanguage(LARGE_LANGUAGE).build(), Reply.class);
+
+        assertEquals(String.format("Hi %s. Hello From Java", LARGE_LANGUAGE), reply.get().getResponse());
+        assertEquals(1, proxy.compressedRequests());
+        assertEquals(1, proxy.compressedResponses());
+    }
+
+    @Test
+    void testSmallPayloadsAreSentAsIs() throws Exception {
+        ActorRef joeActor = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+
+        Optional<Reply> reply = joeActor.invoke(
+                "SetLanguage", Request.newBuilder().setLanguage("Erlang").build(), Reply.class);
+
+        assertEquals("Hi Erlang. Hello From Java", reply.get().getResponse());
+        assertEquals(0, proxy.compressedRequests());
+        assertEquals(0, proxy.compressedResponses());
+    }
+
+    @Test
+    void testRequestsAreOnlyCompressedForAProxyAnnouncingTheCodec() throws Exception {
+        try (StandInProxy plainProxy = StandInProxy.acknowledging().withoutRequestDecompression().listenOnPort(0)) {
+            OkHttpSpawnClient client = new OkHttpSpawnClient(SYSTEM, TransportOpts.builder()
+                    .proxyPort(plainProxy.port())
+                    .compression(CompressionCodec.gzip(), 1024)
+                    .build());
+
+            for (int i = 0; i < 2; i++) {
+                Protocol.InvocationResponse response = client.invoke(Protocol.InvocationRequest.newBuilder()
+                        .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM))
+                        .setActor(ActorOuterClass.Actor.newBuilder()
+                                .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor")))
+                        .setActionName("SetLanguage")
+                        .setValue(Any.pack(Request.newBuilder().setLanguage(LARGE_LANGUAGE).build()))
+                        .build());
+                assertEquals(Protocol.Status.OK, response.getStatus().getStatus());
+            }
+            assertEquals(2, plainProxy.invocations());
+            assertEquals(0, plainProxy.compressedRequests());
+        }
+    }
+
+    @Test
+    void testActionResponseIsCompressedOnlyWhenAccepted() throws Exception {
+        try (Response response = postInvocation(null)) {
+            assertNull(response.header("Content-Encoding"));
+            Reply reply = Protocol.ActorInvocationResponse.parseFrom(response.body().byteStream())
+                    .getValue().unpack(Reply.class);
+            assertEquals(String.format("Hi %s. Hello From Java", LARGE_LANGUAGE), reply.getResponse());
+        }
+
+        try (Response response = postInvocation("br, gzip")) {
+            assertEquals("gzip", response.header("Content-Encoding"));
+            try (InputStream in = new GZIPInputStream(response.body().byteStream())) {
+                Reply reply = Protocol.ActorInvocationResponse.parseFrom(in).getValue().unpack(Reply.class);
+                assertEquals(String.format("Hi %s. Hello From Java", LARGE_LANGUAGE), reply.getResponse());
+            }
+        }
+    }
+
+    private Response postInvocation(String acceptEncoding) throws Exception {
+        Protocol.ActorInvocation invocation = Protocol.ActorInvocation.newBuilder()
+                .setActor(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("JoeActor").build())
+                .setActionName("SetLanguage")
+                .setCurrentContext(Protocol.Context.newBuilder())
+                .setValue(Any.pack(Request.newBuilder().setLanguage(LARGE_LANGUAGE).build()))
+                .build();
+
+        okhttp3.Request.Builder request = new okhttp3.Request.Builder()
+                .url(String.format("http://127.0.0.1:%d/api/v1/actors/actions", fixture.sdkPort()))
+                .post(RequestBody.create(invocation.toByteArray(), MediaType.parse("application/octet-stream")));
+        // Setting the header ourselves keeps OkHttp from asking for gzip and decoding it transparently.
+        request.header("Accept-Encoding", acceptEncoding == null ? "identity" : acceptEncoding);
+        return new OkHttpClient().newCall(request.build()).execute();
+    }
+
+    @Test
+    void testAcceptEncodingWeights() {
+        PayloadCompression gzip = PayloadCompression.of(
+                TransportOpts.builder().compression(CompressionCodec.gzip(), 1024).build());
+
+        assertTrue(gzip.isAcceptedBy("gzip"));
+        assertTrue(gzip.isAcceptedBy("br, GZIP;q=0.5"));
+        assertTrue(gzip.isAcceptedBy("gzip; q=0.001"));
+        assertTrue(gzip.isAcceptedBy("br, *"));
+        assertTrue(gzip.isAcceptedBy("*;q=0.1"));
+        assertFalse(gzip.isAcceptedBy("gzip;q=0"));
+        assertFalse(gzip.isAcceptedBy("gzip;q=0.000"));
+        assertFalse(gzip.isAcceptedBy("gzip;q=0, *"));
+        assertFalse(gzip.isAcceptedBy("*;q=0"));
+        assertFalse(gzip.isAcceptedBy("gzip;q=high"));
+        assertFalse(gzip.isAcceptedBy("br, identity"));
+        assertFalse(gzip.isAcceptedBy(null));
+        assertFalse(PayloadCompression.NONE.isAcceptedBy("gzip, *"));
+    }
+}
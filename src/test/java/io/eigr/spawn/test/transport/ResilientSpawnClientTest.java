@@ -0,0 +1,170 @@
+package io.eigr.spawn.test.transport;
+
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.api.CircuitBreakerMetrics;
+import io.eigr.spawn.api.ResilienceOpts;
+import io.eigr.spawn.api.exceptions.ActorInvocationException;
+import io.eigr.spawn.api.exceptions.BulkheadFullException;
+import io.eigr.spawn.api.exceptions.CircuitBreakerOpenException;
+import io.eigr.spawn.internal.transport.client.ResilientSpawnClient;
+import io.eigr.spawn.internal.transport.client.SpawnClient;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResilientSpawnClientTest {
+
+    private static final String SYSTEM = "spawn-system-resilience-test";
+
+    private final FakeSpawnClient delegate = new FakeSpawnClient();
+
+    @Test
+    void testBreakerOpensOnFailureRateAndOnlyForFailingActor() {
+        ResilientSpawnClient client = new ResilientSpawnClient(delegate, ResilienceOpts.builder()
+                .slidingWindowSize(10)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .build());
+        delegate.failing.add("SlowActor");
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(ActorInvocationException.class, () -> client.invoke(invocation("SlowActor")));
+        }
+
+        int calls = delegate.calls.get();
+        assertThrows(CircuitBreakerOpenException.class, () -> client.invoke(invocation("SlowActor")));
+        assertEquals(calls, delegate.calls.get());
+
+        assertDoesNotThrow(() -> client.invoke(invocation("JoeActor")));
+
+        CircuitBreakerMetrics metrics = client.circuitBreakers().get("SlowActor");
+        assertEquals(CircuitBreakerMetrics.State.OPEN, metrics.getState());
+        assertEquals(1, metrics.getNotPermittedCalls());
+        assertEquals(CircuitBreakerMetrics.State.CLOSED, client.circuitBreakers().get("JoeActor").getState());
+    }
+
+    @Test
+    void testBreakerClosesAfterSuccessfulTrialCalls() throws Exception {
+        ResilientSpawnClient client = new ResilientSpawnClient(delegate, ResilienceOpts.builder()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(2)
+                .waitDurationInOpenState(Duration.ofMillis(50))
+                .permittedCallsInHalfOpenState(2)
+                .build());
+        delegate.failing.add("JoeActor");
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ActorInvocationException.class, () -> client.invoke(invocation("JoeActor")));
+        }
+        assertEquals(CircuitBreakerMetrics.State.OPEN, client.circuitBreakers().get("JoeActor").getState());
+
+        delegate.failing.clear();
+        Thread.sleep(100);
+
+        client.invoke(invocation("JoeActor"));
+        assertEquals(CircuitBreakerMetrics.State.HALF_OPEN, client.circuitBreakers().get("JoeActor").getState());
+        client.invoke(invocation("JoeActor"));
+        assertEquals(CircuitBreakerMetrics.State.CLOSED, client.circuitBreakers().get("JoeActor").getState());
+    }
+
+    @Test
+    void testBreakerOpensOnSlowCallRate() throws Exception {
+        ResilientSpawnClient client = new ResilientSpawnClient(delegate, ResilienceOpts.builder()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .permittedCallsInHalfOpenState(1)
+                .slowCallDuration(Duration.ZERO)
+                .slowCallRateThreshold(100)
+                .build());
+
+        client.invoke(invocation("JoeActor"));
+        client.invoke(invocation("JoeActor"));
+
+        assertThrows(CircuitBreakerOpenException.class, () -> client.invoke(invocation("JoeActor")));
+    }
+
+    @Test
+    void testBulkheadRejectsCallsOverLimit() throws Exception {
+        ResilientSpawnClient client = new ResilientSpawnClient(delegate, ResilienceOpts.builder()
+                .maxConcurrentCalls(1)
+                .build());
+        delegate.pending = new CompletableFuture<>();
+
+        CompletableFuture<Protocol.InvocationResponse> inFlight = client.invokeAsyncWithResult(invocation("JoeActor"));
+        CompletableFuture<Protocol.InvocationResponse> rejected = client.invokeAsyncWithResult(invocation("JoeActor"));
+
+        Exception err = assertThrows(Exception.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(BulkheadFullException.class, err.getCause());
+        assertEquals(1, client.circuitBreakers().get("JoeActor").getConcurrentCalls());
+
+        delegate.pending.complete(ok());
+        inFlight.get(1, TimeUnit.SECONDS);
+        assertEquals(0, client.circuitBreakers().get("JoeActor").getConcurrentCalls());
+        assertEquals(1, client.circuitBreakers().get("JoeActor").getBulkheadRejectedCalls());
+    }
+
+    private static Protocol.InvocationRequest invocation(String actor) {
+        return Protocol.InvocationRequest.newBuilder()
+                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM).build())
+                .setActor(ActorOuterClass.Actor.newBuilder()
+                        .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName(actor).build())
+                        .build())
+                .setActionName("SetLanguage")
+                .build();
+    }
+
+    private static Protocol.InvocationResponse ok() {
+        return Protocol.InvocationResponse.newBuilder()
+                .setStatus(Protocol.RequestStatus.newBuilder().setStatus(Protocol.Status.OK).build())
+                .build();
+    }
+
+    private static final class FakeSpawnClient implements SpawnClient {
+        private final Set<String> failing = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CompletableFuture<Protocol.InvocationResponse> pending;
+
+        @Override
+        public Protocol.RegistrationResponse register(Protocol.RegistrationRequest registration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Protocol.SpawnResponse spawn(Protocol.SpawnRequest registration) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws ActorInvocationException {
+            calls.incrementAndGet();
+            if (failing.contains(request.getActor().getId().getName())) {
+                throw new ActorInvocationException("Proxy unavailable");
+            }
+            return ok();
+        }
+
+        @Override
+        public CompletableFuture<Protocol.InvocationResponse> invokeAsyncWithResult(Protocol.InvocationRequest request) {
+            calls.incrementAndGet();
+            return pending;
+        }
+
+        @Override
+        public void invokeAsync(Protocol.InvocationRequest request) {
+        }
+
+        @Override
+        public CompletableFuture<ProxyTransport.InvocationBatchResponse> invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
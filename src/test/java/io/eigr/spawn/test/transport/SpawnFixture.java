@@ -0,0 +1,73 @@
+package io.eigr.spawn.test.transport;
+
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+
+import java.util.Objects;
+
+/**
+ * A Spawn system registered with a {@link StandInProxy}, its actions endpoint bound to a port picked by the OS.
+ * {@link #close()}, called from {@code @AfterEach}, stops both, so no event loop outlives its test.
+ */
+public final class SpawnFixture implements AutoCloseable {
+
+    // The JDK server waits out the whole grace period while the test client keeps a connection open.
+    private static final int TERMINATION_GRACE_PERIOD_SECONDS = 1;
+
+    private final String system;
+    private StandInProxy proxy;
+    private Spawn spawn;
+
+    public SpawnFixture(String system) {
+        this.system = system;
+    }
+
+    /**
+     * Starts the proxy, then the Spawn system, pointing a forwarding proxy at the port the system listens on.
+     *
+     * @param proxy     stand-in proxy, not listening yet
+     * @param transport transport options, its port and proxy port set by the fixture
+     * @param actors    registers the actors, and any other option, on the system
+     * @return the started system
+     */
+    public Spawn start(StandInProxy proxy, TransportOpts.TransportOptsBuilder transport,
+                       SystemConfiguration actors) throws Exception {
+        this.proxy = proxy.listenOnPort(0);
+        this.spawn = actors.apply(new Spawn.SpawnSystem().create(system))
+                .withTerminationGracePeriodSeconds(TERMINATION_GRACE_PERIOD_SECONDS)
+                .withTransportOptions(transport
+                        .port(0)
+                        .proxyPort(this.proxy.port())
+                        .build())
+                .build();
+        spawn.start();
+        this.proxy.forwardToPort("127.0.0.1", spawn.getPort());
+        return spawn;
+    }
+
+    public StandInProxy proxy() {
+        return proxy;
+    }
+
+    /**
+     * @return port of the actions endpoint of the started system
+     */
+    public int sdkPort() {
+        return spawn.getPort();
+    }
+
+    @FunctionalInterface
+    public interface SystemConfiguration {
+        Spawn.SpawnSystem apply(Spawn.SpawnSystem system) throws Exception;
+    }
+
+    @Override
+    public void close() {
+        if (Objects.nonNull(spawn)) {
+            spawn.stop();
+        }
+        if (Objects.nonNull(proxy)) {
+            proxy.close();
+        }
+    }
+}
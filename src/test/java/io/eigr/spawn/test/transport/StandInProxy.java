@@ -0,0 +1,406 @@
+package io.eigr.spawn.test.transport;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.transport.ProxyTransport;
+import io.eigr.spawn.internal.transport.client.UnixDomainSocketFactory;
+import io.grpc.netty.shaded.io.netty.bootstrap.ServerBootstrap;
+import io.grpc.netty.shaded.io.netty.buffer.ByteBufInputStream;
+import io.grpc.netty.shaded.io.netty.buffer.Unpooled;
+import io.grpc.netty.shaded.io.netty.channel.Channel;
+import io.grpc.netty.shaded.io.netty.channel.ChannelHandlerContext;
+import io.grpc.netty.shaded.io.netty.channel.ChannelInitializer;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.ServerChannel;
+import io.grpc.netty.shaded.io.netty.channel.SimpleChannelInboundHandler;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.FullHttpRequest;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.FullHttpResponse;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpHeaderNames;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpObjectAggregator;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpResponseStatus;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpServerCodec;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpUtil;
+import io.grpc.netty.shaded.io.netty.handler.codec.http.HttpVersion;
+import io.grpc.netty.shaded.io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.grpc.netty.shaded.io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.grpc.netty.shaded.io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Minimal local stand-in for the Spawn proxy HTTP API, used by transport tests that cannot start the real proxy.
+ * <p>
+ * Registration and spawn requests are acknowledged. Invocations, batched or not, are forwarded to the SDK actions
+ * endpoint as {@link Protocol.ActorInvocation}s, keeping the last state of every actor, and the SDK answer is
+ * translated back into a {@link Protocol.InvocationResponse}. A stand-in created with {@link #acknowledging()}
+ * does not forward anything and answers every invocation with an empty OK response. {@link #withLatency(Duration)}
+ * delays every invocation to simulate a slow proxy, and {@link #withTailLatency(double, Duration)} delays only
+ * a random share of them to simulate a long latency tail.
+ * <p>
+ * Gzip request bodies are decoded, which every response announces with {@code Accept-Encoding: gzip}, unless
+ * created with {@link #withoutRequestDecompression()}. Responses of at least 1 KiB are gzipped for clients
+ * accepting it.
+ * <p>
+ * Created with {@link #speakingH2c()}, the stand-in only speaks cleartext HTTP/2 with prior knowledge, every stream
+ * being handled as a request of its own, and {@link #connections()} tells how many connections it accepted.
+ */
+public final class StandInProxy implements AutoCloseable {
+    private static final MediaType MEDIA_TYPE = MediaType.parse("application/octet-stream");
+    private static final int GZIP_THRESHOLD = 1024;
+
+    private final OkHttpClient sdkClient;
+    private volatile String actionsUrl;
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+    private final Map<String, Any> states = new ConcurrentHashMap<>();
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicInteger compressedRequests = new AtomicInteger();
+    private final AtomicInteger compressedResponses = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private volatile boolean decompressesRequests = true;
+    private volatile boolean h2c;
+    private volatile long latencyMillis;
+    private volatile double tailProbability;
+    private volatile long tailLatencyMillis;
+
+    private EventLoopGroup group;
+    private Channel channel;
+
+    private StandInProxy(OkHttpClient sdkClient, String actionsUrl) {
+        this.sdkClient = sdkClient;
+        this.actionsUrl = actionsUrl;
+    }
+
+    /**
+     * Stand-in that acknowledges invocations without forwarding them to any SDK.
+     */
+    public static StandInProxy acknowledging() {
+        return new StandInProxy(null, null);
+    }
+
+    /**
+     * Stand-in that reaches the SDK actions endpoint through a UNIX domain socket.
+     */
+    public static StandInProxy forwardingToSocket(String sdkSocketPath) {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .socketFactory(new UnixDomainSocketFactory(sdkSocketPath))
+                .build();
+        return new StandInProxy(client, "http://localhost/api/v1/actors/actions");
+    }
+
+    /**
+     * Stand-in that reaches the SDK actions endpoint through TCP.
+     */
+    public static StandInProxy forwardingToPort(String host, int port) {
+        return forwardingOverTcp().forwardToPort(host, port);
+    }
+
+    /**
+     * Stand-in that reaches the SDK actions endpoint through TCP, once given its port with
+     * {@link #forwardToPort(String, int)}, which lets the SDK bind a port of its own choosing after the stand-in
+     * started.
+     */
+    public static StandInProxy forwardingOverTcp() {
+        return new StandInProxy(new OkHttpClient(), null);
+    }
+
+    /**
+     * Points a TCP stand-in at the SDK actions endpoint. An acknowledging stand-in still forwards nothing.
+     */
+    public StandInProxy forwardToPort(String host, int port) {
+        this.actionsUrl = String.format("http://%s:%d/api/v1/actors/actions", host, port);
+        return this;
+    }
+
+    /**
+     * Stops announcing and decoding gzip request bodies, which are then answered with 415 Unsupported Media Type.
+     */
+    public StandInProxy withoutRequestDecompression() {
+        this.decompressesRequests = false;
+        return this;
+    }
+
+    public StandInProxy speakingH2c() {
+        this.h2c = true;
+        return this;
+    }
+
+    public StandInProxy withLatency(Duration latency) {
+        this.latencyMillis = latency.toMillis();
+        return this;
+    }
+
+    public StandInProxy withTailLatency(double probability, Duration latency) {
+        this.tailProbability = probability;
+        this.tailLatencyMillis = latency.toMillis();
+        return this;
+    }
+
+    public StandInProxy listenOnSocket(String socketPath) throws InterruptedException {
+        return listen(new EpollEventLoopGroup(), EpollServerDomainSocketChannel.class, new DomainSocketAddress(socketPath));
+    }
+
+    public StandInProxy listenOnPort(int port) throws InterruptedException {
+        return listen(new NioEventLoopGroup(), NioServerSocketChannel.class, new InetSocketAddress("127.0.0.1", port));
+    }
+
+    public int port() {
+        return ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    public int invocations() {
+        return invocations.get();
+    }
+
+    public int batches() {
+        return batches.get();
+    }
+
+    public int compressedRequests() {
+        return compressedRequests.get();
+    }
+
+    public int compressedResponses() {
+        return compressedResponses.get();
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    private StandInProxy listen(EventLoopGroup group, Class<? extends ServerChannel> channelType,
+                                SocketAddress address) throws InterruptedException {
+        this.group = group;
+        this.channel = new ServerBootstrap()
+                .group(group)
+                .channel(channelType)
+                .childHandler(new ChannelInitializer<>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        connections.incrementAndGet();
+                        if (h2c) {
+                            ch.pipeline()
+                                    .addLast(Http2FrameCodecBuilder.forServer().build())
+                                    .addLast(new Http2MultiplexHandler(new ChannelInitializer<>() {
+                                        @Override
+                                        protected void initChannel(Channel stream) {
+                                            stream.pipeline()
+                                                    .addLast(new Http2StreamFrameToHttpObjectCodec(true))
+                                                    .addLast(new HttpObjectAggregator(64 * 1024 * 1024))
+                                                    .addLast(new ProxyHandler());
+                                        }
+                                    }));
+                            return;
+                        }
+                        ch.pipeline()
+                                .addLast(new HttpServerCodec())
+                                .addLast(new HttpObjectAggregator(64 * 1024 * 1024))
+                                .addLast(new ProxyHandler());
+                    }
+                })
+                .bind(address)
+                .sync()
+                .channel();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        channel.close().syncUninterruptibly();
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        workers.shutdownNow();
+        if (sdkClient != null) {
+            sdkClient.dispatcher().executorService().shutdown();
+            sdkClient.connectionPool().evictAll();
+        }
+    }
+
+    private byte[] route(String uri, InputStream body) throws IOException {
+        if (uri.equals("/api/v1/system")) {
+            Protocol.RegistrationRequest.parseFrom(body);
+            return Protocol.RegistrationResponse.newBuilder()
+                    .setStatus(ok())
+                    .build()
+                    .toByteArray();
+        }
+
+        if (uri.endsWith("/actors/spawn")) {
+            Protocol.SpawnRequest.parseFrom(body);
+            return Protocol.SpawnResponse.newBuilder().setStatus(ok()).build().toByteArray();
+        }
+
+        if (uri.endsWith("/actors/invoke/batch")) {
+            return invokeBatch(ProxyTransport.InvocationBatchRequest.parseFrom(body)).toByteArray();
+        }
+
+        if (uri.endsWith("/invoke")) {
+            return invoke(Protocol.InvocationRequest.parseFrom(body)).toByteArray();
+        }
+
+        throw new IOException("Unknown route " + uri);
+    }
+
+    private ProxyTransport.InvocationBatchResponse invokeBatch(ProxyTransport.InvocationBatchRequest batch) {
+        batches.incrementAndGet();
+        ProxyTransport.InvocationBatchResponse.Builder response = ProxyTransport.InvocationBatchResponse.newBuilder();
+        for (Protocol.InvocationRequest request : batch.getRequestsList()) {
+            try {
+                response.addStatuses(invoke(request).getStatus());
+            } catch (IOException e) {
+                response.addStatuses(Protocol.RequestStatus.newBuilder()
+                        .setStatus(Protocol.Status.ERROR)
+                        .setMessage(String.valueOf(e.getMessage())));
+            }
+        }
+        return response.build();
+    }
+
+    private Protocol.InvocationResponse invoke(Protocol.InvocationRequest request) throws IOException {
+        invocations.incrementAndGet();
+        long delay = ThreadLocalRandom.current().nextDouble() < tailProbability ? tailLatencyMillis : latencyMillis;
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while simulating latency", e);
+            }
+        }
+
+        if (sdkClient == null) {
+            return Protocol.InvocationResponse.newBuilder().setStatus(ok()).build();
+        }
+
+        String actorName = request.getActor().getId().getName();
+
+        Protocol.Context.Builder context = Protocol.Context.newBuilder()
+                .putAllMetadata(request.getMetadataMap())
+                .setSelf(request.getActor().getId());
+        Any state = states.get(actorName);
+        if (state != null) {
+            context.setState(state);
+        }
+
+        Protocol.ActorInvocation invocation = Protocol.ActorInvocation.newBuilder()
+                .setActor(request.getActor().getId().toBuilder().setParent(request.getRegisterRef()))
+                .setActionName(request.getActionName())
+                .setCurrentContext(context)
+                .setValue(request.getValue())
+                .build();
+
+        Request httpRequest = new Request.Builder()
+                .url(actionsUrl)
+                .post(RequestBody.create(invocation.toByteArray(), MEDIA_TYPE))
+                .build();
+
+        try (Response response = sdkClient.newCall(httpRequest).execute()) {
+            if (!response.isSuccessful()) {
+                return Protocol.InvocationResponse.newBuilder()
+                        .setStatus(Protocol.RequestStatus.newBuilder()
+                                .setStatus(Protocol.Status.ERROR)
+                                .setMessage(response.body().string()))
+                        .build();
+            }
+
+            Protocol.ActorInvocationResponse actorResponse =
+                    Protocol.ActorInvocationResponse.parseFrom(response.body().byteStream());
+            if (actorResponse.getUpdatedContext().hasState()) {
+                states.put(actorName, actorResponse.getUpdatedContext().getState());
+            }
+
+            return Protocol.InvocationResponse.newBuilder()
+                    .setStatus(ok())
+                    .setSystem(request.getSystem())
+                    .setActor(request.getActor())
+                    .setValue(actorResponse.getValue())
+                    .build();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static Protocol.RequestStatus ok() {
+        return Protocol.RequestStatus.newBuilder().setStatus(Protocol.Status.OK).build();
+    }
+
+    private final class ProxyHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+            FullHttpRequest retained = request.retain();
+            workers.execute(() -> {
+                FullHttpResponse response;
+                boolean gzipRequest = "gzip".equals(retained.headers().get(HttpHeaderNames.CONTENT_ENCODING));
+                String acceptEncoding = retained.headers().get(HttpHeaderNames.ACCEPT_ENCODING);
+                if (gzipRequest && !decompressesRequests) {
+                    retained.release();
+                    response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.UNSUPPORTED_MEDIA_TYPE);
+                    HttpUtil.setContentLength(response, 0);
+                    ctx.writeAndFlush(response);
+                    return;
+                }
+                try (InputStream in = gzipRequest
+                        ? new GZIPInputStream(new ByteBufInputStream(retained.content()))
+                        : new ByteBufInputStream(retained.content())) {
+                    if (gzipRequest) {
+                        compressedRequests.incrementAndGet();
+                    }
+                    byte[] body = route(retained.uri(), in);
+                    boolean gzipResponse = body.length >= GZIP_THRESHOLD
+                            && acceptEncoding != null && acceptEncoding.contains("gzip");
+                    response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                            Unpooled.wrappedBuffer(gzipResponse ? gzip(body) : body));
+                    if (gzipResponse) {
+                        compressedResponses.incrementAndGet();
+                        response.headers().set(HttpHeaderNames.CONTENT_ENCODING, "gzip");
+                    }
+                } catch (InvalidProtocolBufferException e) {
+                    response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.BAD_REQUEST);
+                } catch (Exception e) {
+                    response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+                } finally {
+                    retained.release();
+                }
+                response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/octet-stream");
+                if (decompressesRequests) {
+                    response.headers().set(HttpHeaderNames.ACCEPT_ENCODING, "gzip");
+                }
+                HttpUtil.setContentLength(response, response.content().readableBytes());
+                ctx.writeAndFlush(response);
+            });
+        }
+    }
+}
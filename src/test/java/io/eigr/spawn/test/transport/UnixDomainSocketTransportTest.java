@@ -0,0 +1,77 @@
+package io.eigr.spawn.test.transport;
+
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.ActorRef;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.internal.transport.client.UnixDomainSocketFactory;
+import io.eigr.spawn.internal.transport.server.NettyActorServer;
+import io.eigr.spawn.test.actors.JoeActor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UnixDomainSocketTransportTest {
+
+    private static final String SYSTEM = "spawn-system-uds-test";
+
+    @TempDir
+    Path dir;
+
+    private StandInProxy proxy;
+    private Spawn spawnSystem;
+
+    @BeforeEach
+    public void before() throws Exception {
+        assumeTrue(UnixDomainSocketFactory.isSupported() && NettyActorServer.isDomainSocketSupported(),
+                "UNIX domain sockets are not available on this platform");
+
+        String sdkSocket = dir.resolve("sdk.sock").toString();
+        String proxySocket = dir.resolve("proxy.sock").toString();
+
+        proxy = StandInProxy.forwardingToSocket(sdkSocket).listenOnSocket(proxySocket);
+
+        spawnSystem = new Spawn.SpawnSystem()
+                .create(SYSTEM)
+                .withActor(JoeActor.class)
+                .withTerminationGracePeriodSeconds(1)
+                .withTransportOptions(TransportOpts.builder()
+                        .socketPath(sdkSocket)
+                        .proxySocketPath(proxySocket)
+                        .build())
+                .build();
+        spawnSystem.start();
+    }
+
+    @AfterEach
+    public void after() {
+        if (spawnSystem != null) {
+            spawnSystem.stop();
+        }
+        if (proxy != null) {
+            proxy.close();
+        }
+    }
+
+    @Test
+    void testInvocationOverDomainSockets() throws Exception {
+        ActorRef joeActor = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "JoeActor"));
+
+        Optional<Reply> maybeReply = joeActor.invoke(
+                "SetLanguage", Request.newBuilder().setLanguage("Erlang").build(), Reply.class);
+
+        assertTrue(maybeReply.isPresent());
+        assertEquals("Hi Erlang. Hello From Java", maybeReply.get().getResponse());
+        assertEquals(1, proxy.invocations());
+    }
+}
@@ -0,0 +1,118 @@
+package io.eigr.spawn.test.transport;
+
+import com.google.protobuf.Any;
+import domain.actors.Reply;
+import domain.actors.Request;
+import io.eigr.functions.protocol.Protocol;
+import io.eigr.functions.protocol.actors.ActorOuterClass;
+import io.eigr.spawn.api.ActorIdentity;
+import io.eigr.spawn.api.Spawn;
+import io.eigr.spawn.api.TransportOpts;
+import io.eigr.spawn.internal.VirtualThreads;
+import io.eigr.spawn.internal.transport.client.OkHttpSpawnClient;
+import io.eigr.spawn.test.actors.ThreadRecordingActor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.ServerSocket;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The Java 21 version of {@link VirtualThreads} is only loaded from the multi-release JAR, which the
+ * {@code java21} Maven profile tests with the {@code spawn.test.multiReleaseJar} property set. The test phase
+ * loads the base version from target/classes.
+ */
+class VirtualThreadsTest {
+
+    private static final String SYSTEM = "spawn-system-virtual-threads-test";
+    private static final String MULTI_RELEASE_JAR = "spawn.test.multiReleaseJar";
+
+    private final SpawnFixture fixture = new SpawnFixture(SYSTEM);
+
+    @AfterEach
+    public void after() {
+        fixture.close();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = MULTI_RELEASE_JAR, matches = "true")
+    void testActionsRunOnVirtualThreads() throws Exception {
+        assertTrue(VirtualThreads.isSupported());
+
+        Spawn spawnSystem = fixture.start(StandInProxy.forwardingOverTcp(), TransportOpts.builder().virtualThreads(true),
+                system -> system.withActor(ThreadRecordingActor.class));
+
+        Optional<Reply> reply = spawnSystem.createActorRef(ActorIdentity.of(SYSTEM, "ThreadRecordingActor"))
+                .invoke("RecordThread", Request.getDefaultInstance(), Reply.class);
+
+        assertTrue(reply.get().getResponse().startsWith("spawn-action-"));
+        assertTrue(isVirtual(ThreadRecordingActor.lastThread));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = MULTI_RELEASE_JAR, matches = "true")
+    void testAsyncInvocationsAreSentFromVirtualThreads() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        // Nothing listens on the port, so the failure handler runs on the dispatcher thread of the call.
+        CompletableFuture<Thread> dispatcherThread = new CompletableFuture<>();
+        OkHttpSpawnClient client = new OkHttpSpawnClient(SYSTEM, TransportOpts.builder()
+                .proxyPort(closedPort)
+                .virtualThreads(true)
+                .asyncFailureHandler((actorName, actionName, cause) -> dispatcherThread.complete(Thread.currentThread()))
+                .build());
+        client.invokeAsync(Protocol.InvocationRequest.newBuilder()
+                .setSystem(ActorOuterClass.ActorSystem.newBuilder().setName(SYSTEM))
+                .setActor(ActorOuterClass.Actor.newBuilder()
+                        .setId(ActorOuterClass.ActorId.newBuilder().setSystem(SYSTEM).setName("ThreadRecordingActor")))
+                .setActionName("RecordThread")
+                .setAsync(true)
+                .setValue(Any.pack(Request.getDefaultInstance()))
+                .build());
+
+        Thread thread = dispatcherThread.get(5, TimeUnit.SECONDS);
+        // OkHttp names the dispatcher thread after the call while it runs, so only where the call ran is checked.
+        assertNotSame(Thread.currentThread(), thread);
+        assertTrue(isVirtual(thread));
+    }
+
+    @Test
+    @DisabledIfSystemProperty(named = MULTI_RELEASE_JAR, matches = "true")
+    void testPlatformThreadsAreUsedWithoutTheJava21Classes() throws Exception {
+        assertFalse(VirtualThreads.isSupported());
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("spawn-action");
+        try {
+            Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get(5, TimeUnit.SECONDS);
+            assertEquals("spawn-action-0", thread.getName());
+            assertFalse(isVirtual(thread));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testGivenExecutorIsKept() {
+        Executor executor = Runnable::run;
+
+        assertSame(executor, TransportOpts.builder().virtualThreads(true).executor(executor).build().getExecutor());
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        if (Runtime.version().feature() < 21) {
+            return false;
+        }
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}